@@ -17,8 +17,11 @@ public class SequenceVerifier implements CommandLineRunner {
     public void run(String... args) {
         try {
             log.info("Verifying transaction_id_seq...");
-            Long nextVal = jdbcTemplate.queryForObject("SELECT nextval('transaction_id_seq')", Long.class);
-            log.info("Sequence transaction_id_seq exists. Next val: {}", nextVal);
+            // Read-only check: nextval would burn a whole block of transaction ids
+            java.util.Map<String, Object> seq = jdbcTemplate.queryForMap(
+                    "SELECT last_value, increment_by FROM pg_sequences WHERE sequencename = 'transaction_id_seq'");
+            log.info("Sequence transaction_id_seq exists. Last value: {}, block size: {}",
+                    seq.get("last_value"), seq.get("increment_by"));
         } catch (Exception e) {
             log.error("FAILED to query transaction_id_seq: {}", e.getMessage());
         }
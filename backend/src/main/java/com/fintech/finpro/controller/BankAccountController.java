@@ -21,6 +21,7 @@ public class BankAccountController {
     private final BankAccountService bankAccountService;
     private final com.fintech.finpro.service.SystemAccountService systemAccountService;
     private final com.fintech.finpro.security.JwtService jwtService;
+    private final com.fintech.finpro.service.StatementExportService statementExportService;
 
     @PostMapping("/{id}/deposit")
     @org.springframework.security.access.prepost.PreAuthorize("hasAnyRole('MAKER', 'ADMIN', 'SUPERADMIN')")
@@ -74,6 +75,55 @@ public class BankAccountController {
         return ResponseEntity.ok(systemAccountService.getSystemAccountStatement(id, startDate, endDate));
     }
 
+    @GetMapping("/{id}/statement/page")
+    @org.springframework.security.access.prepost.PreAuthorize("isAuthenticated()")
+    public ResponseEntity<com.fintech.finpro.dto.StatementPageDTO> getAccountStatementPage(
+            @PathVariable Long id,
+            @RequestParam @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate startDate,
+            @RequestParam @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+
+        return ResponseEntity.ok(bankAccountService.getAccountStatementPage(id, startDate, endDate, cursor, size));
+    }
+
+    @GetMapping("/system-accounts/{id}/statement/page")
+    @org.springframework.security.access.prepost.PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<com.fintech.finpro.dto.StatementPageDTO> getSystemAccountStatementPage(
+            @PathVariable Long id,
+            @RequestParam @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate startDate,
+            @RequestParam @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+
+        return ResponseEntity.ok(
+                systemAccountService.getSystemAccountStatementPage(id, startDate, endDate, cursor, size));
+    }
+
+    @GetMapping("/{id}/statement/export")
+    @org.springframework.security.access.prepost.PreAuthorize("isAuthenticated()")
+    public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> exportAccountStatement(
+            @PathVariable Long id,
+            @RequestParam @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate startDate,
+            @RequestParam @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        return StatementExportResponses.csv("bank_statement_" + id, gzip,
+                statementExportService.exportBankStatement(id, startDate, endDate, gzip));
+    }
+
+    @GetMapping("/system-accounts/{id}/statement/export")
+    @org.springframework.security.access.prepost.PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> exportSystemAccountStatement(
+            @PathVariable Long id,
+            @RequestParam @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate startDate,
+            @RequestParam @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        return StatementExportResponses.csv("system_statement_" + id, gzip,
+                statementExportService.exportSystemAccountStatement(id, startDate, endDate, gzip));
+    }
+
     @GetMapping("/{id}/pending")
     @org.springframework.security.access.prepost.PreAuthorize("isAuthenticated()")
     public ResponseEntity<List<com.fintech.finpro.dto.PendingTransactionDTO>> getPendingTransactions(
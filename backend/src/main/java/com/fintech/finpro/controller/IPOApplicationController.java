@@ -23,6 +23,8 @@ import java.util.List;
 public class IPOApplicationController {
 
     private final IPOApplicationService applicationService;
+    private final com.fintech.finpro.service.IPOApplicationIntakeService intakeService;
+    private final com.fintech.finpro.service.IPOApplicationBulkService bulkService;
     private final JwtService jwtService;
 
     @PostMapping
@@ -32,6 +34,31 @@ public class IPOApplicationController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @PostMapping("/intake")
+    @org.springframework.security.access.prepost.PreAuthorize("hasAnyRole('MAKER', 'ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<?> submitApplication(@Valid @RequestBody IPOApplicationCreateDTO dto) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(intakeService.submit(dto));
+        } catch (com.fintech.finpro.service.IPOApplicationIntakeService.BacklogFullException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(org.springframework.http.HttpHeaders.RETRY_AFTER, "5")
+                    .body(java.util.Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/bulk")
+    @org.springframework.security.access.prepost.PreAuthorize("hasAnyRole('MAKER', 'ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<java.util.Map<String, Object>> bulkApply(
+            @Valid @RequestBody com.fintech.finpro.dto.IPOBulkApplicationDTO dto) {
+        return ResponseEntity.ok(bulkService.bulkApply(dto));
+    }
+
+    @GetMapping("/intake/{trackingNumber}")
+    @org.springframework.security.access.prepost.PreAuthorize("isAuthenticated()")
+    public ResponseEntity<java.util.Map<String, Object>> getIntakeStatus(@PathVariable String trackingNumber) {
+        return ResponseEntity.ok(intakeService.getStatus(trackingNumber));
+    }
+
     @GetMapping("/{id}")
     @org.springframework.security.access.prepost.PreAuthorize("isAuthenticated()")
     public ResponseEntity<IPOApplicationDTO> getApplicationById(@PathVariable Long id) {
@@ -104,6 +131,26 @@ public class IPOApplicationController {
         return ResponseEntity.ok(verified);
     }
 
+    @PutMapping("/bulk-verify")
+    @org.springframework.security.access.prepost.PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN', 'CHECKER')")
+    public ResponseEntity<java.util.Map<String, Object>> bulkVerify(
+            @RequestBody com.fintech.finpro.dto.IPOBulkReviewDTO dto,
+            @RequestHeader("Authorization") String token) {
+
+        Long checkerId = jwtService.extractUserId(token.substring(7));
+        return ResponseEntity.ok(bulkService.bulkVerify(dto, checkerId));
+    }
+
+    @PutMapping("/bulk-approve")
+    @org.springframework.security.access.prepost.PreAuthorize("hasAnyRole('CHECKER', 'ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<java.util.Map<String, Object>> bulkApprove(
+            @RequestBody com.fintech.finpro.dto.IPOBulkReviewDTO dto,
+            @RequestHeader("Authorization") String token) {
+
+        Long checkerId = jwtService.extractUserId(token.substring(7));
+        return ResponseEntity.ok(bulkService.bulkApprove(dto, checkerId));
+    }
+
     @PutMapping("/{id}/approve")
     @org.springframework.security.access.prepost.PreAuthorize("hasAnyRole('CHECKER', 'ADMIN', 'SUPERADMIN')")
     public ResponseEntity<IPOApplicationDTO> approveApplication(
@@ -35,6 +35,12 @@ public class IPOController {
         return ResponseEntity.ok(ipo);
     }
 
+    @GetMapping("/{id}/held-amount")
+    @org.springframework.security.access.prepost.PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<Map<String, Object>> getHeldAmount(@PathVariable Long id) {
+        return ResponseEntity.ok(ipoService.getHeldAmount(id));
+    }
+
     @GetMapping
     @org.springframework.security.access.prepost.PreAuthorize("isAuthenticated()")
     public ResponseEntity<List<IPODTO>> getAllIPOs(@RequestParam(required = false) String status) {
@@ -95,10 +101,16 @@ public class IPOController {
         return ResponseEntity.ok(Map.of("message", "IPO status check triggered successfully"));
     }
 
+    @GetMapping("/{id}/allotment-simulation")
+    @org.springframework.security.access.prepost.PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<java.util.Map<String, Object>> simulateAllotment(@PathVariable Long id) {
+        return ResponseEntity.ok(ipoService.simulateAllotment(id));
+    }
+
     @PostMapping("/{id}/allot")
     @org.springframework.security.access.prepost.PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
-    public ResponseEntity<IPODTO> allotIPO(@PathVariable Long id) {
-        IPODTO result = ipoService.processAllotment(id);
+    public ResponseEntity<java.util.Map<String, Object>> allotIPO(@PathVariable Long id) {
+        java.util.Map<String, Object> result = ipoService.processAllotment(id);
         return ResponseEntity.ok(result);
     }
 
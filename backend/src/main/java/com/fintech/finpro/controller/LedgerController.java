@@ -18,7 +18,11 @@ import java.util.Map;
 public class LedgerController {
 
     private final LedgerService ledgerService;
-    private final com.fintech.finpro.util.CsvExportService csvExportService;
+    private final com.fintech.finpro.service.StatementExportService statementExportService;
+    private final com.fintech.finpro.service.BalanceSnapshotService balanceSnapshotService;
+    private final com.fintech.finpro.service.LedgerIntegrityVerifier integrityVerifier;
+    private final com.fintech.finpro.service.LedgerPeriodCloseService periodCloseService;
+    private final com.fintech.finpro.security.JwtService jwtService;
 
     @GetMapping("/system-accounts")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
@@ -41,6 +45,22 @@ public class LedgerController {
         return ResponseEntity.ok(created);
     }
 
+    @GetMapping("/system-accounts/{id}/shards")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<Map<String, Object>> getShards(@PathVariable Long id) {
+        return ResponseEntity.ok(ledgerService.getShards(id));
+    }
+
+    @PutMapping("/system-accounts/{id}/shards")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<Map<String, Object>> setShardCount(
+            @PathVariable Long id,
+            @RequestParam int count,
+            @RequestHeader("Authorization") String token) {
+        Long makerId = jwtService.extractUserId(token.substring(7));
+        return ResponseEntity.ok(ledgerService.setShardCount(id, count, makerId));
+    }
+
     @GetMapping("/{id}/statement")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
     public ResponseEntity<com.fintech.finpro.dto.AccountStatementDTO> getAccountStatement(
@@ -56,28 +76,76 @@ public class LedgerController {
         return ResponseEntity.ok(ledgerService.getAccountStatement(id, startDate, endDate));
     }
 
+    @GetMapping("/{id}/statement/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<com.fintech.finpro.dto.StatementPageDTO> getAccountStatementPage(
+            @PathVariable Long id,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate startDate,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+
+        if (startDate == null)
+            startDate = java.time.LocalDate.now().minusDays(30);
+        if (endDate == null)
+            endDate = java.time.LocalDate.now();
+
+        return ResponseEntity.ok(ledgerService.getAccountStatementPage(id, startDate, endDate, cursor, size));
+    }
+
     @GetMapping("/{id}/statement/export")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
-    public ResponseEntity<byte[]> exportStatement(
+    public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> exportStatement(
             @PathVariable Long id,
             @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate startDate,
-            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate endDate) {
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean gzip) {
 
         if (startDate == null)
             startDate = java.time.LocalDate.now().minusDays(30);
         if (endDate == null)
             endDate = java.time.LocalDate.now();
 
-        com.fintech.finpro.dto.AccountStatementDTO statement = ledgerService.getAccountStatement(id, startDate,
-                endDate);
-        byte[] csvData = csvExportService.generateStatementCsv(statement);
+        return StatementExportResponses.csv("statement_" + id, gzip,
+                statementExportService.exportLedgerStatement(id, startDate, endDate, gzip));
+    }
+
+    @PostMapping("/snapshots/backfill")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<Map<String, Object>> backfillSnapshots(
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate from,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate to) {
+        return ResponseEntity.ok(balanceSnapshotService.backfill(from, to));
+    }
+
+    @PostMapping("/snapshots/repair")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<Map<String, Object>> repairSnapshots(
+            @RequestParam @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate from,
+            @RequestParam(required = false) String kind,
+            @RequestParam(required = false) Long accountId) {
+        return ResponseEntity.ok(balanceSnapshotService.repair(kind, accountId, from));
+    }
+
+    @PostMapping("/integrity/verify")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<Map<String, Object>> verifyIntegrity(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(integrityVerifier.verify(repair));
+    }
 
-        org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
-        headers.setContentType(org.springframework.http.MediaType.parseMediaType("text/csv"));
-        headers.setContentDispositionFormData("attachment", "statement_" + id + ".csv");
+    @GetMapping("/periods")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<List<Map<String, Object>>> getClosedPeriods() {
+        return ResponseEntity.ok(periodCloseService.getClosedPeriods());
+    }
 
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(csvData);
+    @PostMapping("/periods/close")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<Map<String, Object>> closePeriod(
+            @RequestParam @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate before,
+            @RequestHeader("Authorization") String token) {
+        Long makerId = jwtService.extractUserId(token.substring(7));
+        return ResponseEntity.ok(periodCloseService.closePeriod(before, makerId));
     }
 }
@@ -0,0 +1,29 @@
+package com.fintech.finpro.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Response headers for streamed statement CSV downloads
+ */
+final class StatementExportResponses {
+
+    private StatementExportResponses() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> csv(String baseName, boolean gzip, StreamingResponseBody body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (gzip) {
+            headers.setContentType(MediaType.parseMediaType("application/gzip"));
+            headers.setContentDispositionFormData("attachment", baseName + ".csv.gz");
+        } else {
+            headers.setContentType(MediaType.parseMediaType("text/csv"));
+            headers.setContentDispositionFormData("attachment", baseName + ".csv");
+        }
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+}
@@ -0,0 +1,31 @@
+package com.fintech.finpro.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IPOBulkApplicationDTO {
+
+    @NotNull(message = "IPO ID is required")
+    private Long ipoId;
+
+    private Long makerId;
+
+    private List<IPOBulkApplicationItemDTO> items;
+
+    /**
+     * Apply for every KYC-approved customer with an active primary bank account who has
+     * not applied yet, with the given quantity each (instead of items)
+     */
+    private Boolean allEligible;
+
+    private Integer quantity;
+}
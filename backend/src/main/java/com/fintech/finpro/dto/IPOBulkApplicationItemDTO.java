@@ -0,0 +1,16 @@
+package com.fintech.finpro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IPOBulkApplicationItemDTO {
+    private Long customerId;
+    private Long bankAccountId;
+    private Integer quantity;
+}
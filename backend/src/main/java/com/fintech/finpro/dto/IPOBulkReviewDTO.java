@@ -0,0 +1,27 @@
+package com.fintech.finpro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IPOBulkReviewDTO {
+
+    private List<Long> applicationIds;
+
+    /**
+     * Instead of applicationIds: all applications of this IPO in the given status (by
+     * default the status the action starts from)
+     */
+    private Long ipoId;
+
+    private String status;
+
+    private String approvedBy;
+}
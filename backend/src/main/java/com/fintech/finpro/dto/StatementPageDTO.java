@@ -0,0 +1,28 @@
+package com.fintech.finpro.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One page of an account statement, newest first. Pass nextCursor back to get the next
+ * (older) page; it is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementPageDTO {
+    private Long accountId;
+    private String accountNumber;
+    private String bankName;
+    private String customerName;
+    private BigDecimal currentBalance;
+    private List<BankTransactionDTO> transactions;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,39 @@
+package com.fintech.finpro.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Closing balance of a ledger account or customer bank account at the end of a business day
+ */
+@Entity
+@Table(name = "account_balance_snapshots")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountBalanceSnapshot extends BaseEntity {
+
+    public static final String KIND_LEDGER = "LEDGER";
+    public static final String KIND_BANK = "BANK";
+
+    @Column(name = "account_kind", nullable = false, length = 10)
+    private String accountKind; // LEDGER or BANK
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "business_date", nullable = false)
+    private LocalDate businessDate;
+
+    @Column(name = "closing_balance", nullable = false, precision = 15, scale = 2)
+    private BigDecimal closingBalance;
+
+    @Column(name = "txn_count", nullable = false)
+    @Builder.Default
+    private Long txnCount = 0L;
+}
@@ -3,11 +3,18 @@ package com.fintech.finpro.entity;
 import com.fintech.finpro.enums.AccountType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 
+/**
+ * Balance and held balance are changed with guarded UPDATE statements
+ * (CustomerBankAccountRepository, LedgerPostingRepository.addToBankBalances); dynamic
+ * updates keep an unrelated entity flush from writing stale values back.
+ */
 @Entity
 @Table(name = "customer_bank_accounts")
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
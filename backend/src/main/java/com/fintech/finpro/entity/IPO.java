@@ -53,6 +53,12 @@ public class IPO extends BaseEntity {
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    @Column(name = "allotment_seed")
+    private Long allotmentSeed; // lottery seed, fixed by the first allotment run
+
+    @Column(name = "allotment_started_at")
+    private java.time.LocalDateTime allotmentStartedAt; // first allotment run; approvals are closed from then on
+
     /**
      * Check if IPO is currently open for applications
      */
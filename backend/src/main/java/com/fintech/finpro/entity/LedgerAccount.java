@@ -37,6 +37,18 @@ public class LedgerAccount extends com.fintech.finpro.entity.BaseEntity {
     @Builder.Default
     private String status = "ACTIVE";
 
+    // Sharding (V45): a parent with shardCount > 1 spreads postings over itself and its
+    // shard rows; shard rows point back to the parent
+    @Column(name = "shard_count", nullable = false)
+    @Builder.Default
+    private Integer shardCount = 1;
+
+    @Column(name = "parent_account_id")
+    private Long parentAccountId;
+
+    @Column(name = "shard_index")
+    private Integer shardIndex;
+
     public String getAccountName() {
         return this.accountName;
     }
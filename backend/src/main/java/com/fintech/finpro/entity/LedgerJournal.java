@@ -0,0 +1,37 @@
+package com.fintech.finpro.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Header of a multi-leg business event; its legs are the ledger transactions with this journal id
+ */
+@Entity
+@Table(name = "ledger_journals")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerJournal extends BaseEntity {
+
+    @Column(name = "journal_type", nullable = false, length = 50)
+    private String journalType; // IPO_ALLOTMENT, SHARE_SELL_SETTLEMENT, ...
+
+    @Column(length = 100)
+    private String reference;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "maker_id")
+    private Long makerId;
+
+    @Column(name = "leg_count", nullable = false)
+    private Integer legCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalAmount;
+}
@@ -72,6 +72,9 @@ public class LedgerTransaction extends com.fintech.finpro.entity.BaseEntity {
     @Column(name = "reference_id_long")
     private Long referenceIdLong; // ID of the referenced entity
 
+    @Column(name = "journal_id")
+    private Long journalId; // LedgerJournal this leg belongs to, if any
+
     @Column(name = "is_dual_entry")
     @Builder.Default
     private Boolean isDualEntry = false; // true for investor-customer transactions
@@ -0,0 +1,167 @@
+package com.fintech.finpro.repository;
+
+import com.fintech.finpro.entity.AccountBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface AccountBalanceSnapshotRepository extends JpaRepository<AccountBalanceSnapshot, Long> {
+
+    Optional<AccountBalanceSnapshot> findFirstByAccountKindAndAccountIdAndBusinessDateBeforeOrderByBusinessDateDesc(
+            String accountKind, Long accountId, LocalDate businessDate);
+
+    @Query("SELECT MAX(s.businessDate) FROM AccountBalanceSnapshot s")
+    LocalDate findLatestBusinessDate();
+
+    /**
+     * Write closing balances for every ledger account with activity on the given day.
+     * Each closing balance is the previous snapshot (if any) plus everything posted since,
+     * so a missed day never corrupts later snapshots.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO account_balance_snapshots " +
+            "(account_kind, account_id, business_date, closing_balance, txn_count, created_at, updated_at) " +
+            "SELECT 'LEDGER', d.account_id, CAST(:businessDate AS DATE), " +
+            "  COALESCE(p.closing_balance, 0) " +
+            "  + COALESCE((SELECT SUM(t.amount) FROM ledger_transactions t " +
+            "     WHERE t.credit_account_id = d.account_id AND t.status = 'COMPLETED' " +
+            "       AND t.created_at >= COALESCE(p.business_date + 1, DATE '-infinity') " +
+            "       AND t.created_at < CAST(:businessDate AS DATE) + 1), 0) " +
+            "  - COALESCE((SELECT SUM(t.amount) FROM ledger_transactions t " +
+            "     WHERE t.debit_account_id = d.account_id AND t.status = 'COMPLETED' " +
+            "       AND t.credit_account_id IS DISTINCT FROM d.account_id " +
+            "       AND t.created_at >= COALESCE(p.business_date + 1, DATE '-infinity') " +
+            "       AND t.created_at < CAST(:businessDate AS DATE) + 1), 0), " +
+            "  d.txn_count, NOW(), NOW() " +
+            "FROM (SELECT legs.account_id, COUNT(*) AS txn_count FROM ( " +
+            "    SELECT credit_account_id AS account_id FROM ledger_transactions " +
+            "    WHERE status = 'COMPLETED' AND credit_account_id IS NOT NULL " +
+            "      AND created_at >= CAST(:businessDate AS DATE) AND created_at < CAST(:businessDate AS DATE) + 1 " +
+            "    UNION ALL " +
+            "    SELECT debit_account_id FROM ledger_transactions " +
+            "    WHERE status = 'COMPLETED' AND debit_account_id IS NOT NULL " +
+            "      AND created_at >= CAST(:businessDate AS DATE) AND created_at < CAST(:businessDate AS DATE) + 1 " +
+            "  ) legs GROUP BY legs.account_id) d " +
+            "LEFT JOIN LATERAL (SELECT s.business_date, s.closing_balance FROM account_balance_snapshots s " +
+            "    WHERE s.account_kind = 'LEDGER' AND s.account_id = d.account_id " +
+            "      AND s.business_date < CAST(:businessDate AS DATE) " +
+            "    ORDER BY s.business_date DESC LIMIT 1) p ON TRUE " +
+            "ON CONFLICT (account_kind, account_id, business_date) DO UPDATE SET " +
+            "  closing_balance = EXCLUDED.closing_balance, txn_count = EXCLUDED.txn_count, updated_at = NOW()",
+            nativeQuery = true)
+    int snapshotLedgerAccounts(@Param("businessDate") LocalDate businessDate);
+
+    /**
+     * Same as {@link #snapshotLedgerAccounts(LocalDate)} for customer bank accounts, using the
+     * statement sign rules (DEPOSIT/REVERSAL/SETTLEMENT credit, WITHDRAWAL/FEE/TRANSFER/ALLOTMENT debit).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO account_balance_snapshots " +
+            "(account_kind, account_id, business_date, closing_balance, txn_count, created_at, updated_at) " +
+            "SELECT 'BANK', d.account_id, CAST(:businessDate AS DATE), " +
+            "  COALESCE(p.closing_balance, 0) " +
+            "  + COALESCE((SELECT SUM(CASE " +
+            "       WHEN t.transaction_type IN ('DEPOSIT', 'REVERSAL', 'SETTLEMENT') THEN t.amount " +
+            "       WHEN t.transaction_type IN ('WITHDRAWAL', 'FEE', 'TRANSFER', 'ALLOTMENT') THEN -t.amount " +
+            "       ELSE 0 END) FROM ledger_transactions t " +
+            "     WHERE t.customer_bank_account_id = d.account_id AND t.status = 'COMPLETED' " +
+            "       AND t.created_at >= COALESCE(p.business_date + 1, DATE '-infinity') " +
+            "       AND t.created_at < CAST(:businessDate AS DATE) + 1), 0), " +
+            "  d.txn_count, NOW(), NOW() " +
+            "FROM (SELECT customer_bank_account_id AS account_id, COUNT(*) AS txn_count FROM ledger_transactions " +
+            "    WHERE status = 'COMPLETED' AND customer_bank_account_id IS NOT NULL " +
+            "      AND created_at >= CAST(:businessDate AS DATE) AND created_at < CAST(:businessDate AS DATE) + 1 " +
+            "    GROUP BY customer_bank_account_id) d " +
+            "LEFT JOIN LATERAL (SELECT s.business_date, s.closing_balance FROM account_balance_snapshots s " +
+            "    WHERE s.account_kind = 'BANK' AND s.account_id = d.account_id " +
+            "      AND s.business_date < CAST(:businessDate AS DATE) " +
+            "    ORDER BY s.business_date DESC LIMIT 1) p ON TRUE " +
+            "ON CONFLICT (account_kind, account_id, business_date) DO UPDATE SET " +
+            "  closing_balance = EXCLUDED.closing_balance, txn_count = EXCLUDED.txn_count, updated_at = NOW()",
+            nativeQuery = true)
+    int snapshotBankAccounts(@Param("businessDate") LocalDate businessDate);
+
+    /**
+     * Carried-forward closing balances for a period close: one row on the given day for
+     * every ledger account with any history up to it, whether or not it was active that
+     * day. Built from each account's previous snapshot plus the (hot) transactions since.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO account_balance_snapshots " +
+            "(account_kind, account_id, business_date, closing_balance, txn_count, created_at, updated_at) " +
+            "SELECT 'LEDGER', a.account_id, CAST(:businessDate AS DATE), " +
+            "  COALESCE(p.closing_balance, 0) " +
+            "  + COALESCE((SELECT SUM(t.amount) FROM ledger_transactions t " +
+            "     WHERE t.credit_account_id = a.account_id AND t.status = 'COMPLETED' " +
+            "       AND t.created_at >= COALESCE(p.business_date + 1, DATE '-infinity') " +
+            "       AND t.created_at < CAST(:businessDate AS DATE) + 1), 0) " +
+            "  - COALESCE((SELECT SUM(t.amount) FROM ledger_transactions t " +
+            "     WHERE t.debit_account_id = a.account_id AND t.status = 'COMPLETED' " +
+            "       AND t.credit_account_id IS DISTINCT FROM a.account_id " +
+            "       AND t.created_at >= COALESCE(p.business_date + 1, DATE '-infinity') " +
+            "       AND t.created_at < CAST(:businessDate AS DATE) + 1), 0), " +
+            "  0, NOW(), NOW() " +
+            "FROM (SELECT account_id FROM account_balance_snapshots " +
+            "    WHERE account_kind = 'LEDGER' AND business_date < CAST(:businessDate AS DATE) " +
+            "  UNION SELECT credit_account_id FROM ledger_transactions " +
+            "    WHERE credit_account_id IS NOT NULL AND status = 'COMPLETED' " +
+            "      AND created_at < CAST(:businessDate AS DATE) + 1 " +
+            "  UNION SELECT debit_account_id FROM ledger_transactions " +
+            "    WHERE debit_account_id IS NOT NULL AND status = 'COMPLETED' " +
+            "      AND created_at < CAST(:businessDate AS DATE) + 1) a " +
+            "LEFT JOIN LATERAL (SELECT s.business_date, s.closing_balance FROM account_balance_snapshots s " +
+            "    WHERE s.account_kind = 'LEDGER' AND s.account_id = a.account_id " +
+            "      AND s.business_date < CAST(:businessDate AS DATE) " +
+            "    ORDER BY s.business_date DESC LIMIT 1) p ON TRUE " +
+            "ON CONFLICT (account_kind, account_id, business_date) DO UPDATE SET " +
+            "  closing_balance = EXCLUDED.closing_balance, updated_at = NOW()",
+            nativeQuery = true)
+    int carryForwardLedgerAccounts(@Param("businessDate") LocalDate businessDate);
+
+    /**
+     * Same as {@link #carryForwardLedgerAccounts(LocalDate)} for customer bank accounts
+     */
+    @Modifying
+    @Query(value = "INSERT INTO account_balance_snapshots " +
+            "(account_kind, account_id, business_date, closing_balance, txn_count, created_at, updated_at) " +
+            "SELECT 'BANK', a.account_id, CAST(:businessDate AS DATE), " +
+            "  COALESCE(p.closing_balance, 0) " +
+            "  + COALESCE((SELECT SUM(CASE " +
+            "       WHEN t.transaction_type IN ('DEPOSIT', 'REVERSAL', 'SETTLEMENT') THEN t.amount " +
+            "       WHEN t.transaction_type IN ('WITHDRAWAL', 'FEE', 'TRANSFER', 'ALLOTMENT') THEN -t.amount " +
+            "       ELSE 0 END) FROM ledger_transactions t " +
+            "     WHERE t.customer_bank_account_id = a.account_id AND t.status = 'COMPLETED' " +
+            "       AND t.created_at >= COALESCE(p.business_date + 1, DATE '-infinity') " +
+            "       AND t.created_at < CAST(:businessDate AS DATE) + 1), 0), " +
+            "  0, NOW(), NOW() " +
+            "FROM (SELECT account_id FROM account_balance_snapshots " +
+            "    WHERE account_kind = 'BANK' AND business_date < CAST(:businessDate AS DATE) " +
+            "  UNION SELECT customer_bank_account_id FROM ledger_transactions " +
+            "    WHERE customer_bank_account_id IS NOT NULL AND status = 'COMPLETED' " +
+            "      AND created_at < CAST(:businessDate AS DATE) + 1) a " +
+            "LEFT JOIN LATERAL (SELECT s.business_date, s.closing_balance FROM account_balance_snapshots s " +
+            "    WHERE s.account_kind = 'BANK' AND s.account_id = a.account_id " +
+            "      AND s.business_date < CAST(:businessDate AS DATE) " +
+            "    ORDER BY s.business_date DESC LIMIT 1) p ON TRUE " +
+            "ON CONFLICT (account_kind, account_id, business_date) DO UPDATE SET " +
+            "  closing_balance = EXCLUDED.closing_balance, updated_at = NOW()",
+            nativeQuery = true)
+    int carryForwardBankAccounts(@Param("businessDate") LocalDate businessDate);
+
+    @Modifying
+    @Query("DELETE FROM AccountBalanceSnapshot s WHERE s.businessDate >= :fromDate")
+    int deleteFrom(@Param("fromDate") LocalDate fromDate);
+
+    @Modifying
+    @Query("DELETE FROM AccountBalanceSnapshot s WHERE s.accountKind = :accountKind AND s.accountId IN :accountIds " +
+            "AND s.businessDate >= :fromDate")
+    int deleteFrom(@Param("accountKind") String accountKind,
+            @Param("accountIds") java.util.Collection<Long> accountIds,
+            @Param("fromDate") LocalDate fromDate);
+}
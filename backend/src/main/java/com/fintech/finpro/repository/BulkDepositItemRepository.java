@@ -2,6 +2,8 @@ package com.fintech.finpro.repository;
 
 import com.fintech.finpro.entity.BulkDepositItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +13,8 @@ public interface BulkDepositItemRepository extends JpaRepository<BulkDepositItem
     List<BulkDepositItem> findByBulkDepositBatchId(String batchId);
 
     List<BulkDepositItem> findByCustomerId(Long customerId);
+
+    @Query("SELECT i FROM BulkDepositItem i JOIN FETCH i.customer c LEFT JOIN FETCH c.investor " +
+            "WHERE i.bulkDeposit.batchId = :batchId")
+    List<BulkDepositItem> findWithCustomersByBatchId(@Param("batchId") String batchId);
 }
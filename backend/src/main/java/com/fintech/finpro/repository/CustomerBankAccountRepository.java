@@ -1,11 +1,16 @@
 package com.fintech.finpro.repository;
 
 import com.fintech.finpro.entity.CustomerBankAccount;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,5 +33,53 @@ public interface CustomerBankAccountRepository extends JpaRepository<CustomerBan
             @Param("customerId") Long customerId,
             @Param("accountNumber") String accountNumber);
 
+    /**
+     * Lock the given accounts in id order until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM CustomerBankAccount b WHERE b.id IN :ids ORDER BY b.id")
+    List<CustomerBankAccount> findByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Guarded single-statement balance changes: the condition and the write happen in one
+    // UPDATE under the row lock, so concurrent callers cannot both pass the check. Each
+    // returns the affected row count, 0 when the guard failed. Loaded entities are not
+    // refreshed; the entity is @DynamicUpdate, so a later flush does not write these columns back.
+
+    /**
+     * Hold funds if the available balance (balance - held) covers the amount
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CustomerBankAccount b SET b.heldBalance = b.heldBalance + :amount " +
+            "WHERE b.id = :id AND b.balance - b.heldBalance >= :amount")
+    int holdFunds(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Release held funds if at least the amount is held
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CustomerBankAccount b SET b.heldBalance = b.heldBalance - :amount " +
+            "WHERE b.id = :id AND b.heldBalance >= :amount")
+    int releaseHold(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Replace a hold of oldAmount by newAmount if oldAmount is held and the available
+     * balance without it covers newAmount
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CustomerBankAccount b SET b.heldBalance = b.heldBalance - :oldAmount + :newAmount " +
+            "WHERE b.id = :id AND b.heldBalance >= :oldAmount " +
+            "AND b.balance - (b.heldBalance - :oldAmount) >= :newAmount")
+    int replaceHold(@Param("id") Long id, @Param("oldAmount") BigDecimal oldAmount,
+            @Param("newAmount") BigDecimal newAmount);
+
+    /**
+     * Lock the account until the transaction ends if its available balance (balance - held)
+     * covers the amount. Nothing is written: the ledger posting linked to the account moves
+     * its balance (LedgerBatchWriter.bankDelta), under this lock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM CustomerBankAccount b WHERE b.id = :id AND b.balance - b.heldBalance >= :amount")
+    Optional<CustomerBankAccount> findCoveredForUpdate(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
     boolean existsByCustomerIdAndAccountNumber(Long customerId, String accountNumber);
 }
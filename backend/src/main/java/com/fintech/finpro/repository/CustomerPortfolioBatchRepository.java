@@ -0,0 +1,88 @@
+package com.fintech.finpro.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based portfolio writes for bulk allotment: one lookup per chunk and batched
+ * INSERT/UPDATE statements instead of a find and save per customer
+ */
+@Repository
+@RequiredArgsConstructor
+public class CustomerPortfolioBatchRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    public record PortfolioAddition(long customerId, int quantity, BigDecimal cost) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Oldest portfolio id per customer for the given scrip
+     */
+    public Map<Long, Long> findPortfolioIds(String scripSymbol, Collection<Long> customerIds) {
+        Map<Long, Long> byCustomer = new HashMap<>();
+        if (customerIds.isEmpty()) {
+            return byCustomer;
+        }
+        Object[] ids = customerIds.toArray();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT customer_id, id FROM customer_portfolios " +
+                    "WHERE scrip_symbol = ? AND customer_id = ANY(?) ORDER BY id");
+            ps.setString(1, scripSymbol);
+            ps.setArray(2, con.createArrayOf("bigint", ids));
+            return ps;
+        }, (RowCallbackHandler) rs -> byCustomer.putIfAbsent(rs.getLong("customer_id"), rs.getLong("id")));
+        return byCustomer;
+    }
+
+    /**
+     * Add quantity and cost to existing portfolios, keyed by portfolio id
+     */
+    public void addToPortfolios(Map<Long, PortfolioAddition> byPortfolio, LocalDateTime updatedAt) {
+        Timestamp ts = Timestamp.valueOf(updatedAt);
+        List<Object[]> args = byPortfolio.entrySet().stream()
+                .map(e -> new Object[] { e.getValue().quantity(), e.getValue().cost(), ts, e.getKey() })
+                .toList();
+        for (int from = 0; from < args.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("UPDATE customer_portfolios SET quantity = quantity + ?, " +
+                    "total_cost = total_cost + ?, updated_at = ? WHERE id = ?",
+                    args.subList(from, Math.min(args.size(), from + BATCH_SIZE)));
+        }
+    }
+
+    /**
+     * New HELD portfolios for an IPO's scrip
+     */
+    public void insertPortfolios(Long ipoId, String scripSymbol, BigDecimal purchasePrice,
+            List<PortfolioAddition> additions, LocalDate holdingSince, LocalDateTime createdAt) {
+        Timestamp ts = Timestamp.valueOf(createdAt);
+        jdbcTemplate.batchUpdate("INSERT INTO customer_portfolios (customer_id, ipo_id, scrip_symbol, quantity, " +
+                "purchase_price, total_cost, holding_since, status, is_bonus, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, 'HELD', FALSE, ?, ?)", additions, BATCH_SIZE, (ps, a) -> {
+                    ps.setLong(1, a.customerId());
+                    ps.setLong(2, ipoId);
+                    ps.setString(3, scripSymbol);
+                    ps.setInt(4, a.quantity());
+                    ps.setBigDecimal(5, purchasePrice);
+                    ps.setBigDecimal(6, a.cost());
+                    ps.setDate(7, Date.valueOf(holdingSince));
+                    ps.setTimestamp(8, ts);
+                    ps.setTimestamp(9, ts);
+                });
+    }
+}
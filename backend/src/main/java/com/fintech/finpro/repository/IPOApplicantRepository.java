@@ -0,0 +1,247 @@
+package com.fintech.finpro.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Applicants of an IPO's allotment draw as primitive arrays, for AllotmentLottery, and
+ * the stored plan of a started allotment (ipo_allotment_plan, V55). The draw covers the
+ * applications still APPROVED; it is made once per IPO and stored, so a resumed run
+ * settles from the same plan.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IPOApplicantRepository {
+
+    private static final int FETCH_SIZE = 10000;
+
+    private static final String APPLICANT_SET = "FROM ipo_applications a " +
+            "LEFT JOIN customer_bank_accounts b ON b.id = a.bank_account_id " +
+            "WHERE a.ipo_id = ? AND a.application_status = 'APPROVED'";
+
+    /**
+     * Parallel arrays, ordered by application id; amounts in paisa, bank id 0 when the
+     * application has no linked bank
+     */
+    public record Applicants(long[] applicationIds, int[] quantities, long[] amountsMinor, long[] bankIds) {
+
+        public int size() {
+            return applicationIds.length;
+        }
+    }
+
+    /**
+     * Stored allotted quantity per application id (ids ascending)
+     */
+    public record StoredPlan(long[] applicationIds, int[] allotted) {
+
+        public int size() {
+            return applicationIds.length;
+        }
+
+        /**
+         * Shares planned for the application, or -1 if it is not in the plan
+         */
+        public int allottedFor(Long applicationId) {
+            int i = Arrays.binarySearch(applicationIds, applicationId);
+            return i >= 0 ? allotted[i] : -1;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Shares already allotted for the IPO
+     */
+    public long findAllottedShares(Long ipoId) {
+        Long shares = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(allotment_quantity), 0) " +
+                "FROM ipo_applications WHERE ipo_id = ? AND application_status = 'ALLOTTED'", Long.class, ipoId);
+        return shares != null ? shares : 0L;
+    }
+
+    /**
+     * Fix the IPO's allotment seed unless one is set, in a single guarded UPDATE; a
+     * concurrent caller waits for the row lock and gets the seed that won
+     *
+     * @return the IPO's seed
+     */
+    public long fixAllotmentSeed(Long ipoId, long candidateSeed) {
+        return jdbcTemplate.queryForObject("UPDATE ipos SET allotment_seed = COALESCE(allotment_seed, ?) " +
+                "WHERE id = ? RETURNING allotment_seed", Long.class, candidateSeed, ipoId);
+    }
+
+    /**
+     * Seed and start time of a started allotment
+     */
+    public record AllotmentStart(long seed, LocalDateTime startedAt) {
+    }
+
+    /**
+     * Mark the allotment as started and fix its seed, keeping a seed or start time that is
+     * already set, in a single UPDATE. Waits for approvals in progress, which hold a share
+     * lock on the IPO row (IPORepository.isAllotmentStarted); concurrent first runs get the
+     * same seed.
+     */
+    public AllotmentStart startAllotment(Long ipoId, long candidateSeed) {
+        return jdbcTemplate.queryForObject("UPDATE ipos SET allotment_seed = COALESCE(allotment_seed, ?), " +
+                "allotment_started_at = COALESCE(allotment_started_at, NOW()) WHERE id = ? " +
+                "RETURNING allotment_seed, allotment_started_at",
+                (rs, rowNum) -> new AllotmentStart(rs.getLong(1), rs.getObject(2, LocalDateTime.class)),
+                candidateSeed, ipoId);
+    }
+
+    /**
+     * Store a drawn plan in one statement unless the IPO already has one. The IPO row lock
+     * serializes concurrent first runs, so a stored plan always comes from a single draw.
+     *
+     * @return whether this plan was stored
+     */
+    @Transactional
+    public boolean savePlan(Long ipoId, long[] applicationIds, int[] allotted) {
+        if (applicationIds.length == 0) {
+            return false;
+        }
+        jdbcTemplate.queryForObject("SELECT id FROM ipos WHERE id = ? FOR UPDATE", Long.class, ipoId);
+        Boolean planned = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM ipo_allotment_plan " +
+                "WHERE ipo_id = ?)", Boolean.class, ipoId);
+        if (Boolean.TRUE.equals(planned)) {
+            return false;
+        }
+        Long[] ids = Arrays.stream(applicationIds).boxed().toArray(Long[]::new);
+        Integer[] quantities = Arrays.stream(allotted).boxed().toArray(Integer[]::new);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("INSERT INTO ipo_allotment_plan " +
+                    "(ipo_id, application_id, allotted_quantity) SELECT ?, u.id, u.quantity " +
+                    "FROM unnest(?, ?) AS u(id, quantity)");
+            ps.setLong(1, ipoId);
+            ps.setArray(2, con.createArrayOf("bigint", ids));
+            ps.setArray(3, con.createArrayOf("int4", quantities));
+            return ps;
+        });
+        return true;
+    }
+
+    @Transactional(readOnly = true)
+    public StoredPlan findPlan(Long ipoId) {
+        // Same collector as the applicants; the amount and bank columns are unused
+        ApplicantCollector collector = new ApplicantCollector();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT application_id, allotted_quantity, 0, 0 " +
+                    "FROM ipo_allotment_plan WHERE ipo_id = ? ORDER BY application_id");
+            ps.setLong(1, ipoId);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, collector);
+        int n = collector.size;
+        return new StoredPlan(Arrays.copyOf(collector.ids, n), Arrays.copyOf(collector.quantities, n));
+    }
+
+    /**
+     * Fingerprint of the applicant set (count and an order-independent hash of id, quantity,
+     * amount and bank); changes whenever an application joins or leaves the draw or one
+     * of those columns changes. Computed in the database, so no rows are transferred.
+     */
+    public String findApplicantSetVersion(Long ipoId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) || '-' || COALESCE(SUM(hashtextextended(" +
+                "concat_ws(':', a.id, a.quantity, a.amount, b.bank_id), 0)::NUMERIC), 0) " + APPLICANT_SET,
+                String.class, ipoId);
+    }
+
+    /**
+     * Streamed with a cursor (hence the transaction) straight into the arrays
+     */
+    @Transactional(readOnly = true)
+    public Applicants findApplicants(Long ipoId) {
+        ApplicantCollector collector = new ApplicantCollector();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT a.id, a.quantity, " +
+                    "ROUND(a.amount * 100)::BIGINT AS amount_minor, COALESCE(b.bank_id, 0) AS bank_id " +
+                    APPLICANT_SET + " ORDER BY a.id");
+            ps.setLong(1, ipoId);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, collector);
+        int n = collector.size;
+        return new Applicants(Arrays.copyOf(collector.ids, n), Arrays.copyOf(collector.quantities, n),
+                Arrays.copyOf(collector.amounts, n), Arrays.copyOf(collector.bankIds, n));
+    }
+
+    /**
+     * Applicants of the stored plan with their planned quantities, whatever their current
+     * status; parallel arrays ordered by application id
+     */
+    public record PlannedApplicants(Applicants applicants, int[] allotted) {
+    }
+
+    @Transactional(readOnly = true)
+    public PlannedApplicants findPlannedApplicants(Long ipoId) {
+        ApplicantCollector collector = new ApplicantCollector();
+        int[][] allotted = { new int[1024] };
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT a.id, a.quantity, " +
+                    "ROUND(a.amount * 100)::BIGINT AS amount_minor, COALESCE(b.bank_id, 0) AS bank_id, " +
+                    "p.allotted_quantity FROM ipo_allotment_plan p " +
+                    "JOIN ipo_applications a ON a.id = p.application_id " +
+                    "LEFT JOIN customer_bank_accounts b ON b.id = a.bank_account_id " +
+                    "WHERE p.ipo_id = ? ORDER BY p.application_id");
+            ps.setLong(1, ipoId);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            int i = collector.size;
+            if (i == allotted[0].length) {
+                allotted[0] = Arrays.copyOf(allotted[0], i * 2);
+            }
+            allotted[0][i] = rs.getInt(5);
+            collector.processRow(rs);
+        });
+        int n = collector.size;
+        return new PlannedApplicants(new Applicants(Arrays.copyOf(collector.ids, n),
+                Arrays.copyOf(collector.quantities, n), Arrays.copyOf(collector.amounts, n),
+                Arrays.copyOf(collector.bankIds, n)), Arrays.copyOf(allotted[0], n));
+    }
+
+    /**
+     * Shares allotted to applications outside the stored plan (settled before it was drawn)
+     */
+    public long findAllottedSharesOutsidePlan(Long ipoId) {
+        Long shares = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(a.allotment_quantity), 0) " +
+                "FROM ipo_applications a WHERE a.ipo_id = ? AND a.application_status = 'ALLOTTED' " +
+                "AND NOT EXISTS (SELECT 1 FROM ipo_allotment_plan p WHERE p.ipo_id = a.ipo_id " +
+                "AND p.application_id = a.id)", Long.class, ipoId);
+        return shares != null ? shares : 0L;
+    }
+
+    /** Appends rows to growing primitive arrays */
+    private static final class ApplicantCollector implements RowCallbackHandler {
+        long[] ids = new long[1024];
+        int[] quantities = new int[1024];
+        long[] amounts = new long[1024];
+        long[] bankIds = new long[1024];
+        int size;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                quantities = Arrays.copyOf(quantities, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+                bankIds = Arrays.copyOf(bankIds, size * 2);
+            }
+            ids[size] = rs.getLong(1);
+            quantities[size] = rs.getInt(2);
+            amounts[size] = rs.getLong(3);
+            bankIds[size] = rs.getLong(4);
+            size++;
+        }
+    }
+}
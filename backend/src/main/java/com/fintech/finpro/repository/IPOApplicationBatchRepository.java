@@ -0,0 +1,286 @@
+package com.fintech.finpro.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-based reads and writes for applying to an IPO on behalf of many customers and for
+ * verifying or approving many applications: one statement per step for a whole chunk
+ * (array parameters), instead of the per-application queries of IPOApplicationService
+ */
+@Repository
+@RequiredArgsConstructor
+public class IPOApplicationBatchRepository {
+
+    public record Applicant(long customerId, String kycStatus, String fullName) {
+    }
+
+    public record NewApplication(long id, long customerId, long bankAccountId, int quantity, BigDecimal amount,
+            String applicationNumber, String applicationStatus, Long makerId, LocalDateTime appliedAt) {
+    }
+
+    /**
+     * An application with what verification and approval need of its customer, IPO and bank
+     */
+    public record ReviewRow(long id, String applicationNumber, String status, Long makerId, long customerId,
+            String customerName, String ipoName, boolean allotmentStarted, Long bankAccountId, Long bankId,
+            String bankName) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Map<Long, Applicant> findApplicants(Collection<Long> customerIds) {
+        Map<Long, Applicant> byId = new HashMap<>();
+        if (customerIds.isEmpty()) {
+            return byId;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, kyc_status, first_name, last_name " +
+                    "FROM customers WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("bigint", customerIds.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> byId.put(rs.getLong("id"), new Applicant(rs.getLong("id"),
+                rs.getString("kyc_status"), rs.getString("first_name") + " " + rs.getString("last_name"))));
+        return byId;
+    }
+
+    /**
+     * Owning customer id per bank account id
+     */
+    public Map<Long, Long> findBankAccountOwners(Collection<Long> bankAccountIds) {
+        Map<Long, Long> owners = new HashMap<>();
+        if (bankAccountIds.isEmpty()) {
+            return owners;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, customer_id FROM customer_bank_accounts " +
+                    "WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("bigint", bankAccountIds.toArray()));
+            return ps;
+        }, (RowCallbackHandler) rs -> owners.put(rs.getLong("id"), rs.getLong("customer_id")));
+        return owners;
+    }
+
+    /**
+     * KYC-approved customers with an active primary bank account and no application for
+     * the IPO, as (customer id, bank account id) in customer id order
+     */
+    public List<long[]> findEligibleApplicants(Long ipoId) {
+        return jdbcTemplate.query("SELECT DISTINCT ON (c.id) c.id AS customer_id, b.id AS bank_account_id " +
+                "FROM customers c JOIN customer_bank_accounts b ON b.customer_id = c.id " +
+                "AND b.is_primary = TRUE AND b.status = 'ACTIVE' " +
+                "WHERE c.kyc_status = 'APPROVED' AND NOT EXISTS (SELECT 1 FROM ipo_applications a " +
+                "WHERE a.customer_id = c.id AND a.ipo_id = ?) ORDER BY c.id, b.id",
+                (rs, rowNum) -> new long[] { rs.getLong("customer_id"), rs.getLong("bank_account_id") }, ipoId);
+    }
+
+    public long[] allocateIds(int count) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('ipo_applications', 'id')) FROM generate_series(1, ?)",
+                Long.class, count);
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Insert applications of one IPO in a single statement; applications of customers who
+     * already applied for the IPO are skipped (ON CONFLICT on the customer/IPO index)
+     *
+     * @return ids of the inserted applications
+     */
+    public Set<Long> insertApplications(Long ipoId, List<NewApplication> applications, LocalDateTime now) {
+        Set<Long> inserted = new HashSet<>();
+        if (applications.isEmpty()) {
+            return inserted;
+        }
+        int n = applications.size();
+        Long[] ids = new Long[n];
+        Long[] customerIds = new Long[n];
+        Long[] bankAccountIds = new Long[n];
+        Integer[] quantities = new Integer[n];
+        BigDecimal[] amounts = new BigDecimal[n];
+        String[] numbers = new String[n];
+        String[] statuses = new String[n];
+        Long[] makerIds = new Long[n];
+        Timestamp[] appliedAt = new Timestamp[n];
+        for (int i = 0; i < n; i++) {
+            NewApplication a = applications.get(i);
+            ids[i] = a.id();
+            customerIds[i] = a.customerId();
+            bankAccountIds[i] = a.bankAccountId();
+            quantities[i] = a.quantity();
+            amounts[i] = a.amount();
+            numbers[i] = a.applicationNumber();
+            statuses[i] = a.applicationStatus();
+            makerIds[i] = a.makerId();
+            appliedAt[i] = Timestamp.valueOf(a.appliedAt());
+        }
+        Timestamp ts = Timestamp.valueOf(now);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("INSERT INTO ipo_applications (id, customer_id, ipo_id, " +
+                    "bank_account_id, quantity, amount, application_number, application_status, payment_status, " +
+                    "allotment_quantity, allotment_status, applied_at, maker_id, created_at, updated_at) " +
+                    "SELECT u.id, u.customer_id, ?, u.bank_account_id, u.quantity, u.amount, u.application_number, " +
+                    "u.status, 'PAID', 0, 'PENDING', u.applied_at, u.maker_id, ?, ? " +
+                    "FROM unnest(?, ?, ?, ?, ?, ?, ?, ?, ?) AS u(id, customer_id, bank_account_id, quantity, " +
+                    "amount, application_number, status, maker_id, applied_at) " +
+                    "ON CONFLICT (customer_id, ipo_id) DO NOTHING RETURNING id");
+            ps.setLong(1, ipoId);
+            ps.setTimestamp(2, ts);
+            ps.setTimestamp(3, ts);
+            setArray(con, ps, 4, "bigint", ids);
+            setArray(con, ps, 5, "bigint", customerIds);
+            setArray(con, ps, 6, "bigint", bankAccountIds);
+            setArray(con, ps, 7, "int4", quantities);
+            setArray(con, ps, 8, "numeric", amounts);
+            setArray(con, ps, 9, "varchar", numbers);
+            setArray(con, ps, 10, "varchar", statuses);
+            setArray(con, ps, 11, "bigint", makerIds);
+            setArray(con, ps, 12, "timestamp", appliedAt);
+            return ps;
+        }, (RowCallbackHandler) rs -> inserted.add(rs.getLong(1)));
+        return inserted;
+    }
+
+    public void deleteApplications(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM ipo_applications WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Set-based CustomerBankAccountRepository.holdFunds: the accounts are locked in id
+     * order, then every hold whose account's available balance covers it is placed in one
+     * UPDATE. Bank account ids must be distinct.
+     *
+     * @return ids of the accounts the hold was placed on
+     */
+    public Set<Long> holdFunds(Map<Long, BigDecimal> amountsByAccount) {
+        Set<Long> held = new HashSet<>();
+        if (amountsByAccount.isEmpty()) {
+            return held;
+        }
+        Long[] ids = amountsByAccount.keySet().toArray(new Long[0]);
+        BigDecimal[] amounts = new BigDecimal[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            amounts[i] = amountsByAccount.get(ids[i]);
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id FROM customer_bank_accounts WHERE id = ANY(?) " +
+                    "ORDER BY id FOR UPDATE");
+            setArray(con, ps, 1, "bigint", ids);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+        });
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("UPDATE customer_bank_accounts b " +
+                    "SET held_balance = b.held_balance + u.amount FROM unnest(?, ?) AS u(id, amount) " +
+                    "WHERE b.id = u.id AND b.balance - b.held_balance >= u.amount RETURNING b.id");
+            setArray(con, ps, 1, "bigint", ids);
+            setArray(con, ps, 2, "numeric", amounts);
+            return ps;
+        }, (RowCallbackHandler) rs -> held.add(rs.getLong(1)));
+        return held;
+    }
+
+    /**
+     * Applications among the given ids, locked until the transaction ends, in id order. Their
+     * IPOs are share-locked, so an allotment cannot start meanwhile.
+     */
+    public List<ReviewRow> findForReviewForUpdate(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT a.id, a.application_number, a.application_status, " +
+                    "a.maker_id, a.customer_id, c.first_name, c.last_name, i.company_name, " +
+                    "i.allotment_started_at IS NOT NULL AS allotment_started, a.bank_account_id, " +
+                    "b.bank_id, b.bank_name FROM ipo_applications a JOIN customers c ON c.id = a.customer_id " +
+                    "JOIN ipos i ON i.id = a.ipo_id LEFT JOIN customer_bank_accounts b ON b.id = a.bank_account_id " +
+                    "WHERE a.id = ANY(?) ORDER BY a.id FOR UPDATE OF a FOR SHARE OF i");
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, (rs, rowNum) -> new ReviewRow(rs.getLong("id"), rs.getString("application_number"),
+                rs.getString("application_status"), rs.getObject("maker_id", Long.class), rs.getLong("customer_id"),
+                rs.getString("first_name") + " " + rs.getString("last_name"), rs.getString("company_name"),
+                rs.getBoolean("allotment_started"), rs.getObject("bank_account_id", Long.class), rs.getObject("bank_id", Long.class),
+                rs.getString("bank_name")));
+    }
+
+    /**
+     * Move applications to a new status as reviewed by the checker (approved_by, approved_at,
+     * checker_id)
+     */
+    public void markReviewed(Collection<Long> ids, String status, String approvedBy, Long checkerId,
+            LocalDateTime now) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Timestamp ts = Timestamp.valueOf(now);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("UPDATE ipo_applications SET application_status = ?, " +
+                    "approved_by = ?, approved_at = ?, checker_id = ?, status_updated_at = ?, updated_at = ? " +
+                    "WHERE id = ANY(?)");
+            ps.setString(1, status);
+            ps.setString(2, approvedBy);
+            ps.setTimestamp(3, ts);
+            ps.setObject(4, checkerId, java.sql.Types.BIGINT);
+            ps.setTimestamp(5, ts);
+            ps.setTimestamp(6, ts);
+            ps.setArray(7, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Lock, in id order, the bank accounts whose available balance (balance - held) covers
+     * the given amount. Nothing is written: a posting linked to the account debits it
+     * afterwards (LedgerBatchWriter.bankDelta), under this lock.
+     *
+     * @return ids of the covered accounts
+     */
+    public Set<Long> findCoveredForUpdate(Map<Long, BigDecimal> amountsByAccount) {
+        Set<Long> covered = new HashSet<>();
+        if (amountsByAccount.isEmpty()) {
+            return covered;
+        }
+        Long[] ids = amountsByAccount.keySet().toArray(new Long[0]);
+        BigDecimal[] amounts = new BigDecimal[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            amounts[i] = amountsByAccount.get(ids[i]);
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT b.id FROM customer_bank_accounts b " +
+                    "JOIN unnest(?, ?) AS u(id, amount) ON u.id = b.id " +
+                    "WHERE b.balance - b.held_balance >= u.amount ORDER BY b.id FOR UPDATE OF b");
+            setArray(con, ps, 1, "bigint", ids);
+            setArray(con, ps, 2, "numeric", amounts);
+            return ps;
+        }, (RowCallbackHandler) rs -> covered.add(rs.getLong(1)));
+        return covered;
+    }
+
+    private static void setArray(Connection con, PreparedStatement ps, int index, String type, Object[] values)
+            throws SQLException {
+        ps.setArray(index, con.createArrayOf(type, values));
+    }
+}
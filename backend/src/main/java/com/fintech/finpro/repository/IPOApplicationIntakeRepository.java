@@ -0,0 +1,103 @@
+package com.fintech.finpro.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * ipo_application_intake rows (V53): enqueued by the intake endpoint, claimed and
+ * resolved by IPOApplicationIntakeService workers
+ */
+@Repository
+@RequiredArgsConstructor
+public class IPOApplicationIntakeRepository {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String REJECTED = "REJECTED";
+
+    public record IntakeRow(long id, long customerId, long ipoId, long bankAccountId, int quantity, Long makerId,
+            String status, Long applicationId, String error, int attempts, LocalDateTime createdAt,
+            LocalDateTime processedAt) {
+    }
+
+    private static final String COLUMNS = "id, customer_id, ipo_id, bank_account_id, quantity, maker_id, status, " +
+            "application_id, error, attempts, created_at, processed_at";
+
+    private static final RowMapper<IntakeRow> ROW_MAPPER = (rs, rowNum) -> new IntakeRow(rs.getLong("id"),
+            rs.getLong("customer_id"), rs.getLong("ipo_id"), rs.getLong("bank_account_id"), rs.getInt("quantity"),
+            rs.getObject("maker_id", Long.class), rs.getString("status"),
+            rs.getObject("application_id", Long.class), rs.getString("error"), rs.getInt("attempts"),
+            rs.getObject("created_at", LocalDateTime.class), rs.getObject("processed_at", LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return the new row's id
+     */
+    public long enqueue(Long customerId, Long ipoId, Long bankAccountId, int quantity, Long makerId) {
+        return jdbcTemplate.queryForObject("INSERT INTO ipo_application_intake (customer_id, ipo_id, " +
+                "bank_account_id, quantity, maker_id, created_at) VALUES (?, ?, ?, ?, ?, NOW()) RETURNING id",
+                Long.class, customerId, ipoId, bankAccountId, quantity, makerId);
+    }
+
+    public Optional<IntakeRow> findById(long id) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM ipo_application_intake WHERE id = ?",
+                ROW_MAPPER, id).stream().findFirst();
+    }
+
+    public long countQueued() {
+        Long n = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ipo_application_intake WHERE status = 'QUEUED'",
+                Long.class);
+        return n != null ? n : 0L;
+    }
+
+    /**
+     * Oldest queued rows, locked until the transaction ends; rows locked by another worker
+     * are skipped
+     */
+    public List<IntakeRow> claim(int limit) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM ipo_application_intake WHERE status = 'QUEUED' " +
+                "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED", ROW_MAPPER, limit);
+    }
+
+    /**
+     * The row if it is still queued and not locked by another worker
+     */
+    public Optional<IntakeRow> claimById(long id) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM ipo_application_intake WHERE id = ? " +
+                "AND status = 'QUEUED' FOR UPDATE SKIP LOCKED", ROW_MAPPER, id).stream().findFirst();
+    }
+
+    /**
+     * Batched ACCEPTED marks; each row holds application id and intake id
+     */
+    public void markAccepted(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("UPDATE ipo_application_intake SET status = 'ACCEPTED', application_id = ?, " +
+                "error = NULL, processed_at = NOW() WHERE id = ?", rows);
+    }
+
+    /**
+     * Batched REJECTED marks; each row holds reason and intake id
+     */
+    public void markRejected(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("UPDATE ipo_application_intake SET status = 'REJECTED', error = ?, " +
+                "processed_at = NOW() WHERE id = ?", rows);
+    }
+
+    /**
+     * Count a failed attempt; the row is rejected once maxAttempts is reached, otherwise it
+     * stays queued for a retry
+     */
+    public void markFailed(long id, String error, int maxAttempts) {
+        jdbcTemplate.update("UPDATE ipo_application_intake SET attempts = attempts + 1, error = ?, " +
+                "status = CASE WHEN attempts + 1 >= ? THEN 'REJECTED' ELSE status END, " +
+                "processed_at = CASE WHEN attempts + 1 >= ? THEN NOW() ELSE processed_at END " +
+                "WHERE id = ? AND status = 'QUEUED'", error, maxAttempts, maxAttempts, id);
+    }
+}
@@ -2,11 +2,15 @@ package com.fintech.finpro.repository;
 
 import com.fintech.finpro.entity.IPOApplication;
 import com.fintech.finpro.enums.ApplicationStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,6 +42,28 @@ public interface IPOApplicationRepository extends JpaRepository<IPOApplication,
                         @Param("customerId") Long customerId,
                         @Param("status") ApplicationStatus status);
 
+        /**
+         * Next chunk of an IPO's application ids in the given status, after afterId (keyset)
+         */
+        @Query("SELECT a.id FROM IPOApplication a WHERE a.ipo.id = :ipoId AND a.applicationStatus = :status " +
+                        "AND a.id > :afterId ORDER BY a.id")
+        List<Long> findIdsByIpoIdAndStatusAfter(@Param("ipoId") Long ipoId,
+                        @Param("status") ApplicationStatus status,
+                        @Param("afterId") Long afterId,
+                        Pageable pageable);
+
+        /**
+         * Applications of a chunk still in the given status, with their customers, locked
+         * until the transaction ends
+         */
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT a FROM IPOApplication a JOIN FETCH a.customer WHERE a.id IN :ids " +
+                        "AND a.applicationStatus = :status ORDER BY a.id")
+        List<IPOApplication> findByIdInAndStatusForUpdate(@Param("ids") Collection<Long> ids,
+                        @Param("status") ApplicationStatus status);
+
+        long countByIpoIdAndApplicationStatus(Long ipoId, ApplicationStatus status);
+
         Optional<IPOApplication> findByApplicationNumber(String applicationNumber);
 
         boolean existsByCustomerIdAndIpoId(Long customerId, Long ipoId);
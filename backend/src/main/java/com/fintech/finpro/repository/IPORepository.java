@@ -4,6 +4,7 @@ import com.fintech.finpro.entity.IPO;
 import com.fintech.finpro.enums.IPOStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -31,4 +32,11 @@ public interface IPORepository extends JpaRepository<IPO, Long> {
     List<IPO> findByCompanyNameContainingIgnoreCase(String companyName);
 
     java.util.Optional<IPO> findBySymbol(String symbol);
+
+    /**
+     * Whether the IPO's allotment has started. Takes a share lock on the IPO row, so an
+     * allotment cannot start until the caller's transaction ends.
+     */
+    @Query(value = "SELECT allotment_started_at IS NOT NULL FROM ipos WHERE id = :id FOR SHARE", nativeQuery = true)
+    boolean isAllotmentStarted(@Param("id") Long id);
 }
@@ -20,4 +20,52 @@ public interface LedgerAccountRepository extends JpaRepository<LedgerAccount, Lo
     Optional<LedgerAccount> findByAccountName(String accountName);
 
     List<LedgerAccount> findByOwnerId(Long ownerId);
+
+    Optional<LedgerAccount> findFirstByAccountTypeAndOwnerId(LedgerAccountType accountType, Long ownerId);
+
+    Optional<LedgerAccount> findFirstByAccountTypeAndAccountNameAndOwnerIdIsNull(LedgerAccountType accountType,
+            String accountName);
+
+    List<LedgerAccount> findByAccountTypeAndOwnerIdIsNullAndParentAccountIdIsNull(LedgerAccountType accountType);
+
+    List<LedgerAccount> findByAccountTypeAndOwnerIdIn(LedgerAccountType accountType,
+            java.util.Collection<Long> ownerIds);
+
+    List<LedgerAccount> findByParentAccountIdOrderByShardIndex(Long parentAccountId);
+
+    /**
+     * Ids of all shard rows of a parent account, retired ones included
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT a.id FROM LedgerAccount a " +
+            "WHERE a.parentAccountId = :parentId ORDER BY a.shardIndex")
+    List<Long> findShardIds(@org.springframework.data.repository.query.Param("parentId") Long parentId);
+
+    /**
+     * Ids of the shard rows currently taking postings (shard index below the parent's shard count)
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT a.id FROM LedgerAccount a " +
+            "WHERE a.parentAccountId = :parentId AND a.shardIndex < :shardCount ORDER BY a.shardIndex")
+    List<Long> findActiveShardIds(@org.springframework.data.repository.query.Param("parentId") Long parentId,
+            @org.springframework.data.repository.query.Param("shardCount") Integer shardCount);
+
+    /**
+     * Sum of shard row balances per parent account: {parentId, balance}
+     */
+    @org.springframework.data.jpa.repository.Query("SELECT a.parentAccountId, SUM(a.balance) FROM LedgerAccount a " +
+            "WHERE a.parentAccountId IS NOT NULL GROUP BY a.parentAccountId")
+    List<Object[]> sumShardBalances();
+
+    /**
+     * Insert-or-nothing against the unique indexes on ledger_accounts (V42).
+     * Returns 0 when a concurrent caller created the account first.
+     */
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query(value = "INSERT INTO ledger_accounts " +
+            "(account_name, account_type, owner_id, balance, currency, status, created_at, updated_at) " +
+            "VALUES (:accountName, :accountType, CAST(:ownerId AS BIGINT), 0, 'NPR', 'ACTIVE', NOW(), NOW()) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(
+            @org.springframework.data.repository.query.Param("accountName") String accountName,
+            @org.springframework.data.repository.query.Param("accountType") String accountType,
+            @org.springframework.data.repository.query.Param("ownerId") Long ownerId);
 }
@@ -0,0 +1,151 @@
+package com.fintech.finpro.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Closed-period archive of ledger_transactions (V48). Transactions before the archive
+ * cutoff live in ledger_transactions_archive; reads that reach back that far go through
+ * the ledger_transactions_all view, everything else reads the hot table only.
+ *
+ * The cutoff is cached and reloaded after ledger.archive.refresh-ms, so other instances
+ * pick up a period close within that time.
+ */
+@Repository
+public class LedgerArchiveRepository {
+
+    public static final String HOT_TABLE = "ledger_transactions";
+    public static final String ALL_TABLE = "ledger_transactions_all";
+
+    private record Cutoff(LocalDate closedBefore, long loadedAt) {
+    }
+
+    /**
+     * A deleted archive row: what snapshot invalidation and fee cleanup need
+     */
+    public record DeletedTransaction(long id, Long debitAccountId, Long creditAccountId, Long bankAccountId,
+            LocalDateTime createdAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long refreshMillis;
+    private volatile Cutoff cutoff;
+
+    public LedgerArchiveRepository(JdbcTemplate jdbcTemplate,
+            @Value("${ledger.archive.refresh-ms:60000}") long refreshMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.refreshMillis = refreshMillis;
+    }
+
+    /**
+     * Transactions created before this date are archived; null if no period is closed
+     */
+    public LocalDate findArchiveCutoff() {
+        Cutoff current = cutoff;
+        long now = System.currentTimeMillis();
+        if (current == null || now - current.loadedAt() > refreshMillis) {
+            LocalDate closedBefore = jdbcTemplate.queryForObject(
+                    "SELECT MAX(closed_before) FROM ledger_period_closes", LocalDate.class);
+            current = new Cutoff(closedBefore, now);
+            cutoff = current;
+        }
+        return current.closedBefore();
+    }
+
+    /**
+     * Whether rows at or after the given time may be archived
+     */
+    public boolean reachesArchive(LocalDateTime from) {
+        LocalDate closedBefore = findArchiveCutoff();
+        return closedBefore != null && (from == null || from.isBefore(closedBefore.atStartOfDay()));
+    }
+
+    /**
+     * Table or view to read transactions created at or after the given time from
+     */
+    public String transactionSource(LocalDateTime from) {
+        return reachesArchive(from) ? ALL_TABLE : HOT_TABLE;
+    }
+
+    /**
+     * Move all monthly partitions before the cutoff to the archive
+     *
+     * @return rows archived
+     */
+    public long archiveBefore(LocalDate closedBefore) {
+        Long moved = jdbcTemplate.queryForObject("SELECT close_ledger_period(?)", Long.class,
+                Date.valueOf(closedBefore));
+        return moved != null ? moved : 0L;
+    }
+
+    public void recordClose(LocalDate closedBefore, int partitions, long rows, Long closedBy) {
+        jdbcTemplate.update("INSERT INTO ledger_period_closes (closed_before, partitions_archived, rows_archived, " +
+                "closed_by, created_at, updated_at) VALUES (?, ?, ?, ?, NOW(), NOW())",
+                Date.valueOf(closedBefore), partitions, rows, closedBy);
+        cutoff = null;
+    }
+
+    public int countArchivePartitions() {
+        Integer n = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_inherits " +
+                "WHERE inhparent = 'ledger_transactions_archive'::regclass", Integer.class);
+        return n != null ? n : 0;
+    }
+
+    public List<Map<String, Object>> findCloses() {
+        return jdbcTemplate.queryForList("SELECT id, closed_before, partitions_archived, rows_archived, closed_by, " +
+                "created_at FROM ledger_period_closes ORDER BY closed_before DESC");
+    }
+
+    /**
+     * Delete the archived transactions of a customer: those linked to the customer directly
+     * or through one of the given ledger accounts. The archive partitions keep the foreign
+     * keys they had in ledger_transactions, so this must run before the accounts go.
+     */
+    public List<DeletedTransaction> deleteForCustomer(Long customerId, Collection<Long> ledgerAccountIds) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM ledger_transactions_archive " +
+                    "WHERE customer_id = ? OR debit_account_id = ANY(?) OR credit_account_id = ANY(?) " +
+                    "RETURNING id, debit_account_id, credit_account_id, customer_bank_account_id, created_at");
+            Array ids = con.createArrayOf("bigint", ledgerAccountIds.toArray());
+            ps.setLong(1, customerId);
+            ps.setArray(2, ids);
+            ps.setArray(3, ids);
+            return ps;
+        }, (rs, rowNum) -> new DeletedTransaction(rs.getLong("id"), rs.getObject("debit_account_id", Long.class),
+                rs.getObject("credit_account_id", Long.class), rs.getObject("customer_bank_account_id", Long.class),
+                rs.getObject("created_at", LocalDateTime.class)));
+    }
+
+    /**
+     * Credits minus debits of a ledger account in [from, to) from the archive
+     */
+    public BigDecimal getLedgerChangeBetween(Long accountId, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.queryForObject("SELECT " +
+                "COALESCE((SELECT SUM(amount) FROM ledger_transactions_archive WHERE credit_account_id = ? " +
+                "  AND status = 'COMPLETED' AND created_at >= ? AND created_at < ?), 0) - " +
+                "COALESCE((SELECT SUM(amount) FROM ledger_transactions_archive WHERE debit_account_id = ? " +
+                "  AND credit_account_id IS DISTINCT FROM ? " +
+                "  AND status = 'COMPLETED' AND created_at >= ? AND created_at < ?), 0)",
+                BigDecimal.class, accountId, from, to, accountId, accountId, from, to);
+    }
+
+    /**
+     * Signed change of a customer bank account in [from, to) from the archive
+     */
+    public BigDecimal getBankChangeBetween(Long bankAccountId, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(" + StatementQueryRepository.BANK_SIGNED_AMOUNT +
+                "), 0) FROM ledger_transactions_archive WHERE customer_bank_account_id = ? " +
+                "AND created_at >= ? AND created_at < ?", BigDecimal.class, bankAccountId, from, to);
+    }
+}
@@ -0,0 +1,87 @@
+package com.fintech.finpro.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * Recomputes ledger account balances from all transactions, archived periods included
+ * (credits add, debits subtract), and returns the accounts whose stored balance differs.
+ * Each query is one statement, so stored balances and transactions are read from the
+ * same snapshot.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerIntegrityRepository {
+
+    public record BalanceDrift(long accountId, String accountName, BigDecimal storedBalance,
+            BigDecimal journalBalance) {
+
+        public BigDecimal difference() {
+            return storedBalance.subtract(journalBalance);
+        }
+    }
+
+    public record AccountTotals(long accounts, long minId, long maxId, BigDecimal balanceTotal) {
+    }
+
+    // %1$s, %2$s and %3$s filter the debit side, the credit side and the accounts by account id
+    private static final String DRIFT_SQL = "WITH d AS (SELECT debit_account_id AS id, SUM(amount) AS amt " +
+            "FROM ledger_transactions_all WHERE %1$s GROUP BY debit_account_id), " +
+            "c AS (SELECT credit_account_id AS id, SUM(amount) AS amt " +
+            "FROM ledger_transactions_all WHERE %2$s GROUP BY credit_account_id) " +
+            "SELECT a.id, a.account_name, COALESCE(a.balance, 0) AS stored, " +
+            "COALESCE(c.amt, 0) - COALESCE(d.amt, 0) AS journal " +
+            "FROM ledger_accounts a LEFT JOIN c ON c.id = a.id LEFT JOIN d ON d.id = a.id " +
+            "WHERE %3$s AND COALESCE(a.balance, 0) <> COALESCE(c.amt, 0) - COALESCE(d.amt, 0) " +
+            "ORDER BY a.id";
+
+    private static final RowMapper<BalanceDrift> DRIFT_MAPPER = (rs, rowNum) -> new BalanceDrift(
+            rs.getLong("id"), rs.getString("account_name"), rs.getBigDecimal("stored"),
+            rs.getBigDecimal("journal"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountTotals findAccountTotals() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) AS n, COALESCE(MIN(id), 0) AS min_id, " +
+                "COALESCE(MAX(id), 0) AS max_id, COALESCE(SUM(balance), 0) AS total FROM ledger_accounts",
+                (rs, rowNum) -> new AccountTotals(rs.getLong("n"), rs.getLong("min_id"), rs.getLong("max_id"),
+                        rs.getBigDecimal("total")));
+    }
+
+    /**
+     * Drifted accounts with fromId <= id < toId
+     */
+    public List<BalanceDrift> findDrift(long fromId, long toId) {
+        String sql = String.format(DRIFT_SQL,
+                "debit_account_id >= ? AND debit_account_id < ?",
+                "credit_account_id >= ? AND credit_account_id < ?",
+                "a.id >= ? AND a.id < ?");
+        return jdbcTemplate.query(sql, DRIFT_MAPPER, fromId, toId, fromId, toId, fromId, toId);
+    }
+
+    /**
+     * Drifted accounts among the given ids
+     */
+    public List<BalanceDrift> findDrift(long[] ids) {
+        String sql = String.format(DRIFT_SQL, "debit_account_id = ANY(?)", "credit_account_id = ANY(?)",
+                "a.id = ANY(?)");
+        Object[] boxed = new Object[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            boxed[i] = ids[i];
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            java.sql.Array array = con.createArrayOf("bigint", boxed);
+            ps.setArray(1, array);
+            ps.setArray(2, array);
+            ps.setArray(3, array);
+            return ps;
+        }, DRIFT_MAPPER);
+    }
+}
@@ -0,0 +1,13 @@
+package com.fintech.finpro.repository;
+
+import com.fintech.finpro.entity.LedgerJournal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LedgerJournalRepository extends JpaRepository<LedgerJournal, Long> {
+
+    List<LedgerJournal> findByReferenceOrderByIdDesc(String reference);
+}
@@ -0,0 +1,74 @@
+package com.fintech.finpro.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ledger_outbox rows (V49): appended with the postings, claimed and stamped by the relay
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerOutboxRepository {
+
+    public record OutboxRow(long id, String eventType, Long journalId, String payload, int attempts,
+            LocalDateTime createdAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(String eventType, Long journalId, int transactionCount, BigDecimal totalAmount,
+            String payload) {
+        jdbcTemplate.update("INSERT INTO ledger_outbox (event_type, journal_id, transaction_count, total_amount, " +
+                "payload, created_at) VALUES (?, ?, ?, ?, CAST(? AS JSONB), NOW())",
+                eventType, journalId, transactionCount, totalAmount, payload);
+    }
+
+    /**
+     * Batched append; each row holds event type, journal id, transaction count, total amount and payload
+     */
+    public void appendAll(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO ledger_outbox (event_type, journal_id, transaction_count, " +
+                "total_amount, payload, created_at) VALUES (?, ?, ?, ?, CAST(? AS JSONB), NOW())", rows);
+    }
+
+    /**
+     * Oldest unpublished rows, locked until the transaction ends; rows locked by another
+     * relay are skipped
+     */
+    public List<OutboxRow> claim(int limit, int maxAttempts) {
+        return jdbcTemplate.query("SELECT id, event_type, journal_id, payload::text AS payload, attempts, created_at " +
+                "FROM ledger_outbox WHERE published_at IS NULL AND attempts < ? " +
+                "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                (rs, rowNum) -> new OutboxRow(rs.getLong("id"), rs.getString("event_type"),
+                        rs.getObject("journal_id", Long.class), rs.getString("payload"), rs.getInt("attempts"),
+                        rs.getObject("created_at", LocalDateTime.class)),
+                maxAttempts, limit);
+    }
+
+    public void markPublished(List<Long> ids) {
+        jdbcTemplate.batchUpdate("UPDATE ledger_outbox SET published_at = NOW() WHERE id = ?",
+                ids.stream().map(id -> new Object[] { id }).toList());
+    }
+
+    public void markFailed(long id, String error) {
+        jdbcTemplate.update("UPDATE ledger_outbox SET attempts = attempts + 1, last_error = ? WHERE id = ?",
+                error, id);
+    }
+
+    /**
+     * Broadcast to every session LISTENing on the channel; sent when the transaction commits
+     */
+    public void notify(String channel, String payload) {
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, payload);
+    }
+
+    public int deletePublishedBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM ledger_outbox WHERE published_at < ?", Timestamp.valueOf(before));
+    }
+}
@@ -0,0 +1,159 @@
+package com.fintech.finpro.repository;
+
+import com.fintech.finpro.entity.LedgerJournal;
+import com.fintech.finpro.entity.LedgerTransaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based writes for batch ledger postings: one statement to read (and lock) all
+ * balances, one batched UPDATE for the netted balances and one batched INSERT for the
+ * transaction rows. With reWriteBatchedInserts on the connection URL the driver sends
+ * the inserts as multi-row statements.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerPostingRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_TRANSACTION = "INSERT INTO ledger_transactions (id, debit_account_id, " +
+            "credit_account_id, amount, particulars, transaction_type, reference_id, maker_id, status, " +
+            "customer_bank_account_id, journal_id, is_dual_entry, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_JOURNAL = "INSERT INTO ledger_journals (id, journal_type, reference, " +
+            "description, maker_id, leg_count, total_amount, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Current balances of the given accounts, read in ascending id order.
+     *
+     * @param forUpdate lock the rows (SELECT ... FOR UPDATE) until the transaction ends
+     */
+    public Map<Long, BigDecimal> findBalances(long[] sortedIds, boolean forUpdate) {
+        String sql = "SELECT id, balance FROM ledger_accounts WHERE id = ANY(?) ORDER BY id"
+                + (forUpdate ? " FOR UPDATE" : "");
+        Object[] ids = new Object[sortedIds.length];
+        for (int i = 0; i < sortedIds.length; i++) {
+            ids[i] = sortedIds[i];
+        }
+
+        Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            return ps;
+        }, (RowCallbackHandler) rs -> balances.put(rs.getLong("id"), rs.getBigDecimal("balance")));
+        return balances;
+    }
+
+    /**
+     * Set the given balances, one batched UPDATE per account
+     */
+    public void updateBalances(Map<Long, BigDecimal> balances, LocalDateTime updatedAt) {
+        List<Object[]> args = new ArrayList<>(balances.size());
+        Timestamp ts = Timestamp.valueOf(updatedAt);
+        balances.forEach((id, balance) -> args.add(new Object[] { balance, ts, id }));
+        for (int from = 0; from < args.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("UPDATE ledger_accounts SET balance = ?, updated_at = ? WHERE id = ?",
+                    args.subList(from, Math.min(args.size(), from + BATCH_SIZE)));
+        }
+    }
+
+    /**
+     * Apply signed deltas to customer bank account balances, in id order, with one
+     * relative UPDATE per account
+     */
+    public void addToBankBalances(Map<Long, BigDecimal> deltas, LocalDateTime updatedAt) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Timestamp ts = Timestamp.valueOf(updatedAt);
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        new java.util.TreeMap<>(deltas).forEach((id, delta) -> args.add(new Object[] { delta, ts, id }));
+        jdbcTemplate.batchUpdate("UPDATE customer_bank_accounts SET balance = balance + ?, updated_at = ? " +
+                "WHERE id = ?", args);
+    }
+
+    /**
+     * Take ids for new ledger_transactions rows from the table's own sequence, in one round trip
+     */
+    public long[] allocateTransactionIds(int count) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('ledger_transactions', 'id')) FROM generate_series(1, ?)",
+                Long.class, count);
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Take ids for new ledger_journals rows, in one round trip
+     */
+    public long[] allocateJournalIds(int count) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('ledger_journals', 'id')) FROM generate_series(1, ?)",
+                Long.class, count);
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Insert journal headers with JDBC batches; ids must be assigned (allocateJournalIds)
+     */
+    public void insertJournals(List<LedgerJournal> journals) {
+        jdbcTemplate.batchUpdate(INSERT_JOURNAL, journals, BATCH_SIZE, (ps, j) -> {
+            ps.setLong(1, j.getId());
+            ps.setString(2, j.getJournalType());
+            ps.setString(3, j.getReference());
+            ps.setString(4, j.getDescription());
+            setId(ps, 5, j.getMakerId());
+            ps.setInt(6, j.getLegCount());
+            ps.setBigDecimal(7, j.getTotalAmount());
+            ps.setTimestamp(8, Timestamp.valueOf(j.getCreatedAt()));
+            ps.setTimestamp(9, Timestamp.valueOf(j.getUpdatedAt()));
+        });
+    }
+
+    /**
+     * Insert the transaction rows with JDBC batches; ids must be assigned (allocateTransactionIds)
+     */
+    public void insertTransactions(List<LedgerTransaction> transactions) {
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactions, BATCH_SIZE, (ps, t) -> {
+            ps.setLong(1, t.getId());
+            setId(ps, 2, t.getDebitAccount() != null ? t.getDebitAccount().getId() : null);
+            setId(ps, 3, t.getCreditAccount() != null ? t.getCreditAccount().getId() : null);
+            ps.setBigDecimal(4, t.getAmount());
+            ps.setString(5, t.getParticulars());
+            ps.setString(6, t.getTransactionType().name());
+            ps.setString(7, t.getReferenceId());
+            setId(ps, 8, t.getMakerId());
+            ps.setString(9, t.getStatus());
+            setId(ps, 10, t.getCustomerBankAccount() != null ? t.getCustomerBankAccount().getId() : null);
+            setId(ps, 11, t.getJournalId());
+            ps.setBoolean(12, Boolean.TRUE.equals(t.getIsDualEntry()));
+            ps.setTimestamp(13, Timestamp.valueOf(t.getCreatedAt()));
+            ps.setTimestamp(14, Timestamp.valueOf(t.getUpdatedAt()));
+        });
+    }
+
+    private static void setId(PreparedStatement ps, int index, Long id) throws java.sql.SQLException {
+        if (id != null) {
+            ps.setLong(index, id);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+}
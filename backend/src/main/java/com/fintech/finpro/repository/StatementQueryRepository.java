@@ -0,0 +1,277 @@
+package com.fintech.finpro.repository;
+
+import com.fintech.finpro.dto.BankTransactionDTO;
+import com.fintech.finpro.util.StatementCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Statement reads over ledger_transactions, newest first, with running balances computed
+ * by the database (window sums over the signed amount).
+ *
+ * Pages are keyset-paginated: a range scan on (account, created_at, id) that stops after
+ * limit + 1 rows, whatever the size of the date range, starting from the balance carried
+ * in the cursor. Whole statements start from the opening balance. Ranges that start
+ * before the archive cutoff also read the closed periods (ledger_transactions_all).
+ */
+@Repository
+@RequiredArgsConstructor
+public class StatementQueryRepository {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String COLUMNS = "id, created_at, transaction_type, amount, particulars, reference_id, status";
+
+    /** Bank statement sign rules, see BalanceSnapshotService.BANK_CREDIT_TYPES / BANK_DEBIT_TYPES */
+    static final String BANK_SIGNED_AMOUNT = "CASE WHEN status <> 'COMPLETED' THEN 0 " +
+            "WHEN transaction_type IN ('DEPOSIT', 'REVERSAL', 'SETTLEMENT') THEN amount " +
+            "WHEN transaction_type IN ('WITHDRAWAL', 'FEE', 'TRANSFER', 'ALLOTMENT') THEN -amount " +
+            "ELSE 0 END";
+
+    // Balance after each row = balance at the top of the page minus everything newer in the page
+    private static final String PAGE_HEAD = "SELECT p.*, ? - COALESCE(SUM(p.signed_amount) OVER (" +
+            "ORDER BY p.created_at DESC, p.id DESC ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0) " +
+            "AS balance_after FROM ";
+
+    private static final String PAGE_TAIL = " ORDER BY p.created_at DESC, p.id DESC LIMIT ?";
+
+    // Balance after each row = opening balance plus everything up to and including the row
+    private static final String STATEMENT_HEAD = "SELECT p.*, ? + SUM(p.signed_amount) OVER (" +
+            "ORDER BY p.created_at, p.id ROWS UNBOUNDED PRECEDING) AS balance_after FROM ";
+
+    private static final String STATEMENT_TAIL = " ORDER BY p.created_at DESC, p.id DESC";
+
+    // Exports carry no balance column, so they can stream in index order without a window sort
+    private static final String EXPORT_HEAD = "SELECT p.*, NULL AS balance_after FROM ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerArchiveRepository archiveRepository;
+
+    @Value("${statement.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    /**
+     * A page row with the signed amount it contributed to the account balance
+     */
+    public static class StatementRow {
+        private final BankTransactionDTO transaction;
+        private final BigDecimal signedAmount;
+
+        StatementRow(BankTransactionDTO transaction, BigDecimal signedAmount) {
+            this.transaction = transaction;
+            this.signedAmount = signedAmount;
+        }
+
+        public BankTransactionDTO getTransaction() {
+            return transaction;
+        }
+
+        public BigDecimal getSignedAmount() {
+            return signedAmount;
+        }
+    }
+
+    /**
+     * Ledger account page: credits add, debits subtract.
+     *
+     * @param ledgerAccountIds the account, followed by its shard rows if it is sharded
+     * @param balanceAtTop balance after the newest row of this page
+     */
+    public List<StatementRow> findLedgerPage(List<Long> ledgerAccountIds, LocalDateTime from, LocalDateTime toExclusive,
+            StatementCursor after, BigDecimal balanceAtTop, int limit) {
+        List<Object> args = new ArrayList<>();
+        args.add(balanceAtTop);
+        String sql = PAGE_HEAD + ledgerSource(args, ledgerAccountIds, from, toExclusive, after, limit) + PAGE_TAIL;
+        args.add(limit);
+        return jdbcTemplate.query(sql, ROW_MAPPER, args.toArray());
+    }
+
+    /**
+     * Customer bank account page, signed by transaction type like the bank statement
+     */
+    public List<StatementRow> findBankPage(Long bankAccountId, LocalDateTime from, LocalDateTime toExclusive,
+            StatementCursor after, BigDecimal balanceAtTop, int limit) {
+        List<Object> args = new ArrayList<>();
+        args.add(balanceAtTop);
+        String sql = PAGE_HEAD + bankSource(args, bankAccountId, from, toExclusive, after, limit) + PAGE_TAIL;
+        args.add(limit);
+        return jdbcTemplate.query(sql, ROW_MAPPER, args.toArray());
+    }
+
+    /**
+     * Whole ledger account statement, newest first, running balance from the opening balance
+     */
+    public List<BankTransactionDTO> findLedgerStatement(List<Long> ledgerAccountIds, LocalDateTime from,
+            LocalDateTime toExclusive, BigDecimal openingBalance) {
+        List<Object> args = new ArrayList<>();
+        args.add(openingBalance);
+        String sql = STATEMENT_HEAD + ledgerSource(args, ledgerAccountIds, from, toExclusive, null, null)
+                + STATEMENT_TAIL;
+        return jdbcTemplate.query(sql, TRANSACTION_MAPPER, args.toArray());
+    }
+
+    /**
+     * Whole customer bank account statement, newest first, running balance from the opening balance
+     */
+    public List<BankTransactionDTO> findBankStatement(Long bankAccountId, LocalDateTime from,
+            LocalDateTime toExclusive, BigDecimal openingBalance) {
+        List<Object> args = new ArrayList<>();
+        args.add(openingBalance);
+        String sql = STATEMENT_HEAD + bankSource(args, bankAccountId, from, toExclusive, null, null)
+                + STATEMENT_TAIL;
+        return jdbcTemplate.query(sql, TRANSACTION_MAPPER, args.toArray());
+    }
+
+    /**
+     * Stream every row of a ledger account statement, newest first, without holding the
+     * result in memory. Must run inside a transaction so the driver can use a cursor.
+     */
+    public void streamLedgerStatement(List<Long> ledgerAccountIds, LocalDateTime from, LocalDateTime toExclusive,
+            Consumer<BankTransactionDTO> consumer) {
+        List<Object> args = new ArrayList<>();
+        String sql = EXPORT_HEAD + ledgerSource(args, ledgerAccountIds, from, toExclusive, null, null)
+                + STATEMENT_TAIL;
+        stream(sql, args, consumer);
+    }
+
+    /**
+     * Stream every row of a customer bank account statement, newest first
+     */
+    public void streamBankStatement(Long bankAccountId, LocalDateTime from, LocalDateTime toExclusive,
+            Consumer<BankTransactionDTO> consumer) {
+        List<Object> args = new ArrayList<>();
+        String sql = EXPORT_HEAD + bankSource(args, bankAccountId, from, toExclusive, null, null)
+                + STATEMENT_TAIL;
+        stream(sql, args, consumer);
+    }
+
+    private void stream(String sql, List<Object> args, Consumer<BankTransactionDTO> consumer) {
+        // Forward-only with a fetch size: the PostgreSQL driver then reads through a
+        // server-side cursor instead of buffering the whole result
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(exportFetchSize);
+            new ArgumentPreparedStatementSetter(args.toArray()).setValues(ps);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(TRANSACTION_MAPPER.mapRow(rs, 0)));
+    }
+
+    // Rows of one ledger account with signed_amount; one branch per side so each uses its
+    // own (account, created_at, id) index. A sharded account passes its shard rows too:
+    // they are read as one account, leaving out transfers between its own rows.
+    private String ledgerSource(List<Object> args, List<Long> ledgerAccountIds, LocalDateTime from,
+            LocalDateTime toExclusive, StatementCursor after, Integer limit) {
+        String table = archiveRepository.transactionSource(from);
+        if (ledgerAccountIds.size() == 1) {
+            Long ledgerAccountId = ledgerAccountIds.get(0);
+            StringBuilder sql = new StringBuilder("((SELECT ").append(COLUMNS)
+                    .append(", CASE WHEN status = 'COMPLETED' THEN amount ELSE 0 END AS signed_amount")
+                    .append(" FROM ").append(table).append(" WHERE credit_account_id = ?");
+            args.add(ledgerAccountId);
+            appendRange(sql, args, from, toExclusive, after, limit);
+
+            sql.append(") UNION ALL (SELECT ").append(COLUMNS)
+                    .append(", CASE WHEN status = 'COMPLETED' THEN -amount ELSE 0 END AS signed_amount")
+                    .append(" FROM ").append(table)
+                    .append(" WHERE debit_account_id = ? AND credit_account_id IS DISTINCT FROM ?");
+            args.add(ledgerAccountId);
+            args.add(ledgerAccountId);
+            appendRange(sql, args, from, toExclusive, after, limit);
+            return sql.append(")) p").toString();
+        }
+
+        Long[] ids = ledgerAccountIds.toArray(new Long[0]);
+        StringBuilder sql = new StringBuilder("((SELECT ").append(COLUMNS)
+                .append(", CASE WHEN status = 'COMPLETED' THEN amount ELSE 0 END AS signed_amount")
+                .append(" FROM ").append(table).append(" WHERE credit_account_id = ANY(?)")
+                .append(" AND (debit_account_id IS NULL OR NOT debit_account_id = ANY(?))");
+        args.add(ids);
+        args.add(ids);
+        appendRange(sql, args, from, toExclusive, after, limit);
+
+        sql.append(") UNION ALL (SELECT ").append(COLUMNS)
+                .append(", CASE WHEN status = 'COMPLETED' THEN -amount ELSE 0 END AS signed_amount")
+                .append(" FROM ").append(table).append(" WHERE debit_account_id = ANY(?)")
+                .append(" AND (credit_account_id IS NULL OR NOT credit_account_id = ANY(?))");
+        args.add(ids);
+        args.add(ids);
+        appendRange(sql, args, from, toExclusive, after, limit);
+        return sql.append(")) p").toString();
+    }
+
+    private String bankSource(List<Object> args, Long bankAccountId, LocalDateTime from,
+            LocalDateTime toExclusive, StatementCursor after, Integer limit) {
+        StringBuilder sql = new StringBuilder("(SELECT ").append(COLUMNS)
+                .append(", ").append(BANK_SIGNED_AMOUNT).append(" AS signed_amount")
+                .append(" FROM ").append(archiveRepository.transactionSource(from))
+                .append(" WHERE customer_bank_account_id = ?");
+        args.add(bankAccountId);
+        appendRange(sql, args, from, toExclusive, after, limit);
+        return sql.append(") p").toString();
+    }
+
+    /**
+     * Clamp a requested page size to 1..MAX_PAGE_SIZE
+     */
+    public static int pageSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(MAX_PAGE_SIZE, requested));
+    }
+
+    /**
+     * Cursor continuing after the last row of a page: its position, and the balance after
+     * the next older row (this row's balance minus its own amount)
+     */
+    public static StatementCursor cursorAfter(StatementRow last) {
+        BankTransactionDTO t = last.getTransaction();
+        return new StatementCursor(t.getDate(), t.getId(), t.getBalanceAfter().subtract(last.getSignedAmount()));
+    }
+
+    private static void appendRange(StringBuilder sql, List<Object> args, LocalDateTime from,
+            LocalDateTime toExclusive, StatementCursor after, Integer limit) {
+        sql.append(" AND created_at >= ? AND created_at < ?");
+        args.add(from);
+        args.add(toExclusive);
+        if (after != null) {
+            sql.append(" AND (created_at, id) < (?, ?)");
+            args.add(after.getCreatedAt());
+            args.add(after.getId());
+        }
+        if (limit != null) {
+            sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+            args.add(limit);
+        }
+    }
+
+    private static final RowMapper<BankTransactionDTO> TRANSACTION_MAPPER = (rs, rowNum) -> BankTransactionDTO
+            .builder()
+            .id(rs.getLong("id"))
+            .date(rs.getObject("created_at", LocalDateTime.class))
+            .type(rs.getString("transaction_type") != null ? rs.getString("transaction_type") : "UNKNOWN")
+            .amount(rs.getBigDecimal("amount"))
+            .balanceAfter(rs.getBigDecimal("balance_after"))
+            .description(rs.getString("particulars"))
+            .referenceId(rs.getString("reference_id"))
+            .status(rs.getString("status"))
+            .build();
+
+    private static final RowMapper<StatementRow> ROW_MAPPER = (rs, rowNum) -> new StatementRow(
+            TRANSACTION_MAPPER.mapRow(rs, rowNum), rs.getBigDecimal("signed_amount"));
+}
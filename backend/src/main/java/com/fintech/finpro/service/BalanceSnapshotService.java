@@ -0,0 +1,270 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.entity.AccountBalanceSnapshot;
+import com.fintech.finpro.entity.LedgerTransaction;
+import com.fintech.finpro.enums.LedgerTransactionType;
+import com.fintech.finpro.repository.AccountBalanceSnapshotRepository;
+import com.fintech.finpro.repository.LedgerArchiveRepository;
+import com.fintech.finpro.repository.LedgerTransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * End-of-day closing balances for ledger accounts and customer bank accounts.
+ *
+ * Opening balances are "latest snapshot before the date + transactions since", so a
+ * statement only reads the rows posted after the last snapshot instead of the
+ * account's whole history. Periods closed into the archive leave a carried-forward
+ * snapshot on the day before the cutoff; opening balances before the cutoff are worked
+ * back from it using the archived rows.
+ */
+@Service
+@Slf4j
+public class BalanceSnapshotService {
+
+    /** Bank statement sign rules: these types add to the bank account balance */
+    public static final List<LedgerTransactionType> BANK_CREDIT_TYPES = List.of(
+            LedgerTransactionType.DEPOSIT,
+            LedgerTransactionType.REVERSAL,
+            LedgerTransactionType.SETTLEMENT);
+
+    /** Bank statement sign rules: these types subtract from the bank account balance */
+    public static final List<LedgerTransactionType> BANK_DEBIT_TYPES = List.of(
+            LedgerTransactionType.WITHDRAWAL,
+            LedgerTransactionType.FEE,
+            LedgerTransactionType.TRANSFER,
+            LedgerTransactionType.ALLOTMENT);
+
+    private final AccountBalanceSnapshotRepository snapshotRepository;
+    private final LedgerTransactionRepository ledgerTransactionRepository;
+    private final LedgerArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public BalanceSnapshotService(AccountBalanceSnapshotRepository snapshotRepository,
+            LedgerTransactionRepository ledgerTransactionRepository,
+            LedgerArchiveRepository archiveRepository,
+            PlatformTransactionManager transactionManager) {
+        this.snapshotRepository = snapshotRepository;
+        this.ledgerTransactionRepository = ledgerTransactionRepository;
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Opening balance of a ledger account (credits add, debits subtract) before the given time
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getLedgerOpeningBalance(Long ledgerAccountId, LocalDateTime before) {
+        if (archiveRepository.reachesArchive(before)) {
+            LocalDateTime cutoff = archiveRepository.findArchiveCutoff().atStartOfDay();
+            return carriedForward(AccountBalanceSnapshot.KIND_LEDGER, ledgerAccountId, cutoff)
+                    .subtract(archiveRepository.getLedgerChangeBetween(ledgerAccountId, before, cutoff));
+        }
+        Optional<AccountBalanceSnapshot> snapshot = latestSnapshot(AccountBalanceSnapshot.KIND_LEDGER,
+                ledgerAccountId, before);
+        if (snapshot.isEmpty()) {
+            return ledgerTransactionRepository.getLedgerOpeningBalance(ledgerAccountId, before);
+        }
+        return snapshot.get().getClosingBalance().add(ledgerTransactionRepository.getLedgerBalanceChangeBetween(
+                ledgerAccountId, snapshot.get().getBusinessDate().plusDays(1).atStartOfDay(), before));
+    }
+
+    /**
+     * Opening balance of a sharded ledger account: the sum over the account and its shard rows
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getLedgerOpeningBalance(List<Long> ledgerAccountIds, LocalDateTime before) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Long id : ledgerAccountIds) {
+            total = total.add(getLedgerOpeningBalance(id, before));
+        }
+        return total;
+    }
+
+    /**
+     * Opening balance of a customer bank account before the given time
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBankOpeningBalance(Long bankAccountId, LocalDateTime before) {
+        if (archiveRepository.reachesArchive(before)) {
+            LocalDateTime cutoff = archiveRepository.findArchiveCutoff().atStartOfDay();
+            return carriedForward(AccountBalanceSnapshot.KIND_BANK, bankAccountId, cutoff)
+                    .subtract(archiveRepository.getBankChangeBetween(bankAccountId, before, cutoff));
+        }
+        Optional<AccountBalanceSnapshot> snapshot = latestSnapshot(AccountBalanceSnapshot.KIND_BANK,
+                bankAccountId, before);
+        if (snapshot.isEmpty()) {
+            return ledgerTransactionRepository.getOpeningBalance(bankAccountId, before,
+                    BANK_CREDIT_TYPES, BANK_DEBIT_TYPES);
+        }
+        return snapshot.get().getClosingBalance().add(ledgerTransactionRepository.getBalanceChangeBetween(
+                bankAccountId, snapshot.get().getBusinessDate().plusDays(1).atStartOfDay(), before,
+                BANK_CREDIT_TYPES, BANK_DEBIT_TYPES));
+    }
+
+    // Balance at the archive cutoff; accounts without a carried-forward snapshot had no archived activity
+    private BigDecimal carriedForward(String kind, Long accountId, LocalDateTime cutoff) {
+        return latestSnapshot(kind, accountId, cutoff).map(AccountBalanceSnapshot::getClosingBalance)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    private Optional<AccountBalanceSnapshot> latestSnapshot(String kind, Long accountId, LocalDateTime before) {
+        // A snapshot for day D covers everything before D+1 00:00
+        LocalDate coveredBefore = before.toLocalDate();
+        if (!before.equals(coveredBefore.atStartOfDay())) {
+            coveredBefore = coveredBefore.plusDays(1);
+        }
+        return snapshotRepository
+                .findFirstByAccountKindAndAccountIdAndBusinessDateBeforeOrderByBusinessDateDesc(kind, accountId,
+                        coveredBefore);
+    }
+
+    /**
+     * Nightly job: snapshot every closed business day not yet snapshotted
+     */
+    @Scheduled(cron = "${ledger.snapshot.cron:0 15 0 * * *}")
+    public void snapshotClosedDays() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate latest = snapshotRepository.findLatestBusinessDate();
+        LocalDate from = latest != null ? latest.plusDays(1) : yesterday;
+        if (from.isAfter(yesterday)) {
+            return;
+        }
+        Map<String, Object> result = backfill(from, yesterday);
+        log.info("Balance snapshots written: {}", result);
+    }
+
+    /**
+     * Write snapshots for every day in the range, oldest first. Safe to re-run: existing
+     * snapshots are overwritten. Defaults to the first transaction date up to yesterday.
+     */
+    public Map<String, Object> backfill(LocalDate from, LocalDate to) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        if (to == null || to.isAfter(yesterday)) {
+            // Today is still open for postings
+            to = yesterday;
+        }
+        if (from == null) {
+            LocalDateTime earliest = ledgerTransactionRepository.findEarliestCreatedAt();
+            from = earliest != null ? earliest.toLocalDate() : to.plusDays(1);
+        }
+        LocalDate closedBefore = archiveRepository.findArchiveCutoff();
+        if (closedBefore != null && from.isBefore(closedBefore)) {
+            // Closed periods keep the snapshots they were closed with
+            from = closedBefore;
+        }
+
+        long ledgerRows = 0;
+        long bankRows = 0;
+        int days = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            int[] written = snapshotDay(day);
+            ledgerRows += written[0];
+            bankRows += written[1];
+            days++;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from);
+        result.put("to", to);
+        result.put("days", days);
+        result.put("ledgerSnapshots", ledgerRows);
+        result.put("bankSnapshots", bankRows);
+        return result;
+    }
+
+    /**
+     * Drop snapshots from the given date and rebuild them. With an account kind and id only
+     * that account's snapshots are dropped; the rebuild rewrites all accounts active on each day.
+     */
+    public Map<String, Object> repair(String accountKind, Long accountId, LocalDate from) {
+        if (from == null) {
+            throw new RuntimeException("Repair start date is required");
+        }
+        LocalDate closedBefore = archiveRepository.findArchiveCutoff();
+        if (closedBefore != null && from.isBefore(closedBefore)) {
+            throw new RuntimeException("Snapshots before " + closedBefore + " belong to a closed period");
+        }
+        Integer deleted = transactionTemplate.execute(status -> {
+            if (accountKind != null && accountId != null) {
+                return snapshotRepository.deleteFrom(accountKind.toUpperCase(), List.of(accountId), from);
+            }
+            return snapshotRepository.deleteFrom(from);
+        });
+        log.info("Deleted {} balance snapshots from {} for repair", deleted, from);
+
+        Map<String, Object> result = backfill(from, null);
+        result.put("deleted", deleted);
+        return result;
+    }
+
+    /**
+     * Write the snapshots of one business day in its own transaction
+     *
+     * @return {ledger rows, bank rows}
+     */
+    public int[] snapshotDay(LocalDate businessDate) {
+        return transactionTemplate.execute(status -> new int[] {
+                snapshotRepository.snapshotLedgerAccounts(businessDate),
+                snapshotRepository.snapshotBankAccounts(businessDate)
+        });
+    }
+
+    /**
+     * Drop snapshots that include the given transactions, for callers that delete or
+     * rewrite posted rows. Must run before the transactions are deleted.
+     */
+    @Transactional
+    public void invalidateFor(Collection<LedgerTransaction> transactions) {
+        LocalDate from = null;
+        Set<Long> ledgerIds = new HashSet<>();
+        Set<Long> bankIds = new HashSet<>();
+        for (LedgerTransaction t : transactions) {
+            if (t.getCreatedAt() != null && (from == null || t.getCreatedAt().toLocalDate().isBefore(from))) {
+                from = t.getCreatedAt().toLocalDate();
+            }
+            if (t.getDebitAccount() != null) {
+                ledgerIds.add(t.getDebitAccount().getId());
+            }
+            if (t.getCreditAccount() != null) {
+                ledgerIds.add(t.getCreditAccount().getId());
+            }
+            if (t.getCustomerBankAccount() != null) {
+                bankIds.add(t.getCustomerBankAccount().getId());
+            }
+        }
+        invalidateFrom(from, ledgerIds, bankIds);
+    }
+
+    /**
+     * Drop the snapshots of the given ledger and bank accounts from the given date on
+     * (nothing if the date is null)
+     */
+    @Transactional
+    public void invalidateFrom(LocalDate from, Collection<Long> ledgerIds, Collection<Long> bankIds) {
+        if (from == null) {
+            return;
+        }
+        if (!ledgerIds.isEmpty()) {
+            snapshotRepository.deleteFrom(AccountBalanceSnapshot.KIND_LEDGER, ledgerIds, from);
+        }
+        if (!bankIds.isEmpty()) {
+            snapshotRepository.deleteFrom(AccountBalanceSnapshot.KIND_BANK, bankIds, from);
+        }
+    }
+}
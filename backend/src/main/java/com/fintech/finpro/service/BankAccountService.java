@@ -21,9 +21,11 @@ public class BankAccountService {
         private final CustomerBankAccountRepository bankAccountRepository;
         private final CustomerRepository customerRepository;
         private final com.fintech.finpro.repository.PendingTransactionRepository pendingTransactionRepository;
-        private final com.fintech.finpro.repository.LedgerTransactionRepository ledgerTransactionRepository;
         private final SystemAccountService systemAccountService;
         private final TransactionService transactionService;
+        private final BalanceSnapshotService balanceSnapshotService;
+        private final com.fintech.finpro.repository.StatementQueryRepository statementQueryRepository;
+        private final StatementCursorCodec cursorCodec;
 
         @Transactional
         public BankAccountDTO createBankAccount(BankAccountCreateDTO dto) {
@@ -71,67 +73,14 @@ public class BankAccountService {
                                                 "Bank account not found with ID: " + accountId));
 
                 java.time.LocalDateTime startDateTime = startDate.atStartOfDay();
-                java.time.LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-
-                // 1. Calculate Opening Balance
-                java.util.List<com.fintech.finpro.enums.LedgerTransactionType> creditTypes = java.util.Arrays.asList(
-                                com.fintech.finpro.enums.LedgerTransactionType.DEPOSIT,
-                                com.fintech.finpro.enums.LedgerTransactionType.REVERSAL,
-                                com.fintech.finpro.enums.LedgerTransactionType.SETTLEMENT);
-
-                java.util.List<com.fintech.finpro.enums.LedgerTransactionType> debitTypes = java.util.Arrays.asList(
-                                com.fintech.finpro.enums.LedgerTransactionType.WITHDRAWAL,
-                                com.fintech.finpro.enums.LedgerTransactionType.FEE,
-                                com.fintech.finpro.enums.LedgerTransactionType.TRANSFER,
-                                com.fintech.finpro.enums.LedgerTransactionType.ALLOTMENT);
-
-                BigDecimal openingBalance = ledgerTransactionRepository.getOpeningBalance(
-                                accountId,
-                                startDateTime,
-                                creditTypes,
-                                debitTypes);
-
-                // 2. Fetch Transactions (Sorted by Date ASC for calculation)
-                // Note: The repository method currently orders by DESC. We need to fetch and
-                // recreate or sort here.
-                // Let's use the existing repository method and reverse it, or sort in stream.
-                java.util.List<com.fintech.finpro.entity.LedgerTransaction> transactions = ledgerTransactionRepository
-                                .findByAccountAndDateRange(accountId, startDateTime, endDateTime);
-
-                // Sort by ID/Date ASC for calculation (Oldest first)
-                transactions.sort(java.util.Comparator
-                                .comparing(com.fintech.finpro.entity.LedgerTransaction::getCreatedAt));
-
-                List<com.fintech.finpro.dto.BankTransactionDTO> transactionDTOs = new java.util.ArrayList<>();
-                BigDecimal runningBalance = openingBalance;
-
-                for (com.fintech.finpro.entity.LedgerTransaction t : transactions) {
-                        BigDecimal amount = t.getAmount();
-                        boolean isCredit = java.util.List.of("DEPOSIT", "REVERSAL", "SETTLEMENT")
-                                        .contains(t.getTransactionType().name());
-                        boolean isDebit = java.util.List.of("WITHDRAWAL", "FEE", "TRANSFER", "ALLOTMENT")
-                                        .contains(t.getTransactionType().name());
-
-                        if (isCredit) {
-                                runningBalance = runningBalance.add(amount);
-                        } else if (isDebit) {
-                                runningBalance = runningBalance.subtract(amount);
-                        }
+                java.time.LocalDateTime endExclusive = endDate.plusDays(1).atStartOfDay();
 
-                        transactionDTOs.add(com.fintech.finpro.dto.BankTransactionDTO.builder()
-                                        .id(t.getId())
-                                        .date(t.getCreatedAt())
-                                        .type(t.getTransactionType().name())
-                                        .amount(t.getAmount())
-                                        .balanceAfter(runningBalance) // Set the calculated balance
-                                        .description(t.getParticulars())
-                                        .referenceId(t.getReferenceId())
-                                        .status(t.getStatus())
-                                        .build());
-                }
+                // 1. Calculate Opening Balance (latest daily snapshot + delta since)
+                BigDecimal openingBalance = balanceSnapshotService.getBankOpeningBalance(accountId, startDateTime);
 
-                // 3. Reverse back to Newest First for Display
-                java.util.Collections.reverse(transactionDTOs);
+                // 2. Rows newest first, running balance computed by the database
+                List<com.fintech.finpro.dto.BankTransactionDTO> transactionDTOs = statementQueryRepository
+                                .findBankStatement(accountId, startDateTime, endExclusive, openingBalance);
 
                 return com.fintech.finpro.dto.AccountStatementDTO.builder()
                                 .accountId(accountId)
@@ -143,6 +92,55 @@ public class BankAccountService {
                                 .build();
         }
 
+        /**
+         * One page of a bank account statement, newest first, with running balances
+         */
+        @Transactional(readOnly = true)
+        public com.fintech.finpro.dto.StatementPageDTO getAccountStatementPage(Long accountId,
+                        java.time.LocalDate startDate,
+                        java.time.LocalDate endDate,
+                        String cursor,
+                        Integer pageSize) {
+                CustomerBankAccount account = bankAccountRepository
+                                .findById(java.util.Objects.requireNonNull(accountId))
+                                .orElseThrow(() -> new RuntimeException(
+                                                "Bank account not found with ID: " + accountId));
+
+                java.time.LocalDateTime from = startDate.atStartOfDay();
+                java.time.LocalDateTime toExclusive = endDate.plusDays(1).atStartOfDay();
+                int size = com.fintech.finpro.repository.StatementQueryRepository.pageSize(pageSize);
+
+                // First page starts from the balance at the end of the range
+                com.fintech.finpro.util.StatementCursor after = cursorCodec.decode(cursor,
+                                StatementCursorCodec.BANK, accountId, from, toExclusive);
+                BigDecimal balanceAtTop = after != null ? after.getBalance()
+                                : balanceSnapshotService.getBankOpeningBalance(accountId, toExclusive);
+
+                java.util.List<com.fintech.finpro.repository.StatementQueryRepository.StatementRow> rows = statementQueryRepository
+                                .findBankPage(accountId, from, toExclusive, after, balanceAtTop, size + 1);
+                boolean hasMore = rows.size() > size;
+                if (hasMore) {
+                        rows = rows.subList(0, size);
+                }
+
+                return com.fintech.finpro.dto.StatementPageDTO.builder()
+                                .accountId(accountId)
+                                .accountNumber(account.getAccountNumber())
+                                .bankName(account.getBankName())
+                                .customerName(account.getCustomer().getFullName())
+                                .currentBalance(account.getBalance())
+                                .transactions(rows.stream()
+                                                .map(com.fintech.finpro.repository.StatementQueryRepository.StatementRow::getTransaction)
+                                                .collect(java.util.stream.Collectors.toList()))
+                                .nextCursor(hasMore
+                                                ? cursorCodec.encode(com.fintech.finpro.repository.StatementQueryRepository
+                                                                .cursorAfter(rows.get(size - 1)),
+                                                                StatementCursorCodec.BANK, accountId, from, toExclusive)
+                                                : null)
+                                .hasMore(hasMore)
+                                .build();
+        }
+
         @Transactional(readOnly = true)
         public BankAccountDTO getBankAccountById(Long id) {
                 CustomerBankAccount account = bankAccountRepository.findById(java.util.Objects.requireNonNull(id))
@@ -310,11 +308,7 @@ public class BankAccountService {
                                         amount,
                                         description,
                                         makerId,
-                                        account);
-
-                        // Update physical bank account
-                        account.setBalance(account.getBalance().add(amount));
-                        bankAccountRepository.save(account);
+                                        account); // The linked DEPOSIT posting credits the bank account balance
 
                         // Mark as Approved
                         transaction.setStatus("APPROVED");
@@ -26,6 +26,8 @@ import java.util.List;
 @Slf4j
 public class BulkCustomerService {
 
+    private static final int DEPOSIT_CHUNK_SIZE = 500;
+
     private final CustomerService customerService;
     private final CustomerRepository customerRepository;
     private final TransactionService transactionService;
@@ -70,12 +72,15 @@ public class BulkCustomerService {
             // or simply to avoid DB hits.
             java.util.Map<String, Long> recentlyCreatedMajors = new java.util.HashMap<>();
 
+            // Initial deposits are collected and posted in chunks after both passes
+            List<TransactionService.CustomerDeposit> deposits = new ArrayList<>();
+
             // Pass 1: Process Majors
             for (BulkCustomerCSVRecord record : validRecords) {
                 if (!isMinorRecord(record)) {
                     try {
                         CustomerDTO created = processSingleRecord(record, uploadedByUserId, bankId,
-                                recentlyCreatedMajors);
+                                recentlyCreatedMajors, deposits);
                         successCount++;
                         if (created != null && record.getCitizenshipNumber() != null) {
                             recentlyCreatedMajors.put(record.getCitizenshipNumber(), created.getId());
@@ -93,7 +98,7 @@ public class BulkCustomerService {
             for (BulkCustomerCSVRecord record : validRecords) {
                 if (isMinorRecord(record)) {
                     try {
-                        processSingleRecord(record, uploadedByUserId, bankId, recentlyCreatedMajors);
+                        processSingleRecord(record, uploadedByUserId, bankId, recentlyCreatedMajors, deposits);
                         successCount++;
                     } catch (Exception e) {
                         failureCount++;
@@ -104,6 +109,11 @@ public class BulkCustomerService {
                 }
             }
 
+            for (int from = 0; from < deposits.size(); from += DEPOSIT_CHUNK_SIZE) {
+                depositChunk(deposits.subList(from, Math.min(from + DEPOSIT_CHUNK_SIZE, deposits.size())),
+                        uploadedByUserId, report);
+            }
+
             report.add(0, "Summary: " + successCount + " successful, " + failureCount + " failed.");
 
         } catch (Exception e) {
@@ -114,6 +124,31 @@ public class BulkCustomerService {
         return report;
     }
 
+    /**
+     * Post a chunk of initial deposits in one transaction; if it fails, post them one by one
+     * so only the failing deposits are reported. Customers stay created either way and a
+     * failed deposit can be posted again separately.
+     */
+    private void depositChunk(List<TransactionService.CustomerDeposit> chunk, Long uploadedByUserId,
+            List<String> report) {
+        try {
+            transactionService.depositToCustomers(chunk, "Initial Deposit via Bulk Upload", uploadedByUserId);
+        } catch (Exception e) {
+            if (chunk.size() == 1) {
+                TransactionService.CustomerDeposit deposit = chunk.get(0);
+                report.add("Failed to post initial deposit of " + deposit.amount() + " for customer "
+                        + deposit.customerId() + ": " + e.getMessage());
+                log.error("Failed to post initial deposit for customer {}: {}", deposit.customerId(),
+                        e.getMessage());
+                return;
+            }
+            log.warn("Initial deposit chunk of {} failed, retrying one by one: {}", chunk.size(), e.getMessage());
+            for (TransactionService.CustomerDeposit deposit : chunk) {
+                depositChunk(List.of(deposit), uploadedByUserId, report);
+            }
+        }
+    }
+
     private boolean isMinorRecord(BulkCustomerCSVRecord record) {
         if (record.getIsMinor() != null) {
             return record.getIsMinor();
@@ -130,7 +165,7 @@ public class BulkCustomerService {
     }
 
     private CustomerDTO processSingleRecord(BulkCustomerCSVRecord record, Long uploadedByUserId, Long bankId,
-            java.util.Map<String, Long> createdMajorsMap) {
+            java.util.Map<String, Long> createdMajorsMap, List<TransactionService.CustomerDeposit> deposits) {
         // 1. Map CSV Record to CustomerCreateDTO
         CustomerCreateDTO customerDTO = new CustomerCreateDTO();
         customerDTO.setFirstName(record.getFirstName());
@@ -226,12 +261,8 @@ public class BulkCustomerService {
                                 createdCustomer.getBankAccountNumber())
                         .orElseThrow(() -> new RuntimeException("Bank account not found for deposit"));
 
-                transactionService.depositToCustomer(
-                        createdCustomer.getId(),
-                        record.getInitialDeposit(),
-                        "Initial Deposit via Bulk Upload",
-                        uploadedByUserId,
-                        account);
+                deposits.add(new TransactionService.CustomerDeposit(
+                        createdCustomer.getId(), record.getInitialDeposit(), account));
             } catch (Exception e) {
                 log.error("Failed to process initial deposit for {}: {}", createdCustomer.getEmail(), e.getMessage());
                 // Don't fail the whole customer creation, just log the deposit failure?
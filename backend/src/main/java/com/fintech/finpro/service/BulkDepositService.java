@@ -81,9 +81,10 @@ public class BulkDepositService {
             throw new RuntimeException("Batch is not in PENDING status");
         }
 
-        // Process each item
-        for (BulkDepositItem item : batch.getItems()) {
-            processItemTransaction(item, checkerId);
+        // Post all items together: one batch of ledger writes instead of a posting per item
+        List<BulkDepositItem> items = itemRepository.findWithCustomersByBatchId(batchId);
+        ledgerService.recordTransactions(buildPostings(batch, items));
+        for (BulkDepositItem item : items) {
             item.setStatus("PROCESSED");
         }
 
@@ -94,36 +95,50 @@ public class BulkDepositService {
         return convertToDTO(bulkDepositRepository.save(batch));
     }
 
-    private void processItemTransaction(BulkDepositItem item, Long checkerId) {
-        Customer customer = item.getCustomer();
-
-        // Destination: Customer Ledger
-        LedgerAccount destinationAcc = ledgerService.getOrCreateAccount(
-                customer.getFullName(), LedgerAccountType.CUSTOMER_LEDGER, customer.getId());
-
-        // Source: Investor Ledger or Core Capital
-        LedgerAccount sourceAcc;
-        if (customer.getInvestor() != null) {
-            String investorName = customer.getInvestor().getUser().getFirstName() + " "
-                    + customer.getInvestor().getUser().getLastName();
-            sourceAcc = ledgerService.getOrCreateAccount(
-                    investorName, LedgerAccountType.INVESTOR_LEDGER, customer.getInvestor().getId());
-        } else {
-            sourceAcc = accountRepository.findByAccountType(LedgerAccountType.CORE_CAPITAL)
-                    .stream().findFirst()
-                    .orElseThrow(() -> new RuntimeException("Core Capital account not found"));
+    private List<LedgerPosting> buildPostings(BulkDeposit batch, List<BulkDepositItem> items) {
+        // Resolve every ledger account up front with one query per account type
+        java.util.Map<Long, String> customerNames = new java.util.HashMap<>();
+        java.util.Map<Long, String> investorNames = new java.util.HashMap<>();
+        boolean needsCoreCapital = false;
+        for (BulkDepositItem item : items) {
+            Customer customer = item.getCustomer();
+            customerNames.putIfAbsent(customer.getId(), customer.getFullName());
+            if (customer.getInvestor() == null) {
+                needsCoreCapital = true;
+            } else {
+                investorNames.putIfAbsent(customer.getInvestor().getId(),
+                        customer.getInvestor().getUser().getFirstName() + " "
+                                + customer.getInvestor().getUser().getLastName());
+            }
         }
-
-        String particulars = "Bulk Deposit: " + item.getBulkDeposit().getBatchId() + " - " + item.getRemarks();
-
-        ledgerService.recordTransaction(
-                sourceAcc,
-                destinationAcc,
-                item.getAmount(),
-                particulars,
-                LedgerTransactionType.DEPOSIT,
-                item.getBulkDeposit().getBatchId(),
-                item.getBulkDeposit().getMakerId());
+        java.util.Map<Long, LedgerAccount> customerAccounts = ledgerService
+                .getOrCreateAccounts(LedgerAccountType.CUSTOMER_LEDGER, customerNames);
+        java.util.Map<Long, LedgerAccount> investorAccounts = ledgerService
+                .getOrCreateAccounts(LedgerAccountType.INVESTOR_LEDGER, investorNames);
+        LedgerAccount coreCapital = !needsCoreCapital ? null
+                : accountRepository.findByAccountType(LedgerAccountType.CORE_CAPITAL)
+                        .stream().filter(account -> account.getParentAccountId() == null).findFirst()
+                        .orElseThrow(() -> new RuntimeException("Core Capital account not found"));
+
+        List<LedgerPosting> postings = new java.util.ArrayList<>(items.size());
+        for (BulkDepositItem item : items) {
+            Customer customer = item.getCustomer();
+
+            // Source: Investor Ledger or Core Capital; Destination: Customer Ledger
+            LedgerAccount sourceAcc = customer.getInvestor() != null
+                    ? investorAccounts.get(customer.getInvestor().getId())
+                    : coreCapital;
+
+            postings.add(LedgerPosting.builder()
+                    .debitAccount(sourceAcc)
+                    .creditAccount(customerAccounts.get(customer.getId()))
+                    .amount(item.getAmount())
+                    .particulars("Bulk Deposit: " + batch.getBatchId() + " - " + item.getRemarks())
+                    .type(LedgerTransactionType.DEPOSIT)
+                    .makerId(batch.getMakerId())
+                    .build());
+        }
+        return postings;
     }
 
     @Transactional
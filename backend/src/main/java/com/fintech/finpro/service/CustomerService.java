@@ -31,8 +31,11 @@ public class CustomerService {
     private final com.fintech.finpro.repository.PendingTransactionRepository pendingTransactionRepository;
     private final com.fintech.finpro.repository.LedgerTransactionRepository ledgerTransactionRepository;
     private final com.fintech.finpro.repository.TransactionFeeRepository transactionFeeRepository;
+    private final com.fintech.finpro.repository.LedgerArchiveRepository ledgerArchiveRepository;
     private final UserRepository userRepository;
     private final LedgerService ledgerService;
+    private final LedgerAccountCache ledgerAccountCache;
+    private final BalanceSnapshotService balanceSnapshotService;
     private final org.modelmapper.ModelMapper modelMapper;
 
     @Transactional
@@ -435,12 +438,38 @@ public class CustomerService {
         List<com.fintech.finpro.entity.LedgerTransaction> uniqueLedgerTransactions = relatedLedgerTransactions.stream()
                 .distinct().collect(java.util.stream.Collectors.toList());
 
+        // Snapshots of the counter accounts (e.g. Core Capital) include these rows
+        balanceSnapshotService.invalidateFor(uniqueLedgerTransactions);
+
         // Delete Fees and Transactions
         for (com.fintech.finpro.entity.LedgerTransaction tx : uniqueLedgerTransactions) {
             transactionFeeRepository.deleteByTransactionId(tx.getId());
             ledgerTransactionRepository.delete(tx);
         }
 
+        // Archived (closed-period) transactions are not visible through the entity
+        java.time.LocalDate archivedFrom = null;
+        java.util.Set<Long> archivedLedgerIds = new java.util.HashSet<>();
+        java.util.Set<Long> archivedBankIds = new java.util.HashSet<>();
+        for (com.fintech.finpro.repository.LedgerArchiveRepository.DeletedTransaction tx : ledgerArchiveRepository
+                .deleteForCustomer(id, ledgerAccountIds)) {
+            transactionFeeRepository.deleteByTransactionId(tx.id());
+            if (tx.createdAt() != null
+                    && (archivedFrom == null || tx.createdAt().toLocalDate().isBefore(archivedFrom))) {
+                archivedFrom = tx.createdAt().toLocalDate();
+            }
+            if (tx.debitAccountId() != null) {
+                archivedLedgerIds.add(tx.debitAccountId());
+            }
+            if (tx.creditAccountId() != null) {
+                archivedLedgerIds.add(tx.creditAccountId());
+            }
+            if (tx.bankAccountId() != null) {
+                archivedBankIds.add(tx.bankAccountId());
+            }
+        }
+        balanceSnapshotService.invalidateFrom(archivedFrom, archivedLedgerIds, archivedBankIds);
+
         // 2. Delete Pending Transactions
         List<com.fintech.finpro.entity.PendingTransaction> pendingTransactions = pendingTransactionRepository
                 .findByCustomerIdOrderByCreatedAtDesc(id);
@@ -470,6 +499,7 @@ public class CustomerService {
         // 6. Delete Ledger Accounts
         if (!customerLedgerAccounts.isEmpty()) {
             ledgerAccountRepository.deleteAll(customerLedgerAccounts);
+            customerLedgerAccounts.forEach(ledgerAccountCache::evict);
         }
 
         // 7. Delete dependent Bulk Deposit Items
@@ -0,0 +1,288 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.entity.CustomerBankAccount;
+import com.fintech.finpro.entity.IPO;
+import com.fintech.finpro.entity.IPOApplication;
+import com.fintech.finpro.entity.LedgerAccount;
+import com.fintech.finpro.enums.ApplicationStatus;
+import com.fintech.finpro.enums.LedgerAccountType;
+import com.fintech.finpro.enums.LedgerTransactionType;
+import com.fintech.finpro.repository.CustomerBankAccountRepository;
+import com.fintech.finpro.repository.CustomerPortfolioBatchRepository;
+import com.fintech.finpro.repository.CustomerPortfolioBatchRepository.PortfolioAddition;
+import com.fintech.finpro.repository.IPOApplicationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based IPO allotment. APPROVED applications are walked in id order in chunks of
+ * ipo.allotment.chunk-size; each chunk is one transaction that locks its applications
+ * and bank accounts, computes allotment and refund amounts in memory and writes the
+ * held-balance releases, portfolio upserts and ledger journals with batched statements.
+ *
+ * Progress is the application status itself: a committed chunk is ALLOTTED, so a run
+ * that stops half way is resumed by running it again. If a chunk fails it is retried
+ * one application at a time; applications that still fail stay APPROVED and are
+ * reported.
+ */
+@Service
+@Slf4j
+public class IPOAllotmentEngine {
+
+    private static final int MAX_REPORTED_FAILURES = 1000;
+
+    private record Failure(Long applicationId, String applicationNumber, String reason) {
+    }
+
+    private record ChunkResult(int allotted, int notAllotted, List<Failure> failures) {
+    }
+
+    private final IPOApplicationRepository applicationRepository;
+    private final CustomerBankAccountRepository bankAccountRepository;
+    private final CustomerPortfolioBatchRepository portfolioBatchRepository;
+    private final LedgerService ledgerService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public IPOAllotmentEngine(IPOApplicationRepository applicationRepository,
+            CustomerBankAccountRepository bankAccountRepository,
+            CustomerPortfolioBatchRepository portfolioBatchRepository,
+            LedgerService ledgerService,
+            PlatformTransactionManager transactionManager,
+            @Value("${ipo.allotment.chunk-size:1000}") int chunkSize) {
+        this.applicationRepository = applicationRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.portfolioBatchRepository = portfolioBatchRepository;
+        this.ledgerService = ledgerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Allot every APPROVED application of the IPO; must not be called inside a transaction
+     *
+     * @param allottedQuantity shares to allot per application (0 allots none and refunds all,
+     *                         negative leaves the application APPROVED as a failure)
+     * @return report with counts and the failed applications (first 1000)
+     */
+    public Map<String, Object> allot(IPO ipo, ToIntFunction<IPOApplication> allottedQuantity) {
+        long started = System.currentTimeMillis();
+        LedgerAccount holdAccount = ledgerService.getIpoHoldAccount(ipo);
+        LedgerAccount coreCapital = ledgerService.getOrCreateAccount("Core Capital",
+                LedgerAccountType.CORE_CAPITAL, null);
+
+        int chunks = 0;
+        int allotted = 0;
+        int notAllotted = 0;
+        List<Failure> failures = new ArrayList<>();
+        Long afterId = 0L;
+        while (true) {
+            List<Long> ids = applicationRepository.findIdsByIpoIdAndStatusAfter(ipo.getId(),
+                    ApplicationStatus.APPROVED, afterId, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+            chunks++;
+
+            ChunkResult result;
+            try {
+                result = transactionTemplate.execute(
+                        status -> allotChunk(ipo, ids, allottedQuantity, holdAccount, coreCapital));
+            } catch (RuntimeException e) {
+                log.warn("Allotment chunk of IPO {} ending at application {} failed, retrying one by one: {}",
+                        ipo.getId(), afterId, e.getMessage());
+                result = allotOneByOne(ipo, ids, allottedQuantity, holdAccount, coreCapital);
+            }
+            allotted += result.allotted();
+            notAllotted += result.notAllotted();
+            failures.addAll(result.failures());
+        }
+
+        List<Map<String, Object>> reported = new ArrayList<>();
+        for (Failure failure : failures.subList(0, Math.min(failures.size(), MAX_REPORTED_FAILURES))) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("applicationId", failure.applicationId());
+            row.put("applicationNumber", failure.applicationNumber());
+            row.put("reason", failure.reason());
+            reported.add(row);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("ipoId", ipo.getId());
+        report.put("chunks", chunks);
+        report.put("allotted", allotted);
+        report.put("notAllotted", notAllotted);
+        report.put("failed", failures.size());
+        report.put("elapsedMs", System.currentTimeMillis() - started);
+        report.put("failures", reported);
+        log.info("IPO {} allotment: {} allotted, {} not allotted, {} failed in {} chunks, {} ms", ipo.getId(),
+                allotted, notAllotted, failures.size(), chunks, report.get("elapsedMs"));
+        return report;
+    }
+
+    private ChunkResult allotOneByOne(IPO ipo, List<Long> ids, ToIntFunction<IPOApplication> allottedQuantity,
+            LedgerAccount holdAccount, LedgerAccount coreCapital) {
+        int allotted = 0;
+        int notAllotted = 0;
+        List<Failure> failures = new ArrayList<>();
+        for (Long id : ids) {
+            try {
+                ChunkResult result = transactionTemplate.execute(
+                        status -> allotChunk(ipo, List.of(id), allottedQuantity, holdAccount, coreCapital));
+                allotted += result.allotted();
+                notAllotted += result.notAllotted();
+                failures.addAll(result.failures());
+            } catch (RuntimeException e) {
+                failures.add(new Failure(id, null, e.getMessage()));
+            }
+        }
+        return new ChunkResult(allotted, notAllotted, failures);
+    }
+
+    private ChunkResult allotChunk(IPO ipo, List<Long> ids, ToIntFunction<IPOApplication> allottedQuantity,
+            LedgerAccount holdAccount, LedgerAccount coreCapital) {
+        // Applications another run has allotted meanwhile are no longer APPROVED and drop out here
+        List<IPOApplication> applications = applicationRepository.findByIdInAndStatusForUpdate(ids,
+                ApplicationStatus.APPROVED);
+
+        Set<Long> bankAccountIds = applications.stream()
+                .map(IPOApplication::getBankAccount)
+                .filter(Objects::nonNull)
+                .map(CustomerBankAccount::getId)
+                .collect(Collectors.toSet());
+        Map<Long, CustomerBankAccount> bankAccounts = new HashMap<>();
+        if (!bankAccountIds.isEmpty()) {
+            for (CustomerBankAccount account : bankAccountRepository.findByIdInForUpdate(bankAccountIds)) {
+                bankAccounts.put(account.getId(), account);
+            }
+        }
+
+        Map<Long, String> ledgerNames = new HashMap<>();
+        for (IPOApplication application : applications) {
+            ledgerNames.putIfAbsent(application.getCustomer().getId(),
+                    application.getCustomer().getFullName() + " - Ledger");
+        }
+        Map<Long, LedgerAccount> customerLedgers = ledgerService.getOrCreateAccounts(
+                LedgerAccountType.CUSTOMER_LEDGER, ledgerNames);
+
+        BigDecimal price = ipo.getPricePerShare();
+        LocalDateTime now = LocalDateTime.now();
+        int allotted = 0;
+        int notAllotted = 0;
+        List<Failure> failures = new ArrayList<>();
+        List<LedgerJournalRequest> journals = new ArrayList<>();
+        Map<Long, PortfolioAddition> additions = new LinkedHashMap<>();
+        for (IPOApplication application : applications) {
+            int quantity = allottedQuantity.applyAsInt(application);
+            BigDecimal appliedAmount = application.getAmount();
+            BigDecimal allottedAmount = price.multiply(BigDecimal.valueOf(quantity));
+            BigDecimal refundAmount = appliedAmount.subtract(allottedAmount);
+            CustomerBankAccount bankAccount = application.getBankAccount() != null
+                    ? bankAccounts.get(application.getBankAccount().getId())
+                    : null;
+
+            String reason = null;
+            if (quantity < 0) {
+                reason = "Not part of the allotment draw";
+            } else if (quantity > application.getQuantity()) {
+                reason = "Allotted quantity " + quantity + " exceeds applied quantity "
+                        + application.getQuantity();
+            } else if (refundAmount.signum() < 0) {
+                reason = "Allotted amount " + allottedAmount + " exceeds applied amount " + appliedAmount;
+            } else if (bankAccount != null && bankAccount.getHeldBalance().compareTo(appliedAmount) < 0) {
+                reason = "Held balance " + bankAccount.getHeldBalance() + " is below applied amount "
+                        + appliedAmount;
+            }
+            if (reason != null) {
+                failures.add(new Failure(application.getId(), application.getApplicationNumber(), reason));
+                continue;
+            }
+
+            // Release the whole hold; the ALLOTMENT leg debits the allotted amount from the
+            // bank balance, so the refund simply stays in the balance
+            if (bankAccount != null) {
+                bankAccount.setHeldBalance(bankAccount.getHeldBalance().subtract(appliedAmount));
+            }
+
+            List<LedgerPosting> legs = new ArrayList<>(2);
+            if (quantity > 0) {
+                legs.add(LedgerPosting.builder()
+                        .debitAccount(holdAccount)
+                        .creditAccount(coreCapital)
+                        .amount(allottedAmount)
+                        .particulars("IPO Allotment: " + ipo.getCompanyName() + " (" + quantity + " shares)")
+                        .type(LedgerTransactionType.ALLOTMENT)
+                        .bankAccount(bankAccount)
+                        .build());
+                additions.merge(application.getCustomer().getId(),
+                        new PortfolioAddition(application.getCustomer().getId(), quantity, allottedAmount),
+                        (a, b) -> new PortfolioAddition(a.customerId(), a.quantity() + b.quantity(),
+                                a.cost().add(b.cost())));
+            }
+            if (refundAmount.signum() > 0) {
+                legs.add(LedgerPosting.builder()
+                        .debitAccount(holdAccount)
+                        .creditAccount(customerLedgers.get(application.getCustomer().getId()))
+                        .amount(refundAmount)
+                        .particulars("IPO Refund: " + ipo.getCompanyName())
+                        .type(LedgerTransactionType.REFUND)
+                        .bankAccount(bankAccount)
+                        .build());
+            }
+            if (!legs.isEmpty()) {
+                journals.add(LedgerJournalRequest.builder()
+                        .reference("IPO-APP-" + application.getId())
+                        .description("IPO Allotment: " + ipo.getCompanyName())
+                        .legs(legs)
+                        .build());
+            }
+
+            application.setApplicationStatus(ApplicationStatus.ALLOTTED);
+            application.setAllotmentQuantity(quantity);
+            application.setAllotmentStatus(quantity > 0 ? "ALLOTTED" : "NOT_ALLOTTED");
+            application.setStatusUpdatedAt(now);
+            if (quantity > 0) {
+                allotted++;
+            } else {
+                notAllotted++;
+            }
+        }
+
+        Map<Long, Long> portfolioIds = portfolioBatchRepository.findPortfolioIds(ipo.getSymbol(), additions.keySet());
+        Map<Long, PortfolioAddition> existing = new LinkedHashMap<>();
+        List<PortfolioAddition> created = new ArrayList<>();
+        additions.forEach((customerId, addition) -> {
+            Long portfolioId = portfolioIds.get(customerId);
+            if (portfolioId != null) {
+                existing.put(portfolioId, addition);
+            } else {
+                created.add(addition);
+            }
+        });
+        portfolioBatchRepository.addToPortfolios(existing, now);
+        portfolioBatchRepository.insertPortfolios(ipo.getId(), ipo.getSymbol(), price, created, LocalDate.now(),
+                now);
+
+        ledgerService.recordJournals("IPO_ALLOTMENT", null, journals);
+        // Applications and bank accounts are flushed as batched UPDATEs on commit
+        return new ChunkResult(allotted, notAllotted, failures);
+    }
+}
@@ -0,0 +1,208 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.entity.Bank;
+import com.fintech.finpro.entity.IPO;
+import com.fintech.finpro.repository.BankRepository;
+import com.fintech.finpro.repository.IPOApplicantRepository;
+import com.fintech.finpro.repository.IPOApplicantRepository.Applicants;
+import com.fintech.finpro.util.AllotmentLottery;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Draws an IPO's allotment (AllotmentLottery) without writing anything, for the
+ * simulation endpoint and for the real run.
+ *
+ * The draw covers the applications still APPROVED and offers the shares not yet
+ * allotted. Applicants are read in one REPEATABLE READ, read-only transaction, so the
+ * draw and its statistics come from a single snapshot. Plans are cached per IPO together with the
+ * applicant-set version and seed they were drawn from; a later simulation or allotment
+ * run whose version still matches reuses the plan without loading the applicants again.
+ * At most ipo.allotment.plan-cache-size plans are kept (each holds two arrays per
+ * applicant).
+ */
+@Service
+@Slf4j
+public class IPOAllotmentPlanner {
+
+    /**
+     * Allotted shares per application id (ids ascending), plus distribution statistics
+     */
+    public record AllotmentPlan(Long ipoId, String version, long seed, long[] applicationIds, int[] allotted,
+            Map<String, Object> statistics, LocalDateTime drawnAt) {
+
+        /**
+         * Shares drawn for the application, or -1 if it was not part of the draw
+         */
+        public int allottedFor(Long applicationId) {
+            int i = Arrays.binarySearch(applicationIds, applicationId);
+            return i >= 0 ? allotted[i] : -1;
+        }
+    }
+
+    private final IPOApplicantRepository applicantRepository;
+    private final BankRepository bankRepository;
+    private final TransactionTemplate snapshotTemplate;
+    private final Map<Long, AllotmentPlan> plans;
+
+    public IPOAllotmentPlanner(IPOApplicantRepository applicantRepository,
+            BankRepository bankRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${ipo.allotment.plan-cache-size:2}") int cacheSize) {
+        this.applicantRepository = applicantRepository;
+        this.bankRepository = bankRepository;
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+        this.plans = new LinkedHashMap<>(8, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, AllotmentPlan> eldest) {
+                return size() > Math.max(0, cacheSize);
+            }
+        };
+    }
+
+    /**
+     * Current plan for the IPO, drawn with its allotment seed (which must be set);
+     * must not be called inside a transaction
+     */
+    public AllotmentPlan plan(IPO ipo) {
+        if (ipo.getAllotmentSeed() == null) {
+            throw new RuntimeException("IPO " + ipo.getId() + " has no allotment seed");
+        }
+        return snapshotTemplate.execute(status -> {
+            long sharesOffered = Math.max(0L,
+                    ipo.getIssueSize() - applicantRepository.findAllottedShares(ipo.getId()));
+            String version = applicantRepository.findApplicantSetVersion(ipo.getId()) + "/" + sharesOffered;
+            AllotmentPlan cached;
+            synchronized (plans) {
+                cached = plans.get(ipo.getId());
+            }
+            if (cached != null && cached.version().equals(version) && cached.seed() == ipo.getAllotmentSeed()) {
+                log.debug("Reusing allotment plan of IPO {} drawn at {}", ipo.getId(), cached.drawnAt());
+                return cached;
+            }
+
+            long started = System.currentTimeMillis();
+            Applicants applicants = applicantRepository.findApplicants(ipo.getId());
+            int[] allotted = AllotmentLottery.allot(applicants.quantities(), sharesOffered, ipo.getMinQuantity(),
+                    ipo.getAllotmentSeed());
+            AllotmentPlan plan = new AllotmentPlan(ipo.getId(), version, ipo.getAllotmentSeed(),
+                    applicants.applicationIds(), allotted, statistics(ipo, sharesOffered, applicants, allotted),
+                    LocalDateTime.now());
+            synchronized (plans) {
+                plans.put(ipo.getId(), plan);
+            }
+            log.info("IPO {} allotment drawn over {} applicants in {} ms", ipo.getId(), applicants.size(),
+                    System.currentTimeMillis() - started);
+            return plan;
+        });
+    }
+
+    /**
+     * The stored plan of a started allotment (ipo_allotment_plan) with the same statistics
+     * as a draw, i.e. what the allotment runs settle; empty if no plan is stored yet
+     */
+    public AllotmentPlan storedPlan(IPO ipo) {
+        return snapshotTemplate.execute(status -> {
+            IPOApplicantRepository.PlannedApplicants planned = applicantRepository.findPlannedApplicants(ipo.getId());
+            Applicants applicants = planned.applicants();
+            long sharesOffered = Math.max(0L,
+                    ipo.getIssueSize() - applicantRepository.findAllottedSharesOutsidePlan(ipo.getId()));
+            return new AllotmentPlan(ipo.getId(), "stored/" + applicants.size(), ipo.getAllotmentSeed(),
+                    applicants.applicationIds(), planned.allotted(),
+                    statistics(ipo, sharesOffered, applicants, planned.allotted()), ipo.getAllotmentStartedAt());
+        });
+    }
+
+    private Map<String, Object> statistics(IPO ipo, long sharesOffered, Applicants applicants, int[] allotted) {
+        long priceMinor = ipo.getPricePerShare().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+
+        // Per-bank totals in parallel arrays, indexed by first appearance of the bank id
+        Map<Long, Integer> bankIndex = new HashMap<>();
+        long[] bankIds = new long[16];
+        long[][] bankTotals = new long[16][];
+        long sharesApplied = 0;
+        long sharesAllotted = 0;
+        long winners = 0;
+        long appliedMinor = 0;
+        long allottedMinor = 0;
+        for (int i = 0; i < applicants.size(); i++) {
+            long applied = applicants.amountsMinor()[i];
+            long cost = allotted[i] * priceMinor;
+            sharesApplied += applicants.quantities()[i];
+            sharesAllotted += allotted[i];
+            winners += allotted[i] > 0 ? 1 : 0;
+            appliedMinor += applied;
+            allottedMinor += cost;
+
+            long bankId = applicants.bankIds()[i];
+            int b = bankIndex.computeIfAbsent(bankId, id -> bankIndex.size());
+            if (b == bankIds.length) {
+                bankIds = Arrays.copyOf(bankIds, b * 2);
+                bankTotals = Arrays.copyOf(bankTotals, b * 2);
+            }
+            if (bankTotals[b] == null) {
+                bankIds[b] = bankId;
+                bankTotals[b] = new long[4];
+            }
+            long[] totals = bankTotals[b];
+            totals[0]++;
+            totals[1] += allotted[i] > 0 ? 1 : 0;
+            totals[2] += applied;
+            totals[3] += cost;
+        }
+
+        Map<Long, Bank> banks = new HashMap<>();
+        for (Bank bank : bankRepository.findAllById(bankIndex.keySet())) {
+            banks.put(bank.getId(), bank);
+        }
+        List<Map<String, Object>> perBank = new ArrayList<>(bankIndex.size());
+        for (int b = 0; b < bankIndex.size(); b++) {
+            long[] totals = bankTotals[b];
+            Bank bank = banks.get(bankIds[b]);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("bankId", bank != null ? bank.getId() : null);
+            row.put("bankName", bank != null ? bank.getName() : "Unlinked");
+            row.put("casba", bank != null && Boolean.TRUE.equals(bank.getIsCasba()));
+            row.put("applicants", totals[0]);
+            row.put("applicantsAllotted", totals[1]);
+            row.put("appliedAmount", BigDecimal.valueOf(totals[2], 2));
+            row.put("allottedAmount", BigDecimal.valueOf(totals[3], 2));
+            row.put("refundAmount", BigDecimal.valueOf(totals[2] - totals[3], 2));
+            perBank.add(row);
+        }
+        perBank.sort((a, b) -> ((BigDecimal) b.get("refundAmount")).compareTo((BigDecimal) a.get("refundAmount")));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("applicants", applicants.size());
+        stats.put("applicantsAllotted", winners);
+        stats.put("applicantsNotAllotted", applicants.size() - winners);
+        stats.put("sharesOffered", sharesOffered);
+        stats.put("sharesApplied", sharesApplied);
+        stats.put("sharesAllotted", sharesAllotted);
+        stats.put("subscriptionRatio", sharesOffered > 0
+                ? BigDecimal.valueOf(sharesApplied).divide(BigDecimal.valueOf(sharesOffered), 2,
+                        RoundingMode.HALF_UP)
+                : null);
+        stats.put("appliedAmount", BigDecimal.valueOf(appliedMinor, 2));
+        stats.put("allottedAmount", BigDecimal.valueOf(allottedMinor, 2));
+        stats.put("refundAmount", BigDecimal.valueOf(appliedMinor - allottedMinor, 2));
+        stats.put("banks", perBank);
+        return stats;
+    }
+}
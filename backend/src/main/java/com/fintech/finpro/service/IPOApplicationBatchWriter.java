@@ -0,0 +1,200 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.entity.IPO;
+import com.fintech.finpro.entity.LedgerAccount;
+import com.fintech.finpro.enums.ApplicationStatus;
+import com.fintech.finpro.enums.LedgerAccountType;
+import com.fintech.finpro.enums.LedgerTransactionType;
+import com.fintech.finpro.repository.CustomerBankAccountRepository;
+import com.fintech.finpro.repository.IPOApplicationBatchRepository;
+import com.fintech.finpro.repository.IPOApplicationBatchRepository.Applicant;
+import com.fintech.finpro.repository.IPOApplicationBatchRepository.NewApplication;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes many applications to one IPO with createApplication semantics (same checks,
+ * fund hold and WITHDRAWAL posting) but set-based: customers and bank accounts are read
+ * with one query each, applications are inserted with one INSERT ... ON CONFLICT DO
+ * NOTHING, holds are placed with one guarded UPDATE and the postings go through
+ * recordTransactions. A request that fails a check gets its reason and does not stop the
+ * others. Must run inside the caller's transaction.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IPOApplicationBatchWriter {
+
+    static final String ALREADY_APPLIED = "Customer has already applied for this IPO";
+    static final String INSUFFICIENT_BALANCE = "Insufficient available balance (Total - Held) in bank account";
+
+    /**
+     * One application; applicationNumber and appliedAt may be null (IPB + id, now)
+     */
+    public record ApplicationRequest(Long customerId, Long bankAccountId, Integer quantity, Long makerId,
+            String applicationNumber, LocalDateTime appliedAt) {
+    }
+
+    /**
+     * Outcome of one request: the application, or the reason it was not created
+     */
+    public record ApplicationResult(Long applicationId, String applicationNumber, BigDecimal amount, String error) {
+
+        public boolean applied() {
+            return error == null;
+        }
+
+        static ApplicationResult rejected(String error) {
+            return new ApplicationResult(null, null, null, error);
+        }
+    }
+
+    private final IPOApplicationBatchRepository batchRepository;
+    private final CustomerBankAccountRepository bankAccountRepository;
+    private final LedgerService ledgerService;
+
+    /**
+     * @return one result per request, in request order
+     */
+    public List<ApplicationResult> apply(IPO ipo, List<ApplicationRequest> requests) {
+        ApplicationResult[] results = new ApplicationResult[requests.size()];
+        if (!ipo.isOpen()) {
+            java.util.Arrays.fill(results, ApplicationResult.rejected("IPO is not currently open for applications"));
+            return List.of(results);
+        }
+
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> bankAccountIds = new HashSet<>();
+        for (ApplicationRequest request : requests) {
+            if (request.customerId() != null) {
+                customerIds.add(request.customerId());
+            }
+            if (request.bankAccountId() != null) {
+                bankAccountIds.add(request.bankAccountId());
+            }
+        }
+        Map<Long, Applicant> applicants = batchRepository.findApplicants(customerIds);
+        Map<Long, Long> owners = batchRepository.findBankAccountOwners(bankAccountIds);
+
+        // Checks in memory; the first request per customer goes on, later ones are duplicates
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> seen = new HashSet<>();
+        List<Integer> valid = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            ApplicationRequest request = requests.get(i);
+            String reason = validate(ipo, request, applicants.get(request.customerId()),
+                    owners.get(request.bankAccountId()));
+            if (reason == null && !seen.add(request.customerId())) {
+                reason = ALREADY_APPLIED;
+            }
+            if (reason != null) {
+                results[i] = ApplicationResult.rejected(reason);
+            } else {
+                valid.add(i);
+            }
+        }
+        if (valid.isEmpty()) {
+            return List.of(results);
+        }
+
+        long[] ids = batchRepository.allocateIds(valid.size());
+        List<NewApplication> rows = new ArrayList<>(valid.size());
+        for (int k = 0; k < valid.size(); k++) {
+            ApplicationRequest request = requests.get(valid.get(k));
+            BigDecimal amount = ipo.getPricePerShare().multiply(BigDecimal.valueOf(request.quantity()));
+            rows.add(new NewApplication(ids[k], request.customerId(), request.bankAccountId(), request.quantity(),
+                    amount,
+                    request.applicationNumber() != null ? request.applicationNumber()
+                            : String.format("IPB%010d", ids[k]),
+                    (request.makerId() != null ? ApplicationStatus.PENDING_VERIFICATION : ApplicationStatus.PENDING)
+                            .name(),
+                    request.makerId(),
+                    request.appliedAt() != null ? request.appliedAt() : now));
+        }
+
+        // Insert first so duplicates never hold funds, then hold; applications whose hold
+        // failed are removed again
+        Set<Long> inserted = batchRepository.insertApplications(ipo.getId(), rows, now);
+        Map<Long, BigDecimal> holds = new LinkedHashMap<>();
+        for (NewApplication row : rows) {
+            if (inserted.contains(row.id())) {
+                holds.merge(row.bankAccountId(), row.amount(), BigDecimal::add);
+            }
+        }
+        Set<Long> held = batchRepository.holdFunds(holds);
+        List<Long> unheld = new ArrayList<>();
+        List<NewApplication> applied = new ArrayList<>(rows.size());
+        for (int k = 0; k < rows.size(); k++) {
+            NewApplication row = rows.get(k);
+            int i = valid.get(k);
+            if (!inserted.contains(row.id())) {
+                results[i] = ApplicationResult.rejected(ALREADY_APPLIED);
+            } else if (!held.contains(row.bankAccountId())) {
+                results[i] = ApplicationResult.rejected(INSUFFICIENT_BALANCE);
+                unheld.add(row.id());
+            } else {
+                results[i] = new ApplicationResult(row.id(), row.applicationNumber(), row.amount(), null);
+                applied.add(row);
+            }
+        }
+        batchRepository.deleteApplications(unheld);
+
+        if (!applied.isEmpty()) {
+            Map<Long, String> ledgerNames = new HashMap<>();
+            applied.forEach(row -> ledgerNames.put(row.customerId(),
+                    applicants.get(row.customerId()).fullName() + " - Ledger"));
+            Map<Long, LedgerAccount> customerLedgers = ledgerService
+                    .getOrCreateAccounts(LedgerAccountType.CUSTOMER_LEDGER, ledgerNames);
+            LedgerAccount ipoHoldAcc = ledgerService.getIpoHoldAccount(ipo);
+
+            List<LedgerPosting> postings = new ArrayList<>(applied.size());
+            for (NewApplication row : applied) {
+                postings.add(LedgerPosting.builder()
+                        .debitAccount(customerLedgers.get(row.customerId()))
+                        .creditAccount(ipoHoldAcc)
+                        .amount(row.amount())
+                        .particulars("IPO Application for " + ipo.getCompanyName() + " (" + row.quantity()
+                                + " shares)")
+                        .type(LedgerTransactionType.WITHDRAWAL)
+                        .bankAccount(bankAccountRepository.getReferenceById(row.bankAccountId()))
+                        .build());
+            }
+            ledgerService.recordTransactions(postings);
+        }
+        log.debug("IPO {} batch: {} applied of {} requests", ipo.getId(), applied.size(), requests.size());
+        return List.of(results);
+    }
+
+    private static String validate(IPO ipo, ApplicationRequest request, Applicant applicant, Long bankAccountOwner) {
+        if (request.customerId() == null || applicant == null) {
+            return "Customer not found with ID: " + request.customerId();
+        }
+        if (!"APPROVED".equals(applicant.kycStatus())) {
+            return "Customer KYC must be APPROVED to apply for IPO";
+        }
+        if (request.quantity() == null || request.quantity() < ipo.getMinQuantity()) {
+            return "Quantity must be at least " + ipo.getMinQuantity();
+        }
+        if (request.quantity() > ipo.getMaxQuantity()) {
+            return "Quantity cannot exceed " + ipo.getMaxQuantity();
+        }
+        if (request.bankAccountId() == null || bankAccountOwner == null) {
+            return "Bank account not found with ID: " + request.bankAccountId();
+        }
+        if (!bankAccountOwner.equals(request.customerId())) {
+            return "Bank account does not belong to this customer";
+        }
+        return null;
+    }
+}
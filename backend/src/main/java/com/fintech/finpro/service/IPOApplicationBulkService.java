@@ -0,0 +1,418 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.dto.IPOBulkApplicationDTO;
+import com.fintech.finpro.dto.IPOBulkApplicationItemDTO;
+import com.fintech.finpro.dto.IPOBulkReviewDTO;
+import com.fintech.finpro.entity.Bank;
+import com.fintech.finpro.entity.IPO;
+import com.fintech.finpro.entity.LedgerAccount;
+import com.fintech.finpro.enums.ApplicationStatus;
+import com.fintech.finpro.enums.LedgerAccountType;
+import com.fintech.finpro.enums.LedgerTransactionType;
+import com.fintech.finpro.repository.BankRepository;
+import com.fintech.finpro.repository.CustomerBankAccountRepository;
+import com.fintech.finpro.repository.IPOApplicationBatchRepository;
+import com.fintech.finpro.repository.IPOApplicationBatchRepository.ReviewRow;
+import com.fintech.finpro.repository.IPOApplicationRepository;
+import com.fintech.finpro.repository.IPORepository;
+import com.fintech.finpro.service.IPOApplicationBatchWriter.ApplicationRequest;
+import com.fintech.finpro.service.IPOApplicationBatchWriter.ApplicationResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IPO applications on behalf of many customers in one request, and verification or
+ * approval of many applications at once.
+ *
+ * Requests are written with IPOApplicationBatchWriter in chunks of
+ * ipo.bulk-apply.chunk-size. Verification and approval work in chunks of
+ * ipo.bulk-review.chunk-size: each chunk locks its applications with one query and checks
+ * status and maker != checker in memory. Approval then charges CASBA fees for the whole
+ * chunk: bank charges come from a cache of all banks (reloaded after
+ * ipo.casba.cache-ttl-ms), covering accounts are locked with one query and the FEE legs
+ * are posted together. Statuses are updated with one statement per chunk.
+ *
+ * Every chunk is one transaction. A chunk that fails is retried one row at a time, so a
+ * bad row only fails itself. Reports have one result per row.
+ */
+@Service
+@Slf4j
+public class IPOApplicationBulkService {
+
+    private record ReviewResult(Long applicationId, String applicationNumber, BigDecimal casbaCharge,
+            String error) {
+
+        static ReviewResult rejected(Long applicationId, String applicationNumber, String error) {
+            return new ReviewResult(applicationId, applicationNumber, null, error);
+        }
+    }
+
+    /**
+     * One review action: the status it moves applications from and to
+     */
+    private record Review(ApplicationStatus from, ApplicationStatus to, String verb, String label, Long checkerId,
+            String approvedBy) {
+    }
+
+    private record BankCharge(String name, BigDecimal casbaCharge) {
+    }
+
+    private record CasbaCharges(Map<Long, BankCharge> byId, Map<String, BankCharge> byName, long loadedAt) {
+    }
+
+    private final IPORepository ipoRepository;
+    private final IPOApplicationRepository applicationRepository;
+    private final IPOApplicationBatchRepository batchRepository;
+    private final IPOApplicationBatchWriter batchWriter;
+    private final CustomerBankAccountRepository bankAccountRepository;
+    private final BankRepository bankRepository;
+    private final LedgerService ledgerService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int reviewChunkSize;
+    private final long casbaCacheMillis;
+    private volatile CasbaCharges casbaCharges;
+
+    public IPOApplicationBulkService(IPORepository ipoRepository,
+            IPOApplicationRepository applicationRepository,
+            IPOApplicationBatchRepository batchRepository,
+            IPOApplicationBatchWriter batchWriter,
+            CustomerBankAccountRepository bankAccountRepository,
+            BankRepository bankRepository,
+            LedgerService ledgerService,
+            PlatformTransactionManager transactionManager,
+            @Value("${ipo.bulk-apply.chunk-size:1000}") int chunkSize,
+            @Value("${ipo.bulk-review.chunk-size:1000}") int reviewChunkSize,
+            @Value("${ipo.casba.cache-ttl-ms:60000}") long casbaCacheMillis) {
+        this.ipoRepository = ipoRepository;
+        this.applicationRepository = applicationRepository;
+        this.batchRepository = batchRepository;
+        this.batchWriter = batchWriter;
+        this.bankAccountRepository = bankAccountRepository;
+        this.bankRepository = bankRepository;
+        this.ledgerService = ledgerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.reviewChunkSize = Math.max(1, reviewChunkSize);
+        this.casbaCacheMillis = casbaCacheMillis;
+    }
+
+    public Map<String, Object> bulkApply(IPOBulkApplicationDTO dto) {
+        long started = System.currentTimeMillis();
+        IPO ipo = ipoRepository.findById(java.util.Objects.requireNonNull(dto.getIpoId()))
+                .orElseThrow(() -> new RuntimeException("IPO not found with ID: " + dto.getIpoId()));
+        if (!ipo.isOpen()) {
+            throw new RuntimeException("IPO is not currently open for applications");
+        }
+
+        List<ApplicationRequest> requests = new ArrayList<>();
+        if (Boolean.TRUE.equals(dto.getAllEligible())) {
+            if (dto.getQuantity() == null) {
+                throw new RuntimeException("Quantity is required when applying for all eligible customers");
+            }
+            for (long[] applicant : batchRepository.findEligibleApplicants(ipo.getId())) {
+                requests.add(new ApplicationRequest(applicant[0], applicant[1], dto.getQuantity(), dto.getMakerId(),
+                        null, null));
+            }
+        } else {
+            if (dto.getItems() == null || dto.getItems().isEmpty()) {
+                throw new RuntimeException("Either items or allEligible is required");
+            }
+            for (IPOBulkApplicationItemDTO item : dto.getItems()) {
+                requests.add(new ApplicationRequest(item.getCustomerId(), item.getBankAccountId(),
+                        item.getQuantity(), dto.getMakerId(), null, null));
+            }
+        }
+
+        List<ApplicationResult> results = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            results.addAll(applyChunk(ipo, requests.subList(from, Math.min(from + chunkSize, requests.size()))));
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>(results.size());
+        int applied = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (int i = 0; i < results.size(); i++) {
+            ApplicationRequest request = requests.get(i);
+            ApplicationResult result = results.get(i);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("customerId", request.customerId());
+            row.put("bankAccountId", request.bankAccountId());
+            row.put("quantity", request.quantity());
+            row.put("status", result.applied() ? "APPLIED" : "REJECTED");
+            row.put("applicationId", result.applicationId());
+            row.put("applicationNumber", result.applicationNumber());
+            row.put("amount", result.amount());
+            row.put("error", result.error());
+            rows.add(row);
+            if (result.applied()) {
+                applied++;
+                totalAmount = totalAmount.add(result.amount());
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Bulk IPO application for IPO {}: {} of {} applied in {} ms", ipo.getId(), applied,
+                requests.size(), elapsed);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("ipoId", ipo.getId());
+        report.put("requested", requests.size());
+        report.put("applied", applied);
+        report.put("rejected", requests.size() - applied);
+        report.put("totalAmount", totalAmount);
+        report.put("elapsedMs", elapsed);
+        report.put("results", rows);
+        return report;
+    }
+
+    private List<ApplicationResult> applyChunk(IPO ipo, List<ApplicationRequest> chunk) {
+        try {
+            return transactionTemplate.execute(status -> batchWriter.apply(ipo, chunk));
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                return List.of(ApplicationResult.rejected(IPOApplicationService.isDuplicateApplication(e)
+                        ? IPOApplicationBatchWriter.ALREADY_APPLIED
+                        : e.getMessage() != null ? e.getMessage() : e.toString()));
+            }
+            log.warn("Bulk IPO application chunk of {} failed, retrying one by one: {}", chunk.size(),
+                    e.getMessage());
+            List<ApplicationResult> results = new ArrayList<>(chunk.size());
+            for (ApplicationRequest request : chunk) {
+                results.addAll(applyChunk(ipo, List.of(request)));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * PENDING_VERIFICATION -> PENDING, by a checker other than the maker
+     */
+    public Map<String, Object> bulkVerify(IPOBulkReviewDTO dto, Long checkerId) {
+        return review(dto, new Review(ApplicationStatus.PENDING_VERIFICATION, ApplicationStatus.PENDING, "verify",
+                "VERIFIED", checkerId, String.valueOf(checkerId)));
+    }
+
+    /**
+     * PENDING -> APPROVED, by a checker other than the maker, charging CASBA fees
+     */
+    public Map<String, Object> bulkApprove(IPOBulkReviewDTO dto, Long checkerId) {
+        String approvedBy = dto.getApprovedBy() != null && !dto.getApprovedBy().isBlank() ? dto.getApprovedBy()
+                : String.valueOf(checkerId);
+        return review(dto, new Review(ApplicationStatus.PENDING, ApplicationStatus.APPROVED, "approve", "APPROVED",
+                checkerId, approvedBy));
+    }
+
+    private Map<String, Object> review(IPOBulkReviewDTO dto, Review review) {
+        long started = System.currentTimeMillis();
+        List<ReviewResult> results = new ArrayList<>();
+        if (dto.getApplicationIds() != null && !dto.getApplicationIds().isEmpty()) {
+            List<Long> ids = new ArrayList<>(new LinkedHashSet<>(dto.getApplicationIds()));
+            for (int from = 0; from < ids.size(); from += reviewChunkSize) {
+                results.addAll(reviewChunk(ids.subList(from, Math.min(from + reviewChunkSize, ids.size())), review));
+            }
+        } else if (dto.getIpoId() != null) {
+            ApplicationStatus status = dto.getStatus() != null && !dto.getStatus().isBlank()
+                    ? parseStatus(dto.getStatus())
+                    : review.from();
+            long afterId = 0;
+            while (true) {
+                List<Long> ids = applicationRepository.findIdsByIpoIdAndStatusAfter(dto.getIpoId(), status, afterId,
+                        PageRequest.of(0, reviewChunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                results.addAll(reviewChunk(ids, review));
+                afterId = ids.get(ids.size() - 1);
+            }
+        } else {
+            throw new RuntimeException("Either applicationIds or ipoId is required");
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>(results.size());
+        int processed = 0;
+        int charged = 0;
+        BigDecimal chargeTotal = BigDecimal.ZERO;
+        for (ReviewResult result : results) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("applicationId", result.applicationId());
+            row.put("applicationNumber", result.applicationNumber());
+            row.put("status", result.error() == null ? review.label() : "REJECTED");
+            row.put("casbaCharge", result.casbaCharge());
+            row.put("error", result.error());
+            rows.add(row);
+            if (result.error() == null) {
+                processed++;
+            }
+            if (result.casbaCharge() != null) {
+                charged++;
+                chargeTotal = chargeTotal.add(result.casbaCharge());
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Bulk {} of IPO applications: {} of {} done in {} ms", review.verb(), processed, results.size(),
+                elapsed);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("action", review.label());
+        report.put("requested", results.size());
+        report.put("processed", processed);
+        report.put("rejected", results.size() - processed);
+        report.put("casbaCharged", charged);
+        report.put("casbaTotal", chargeTotal);
+        report.put("elapsedMs", elapsed);
+        report.put("results", rows);
+        return report;
+    }
+
+    private static ApplicationStatus parseStatus(String status) {
+        try {
+            return ApplicationStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid application status: " + status + " (expected one of "
+                    + Arrays.toString(ApplicationStatus.values()) + ")");
+        }
+    }
+
+    private List<ReviewResult> reviewChunk(List<Long> ids, Review review) {
+        try {
+            return transactionTemplate.execute(status -> reviewLocked(ids, review));
+        } catch (RuntimeException e) {
+            if (ids.size() == 1) {
+                return List.of(ReviewResult.rejected(ids.get(0), null,
+                        e.getMessage() != null ? e.getMessage() : e.toString()));
+            }
+            log.warn("Bulk {} chunk of {} failed, retrying one by one: {}", review.verb(), ids.size(),
+                    e.getMessage());
+            List<ReviewResult> results = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                results.addAll(reviewChunk(List.of(id), review));
+            }
+            return results;
+        }
+    }
+
+    private List<ReviewResult> reviewLocked(List<Long> ids, Review review) {
+        Map<Long, ReviewRow> byId = new HashMap<>();
+        batchRepository.findForReviewForUpdate(ids).forEach(row -> byId.put(row.id(), row));
+
+        // Status and maker-checker in memory, in request order
+        Map<Long, ReviewResult> results = new LinkedHashMap<>();
+        List<ReviewRow> accepted = new ArrayList<>(byId.size());
+        for (Long id : ids) {
+            ReviewRow row = byId.get(id);
+            if (row == null) {
+                results.put(id, ReviewResult.rejected(id, null, "IPO application not found with ID: " + id));
+            } else if (!review.from().name().equals(row.status())) {
+                results.put(id, ReviewResult.rejected(id, row.applicationNumber(),
+                        "Only " + review.from() + " applications can be " + review.label().toLowerCase()));
+            } else if (review.to() == ApplicationStatus.APPROVED && row.allotmentStarted()) {
+                results.put(id, ReviewResult.rejected(id, row.applicationNumber(),
+                        IPOApplicationService.ALLOTMENT_STARTED));
+            } else if (row.makerId() != null && row.makerId().equals(review.checkerId())) {
+                results.put(id, ReviewResult.rejected(id, row.applicationNumber(),
+                        "Maker cannot " + review.verb() + " their own application"));
+            } else {
+                results.put(id, new ReviewResult(id, row.applicationNumber(), null, null));
+                accepted.add(row);
+            }
+        }
+
+        if (review.to() == ApplicationStatus.APPROVED) {
+            chargeCasba(accepted, results);
+        }
+        batchRepository.markReviewed(accepted.stream().map(ReviewRow::id).toList(), review.to().name(),
+                review.approvedBy(), review.checkerId(), LocalDateTime.now());
+        return new ArrayList<>(results.values());
+    }
+
+    /**
+     * CASBA fee of each approved application whose bank charges one, if the bank account's
+     * available balance covers it (otherwise skipped, as in approveApplication)
+     */
+    private void chargeCasba(List<ReviewRow> approved, Map<Long, ReviewResult> results) {
+        CasbaCharges charges = casbaCharges();
+        Map<Long, BigDecimal> chargeByApplication = new HashMap<>();
+        Map<Long, BigDecimal> chargeByAccount = new HashMap<>();
+        Map<Long, String> bankNames = new HashMap<>();
+        for (ReviewRow row : approved) {
+            if (row.bankAccountId() == null) {
+                continue;
+            }
+            BankCharge bank = row.bankId() != null ? charges.byId().get(row.bankId())
+                    : row.bankName() != null ? charges.byName().get(row.bankName()) : null;
+            if (bank == null || bank.casbaCharge().signum() <= 0) {
+                continue;
+            }
+            chargeByApplication.put(row.id(), bank.casbaCharge());
+            chargeByAccount.merge(row.bankAccountId(), bank.casbaCharge(), BigDecimal::add);
+            bankNames.put(row.id(), bank.name());
+        }
+        if (chargeByApplication.isEmpty()) {
+            return;
+        }
+
+        // The FEE postings debit the bank balances; accounts are locked and checked first
+        java.util.Set<Long> covered = batchRepository.findCoveredForUpdate(chargeByAccount);
+        List<ReviewRow> charged = approved.stream()
+                .filter(row -> chargeByApplication.containsKey(row.id()) && covered.contains(row.bankAccountId()))
+                .toList();
+        if (charged.isEmpty()) {
+            return;
+        }
+        Map<Long, String> ledgerNames = new HashMap<>();
+        charged.forEach(row -> ledgerNames.put(row.customerId(), row.customerName() + " - Ledger"));
+        Map<Long, LedgerAccount> customerLedgers = ledgerService.getOrCreateAccounts(LedgerAccountType.CUSTOMER_LEDGER,
+                ledgerNames);
+        LedgerAccount feeIncomeAcc = ledgerService.getOrCreateAccount("CASBA Charges", LedgerAccountType.FEE_INCOME,
+                null);
+
+        List<LedgerPosting> postings = new ArrayList<>(charged.size());
+        for (ReviewRow row : charged) {
+            BigDecimal charge = chargeByApplication.get(row.id());
+            postings.add(LedgerPosting.builder()
+                    .debitAccount(customerLedgers.get(row.customerId()))
+                    .creditAccount(feeIncomeAcc)
+                    .amount(charge)
+                    .particulars("CASBA Charge for IPO " + row.ipoName() + " (" + bankNames.get(row.id()) + ")")
+                    .type(LedgerTransactionType.FEE)
+                    .bankAccount(bankAccountRepository.getReferenceById(row.bankAccountId()))
+                    .build());
+            results.put(row.id(), new ReviewResult(row.id(), row.applicationNumber(), charge, null));
+        }
+        ledgerService.recordTransactions(postings);
+    }
+
+    private CasbaCharges casbaCharges() {
+        CasbaCharges current = casbaCharges;
+        long now = System.currentTimeMillis();
+        if (current == null || now - current.loadedAt() > casbaCacheMillis) {
+            Map<Long, BankCharge> byId = new HashMap<>();
+            Map<String, BankCharge> byName = new HashMap<>();
+            for (Bank bank : bankRepository.findAll()) {
+                BigDecimal charge = Boolean.TRUE.equals(bank.getIsCasba()) && bank.getCasbaCharge() != null
+                        ? bank.getCasbaCharge()
+                        : BigDecimal.ZERO;
+                BankCharge entry = new BankCharge(bank.getName(), charge);
+                byId.put(bank.getId(), entry);
+                byName.putIfAbsent(bank.getName(), entry);
+            }
+            current = new CasbaCharges(byId, byName, now);
+            casbaCharges = current;
+        }
+        return current;
+    }
+}
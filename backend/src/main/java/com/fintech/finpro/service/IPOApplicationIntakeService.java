@@ -0,0 +1,386 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.dto.IPOApplicationCreateDTO;
+import com.fintech.finpro.entity.Customer;
+import com.fintech.finpro.entity.IPO;
+import com.fintech.finpro.repository.CustomerBankAccountRepository;
+import com.fintech.finpro.repository.CustomerRepository;
+import com.fintech.finpro.repository.IPOApplicationIntakeRepository;
+import com.fintech.finpro.repository.IPOApplicationIntakeRepository.IntakeRow;
+import com.fintech.finpro.repository.IPORepository;
+import com.fintech.finpro.service.IPOApplicationBatchWriter.ApplicationRequest;
+import com.fintech.finpro.service.IPOApplicationBatchWriter.ApplicationResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queued intake of IPO applications for open-day surges. Off unless ipo.intake.enabled is set:
+ * no workers are started and submit is refused, and applications go through the direct endpoint.
+ *
+ * submit validates a request against cached IPO and customer data (ipo.intake.metadata-ttl-ms),
+ * stores it in ipo_application_intake and returns a tracking number straight away. Requests
+ * are refused with BacklogFullException while ipo.intake.max-backlog rows are queued; the
+ * backlog count is reloaded every ipo.intake.backlog-refresh-ms and counted up locally in
+ * between.
+ *
+ * ipo.intake.workers threads drain the queue in batches of ipo.intake.batch-size, one
+ * transaction per batch: rows are claimed with FOR UPDATE SKIP LOCKED (several workers and
+ * instances can drain side by side) and written per IPO with IPOApplicationBatchWriter
+ * (re-validated against current data, set-based holds, batched postings); each row ends
+ * ACCEPTED with its application id or REJECTED with the reason. A failed
+ * batch is retried one row at a time; a row that keeps failing is rejected after
+ * ipo.intake.max-attempts.
+ */
+@Service
+@Slf4j
+public class IPOApplicationIntakeService {
+
+    private static final String TRACKING_PREFIX = "IPQ";
+
+    /**
+     * Thrown by submit while the queue is over ipo.intake.max-backlog
+     */
+    public static class BacklogFullException extends RuntimeException {
+
+        public BacklogFullException(long backlog) {
+            super("Application queue is full (" + backlog + " waiting), please retry shortly");
+        }
+    }
+
+    private record CustomerMeta(boolean kycApproved, Set<Long> bankAccountIds, long loadedAt) {
+    }
+
+    private record IpoMeta(IPO ipo, long loadedAt) {
+    }
+
+    private final IPOApplicationIntakeRepository intakeRepository;
+    private final IPOApplicationBatchWriter batchWriter;
+    private final CustomerRepository customerRepository;
+    private final IPORepository ipoRepository;
+    private final CustomerBankAccountRepository bankAccountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int workerCount;
+    private final int batchSize;
+    private final long pollMillis;
+    private final int maxAttempts;
+    private final long maxBacklog;
+    private final long backlogRefreshMillis;
+    private final long metadataTtlMillis;
+    private final Map<Long, IpoMeta> ipos = new HashMap<>();
+    private final Map<Long, CustomerMeta> customers;
+    private final AtomicLong backlog = new AtomicLong();
+    private volatile long backlogLoadedAt;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public IPOApplicationIntakeService(IPOApplicationIntakeRepository intakeRepository,
+            IPOApplicationBatchWriter batchWriter,
+            CustomerRepository customerRepository,
+            IPORepository ipoRepository,
+            CustomerBankAccountRepository bankAccountRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${ipo.intake.enabled:false}") boolean enabled,
+            @Value("${ipo.intake.workers:4}") int workerCount,
+            @Value("${ipo.intake.batch-size:200}") int batchSize,
+            @Value("${ipo.intake.poll-ms:200}") long pollMillis,
+            @Value("${ipo.intake.max-attempts:3}") int maxAttempts,
+            @Value("${ipo.intake.max-backlog:50000}") long maxBacklog,
+            @Value("${ipo.intake.backlog-refresh-ms:1000}") long backlogRefreshMillis,
+            @Value("${ipo.intake.metadata-ttl-ms:5000}") long metadataTtlMillis,
+            @Value("${ipo.intake.customer-cache-size:100000}") int customerCacheSize) {
+        this.intakeRepository = intakeRepository;
+        this.batchWriter = batchWriter;
+        this.customerRepository = customerRepository;
+        this.ipoRepository = ipoRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.workerCount = Math.max(1, workerCount);
+        this.batchSize = Math.max(1, batchSize);
+        this.pollMillis = Math.max(1, pollMillis);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.maxBacklog = maxBacklog;
+        this.backlogRefreshMillis = backlogRefreshMillis;
+        this.metadataTtlMillis = metadataTtlMillis;
+        this.customers = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CustomerMeta> eldest) {
+                return size() > Math.max(0, customerCacheSize);
+            }
+        };
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::run, "ipo-intake-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        log.info("IPO application intake enabled ({} workers, batch {}, max backlog {})", workerCount, batchSize,
+                maxBacklog);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Validate and queue an application
+     *
+     * @return tracking number and status
+     */
+    public Map<String, Object> submit(IPOApplicationCreateDTO dto) {
+        if (!running) {
+            throw new RuntimeException("IPO application intake is not enabled");
+        }
+        long waiting = currentBacklog();
+        if (waiting >= maxBacklog) {
+            throw new BacklogFullException(waiting);
+        }
+
+        IPO ipo = cachedIpo(dto.getIpoId());
+        if (!ipo.isOpen()) {
+            throw new RuntimeException("IPO is not currently open for applications");
+        }
+        if (dto.getQuantity() < ipo.getMinQuantity()) {
+            throw new RuntimeException("Quantity must be at least " + ipo.getMinQuantity());
+        }
+        if (dto.getQuantity() > ipo.getMaxQuantity()) {
+            throw new RuntimeException("Quantity cannot exceed " + ipo.getMaxQuantity());
+        }
+        CustomerMeta customer = cachedCustomer(dto.getCustomerId());
+        if (!customer.kycApproved()) {
+            throw new RuntimeException("Customer KYC must be APPROVED to apply for IPO");
+        }
+        if (!customer.bankAccountIds().contains(dto.getBankAccountId())) {
+            throw new RuntimeException("Bank account does not belong to this customer");
+        }
+
+        long id;
+        try {
+            id = intakeRepository.enqueue(dto.getCustomerId(), dto.getIpoId(), dto.getBankAccountId(),
+                    dto.getQuantity(), dto.getMakerId());
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("Customer has already applied for this IPO");
+        }
+        backlog.incrementAndGet();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("trackingNumber", trackingNumber(id));
+        result.put("status", IPOApplicationIntakeRepository.QUEUED);
+        return result;
+    }
+
+    /**
+     * Current state of a queued application
+     */
+    public Map<String, Object> getStatus(String trackingNumber) {
+        IntakeRow row = parseTrackingNumber(trackingNumber)
+                .flatMap(intakeRepository::findById)
+                .orElseThrow(() -> new RuntimeException("Unknown tracking number: " + trackingNumber));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("trackingNumber", trackingNumber(row.id()));
+        result.put("status", row.status());
+        result.put("applicationId", row.applicationId());
+        result.put("error", row.error());
+        result.put("customerId", row.customerId());
+        result.put("ipoId", row.ipoId());
+        result.put("quantity", row.quantity());
+        result.put("submittedAt", row.createdAt());
+        result.put("processedAt", row.processedAt());
+        return result;
+    }
+
+    private long currentBacklog() {
+        long now = System.currentTimeMillis();
+        if (now - backlogLoadedAt > backlogRefreshMillis) {
+            backlog.set(intakeRepository.countQueued());
+            backlogLoadedAt = now;
+        }
+        return backlog.get();
+    }
+
+    private IPO cachedIpo(Long ipoId) {
+        long now = System.currentTimeMillis();
+        IpoMeta meta;
+        synchronized (ipos) {
+            meta = ipos.get(ipoId);
+        }
+        if (meta == null || now - meta.loadedAt() > metadataTtlMillis) {
+            IPO ipo = ipoRepository.findById(ipoId)
+                    .orElseThrow(() -> new RuntimeException("IPO not found with ID: " + ipoId));
+            meta = new IpoMeta(ipo, now);
+            synchronized (ipos) {
+                ipos.put(ipoId, meta);
+            }
+        }
+        return meta.ipo();
+    }
+
+    private CustomerMeta cachedCustomer(Long customerId) {
+        long now = System.currentTimeMillis();
+        CustomerMeta meta;
+        synchronized (customers) {
+            meta = customers.get(customerId);
+        }
+        if (meta == null || now - meta.loadedAt() > metadataTtlMillis) {
+            Customer customer = customerRepository.findById(customerId)
+                    .orElseThrow(() -> new RuntimeException("Customer not found with ID: " + customerId));
+            Set<Long> bankAccountIds = new HashSet<>();
+            bankAccountRepository.findByCustomerId(customerId).forEach(a -> bankAccountIds.add(a.getId()));
+            meta = new CustomerMeta("APPROVED".equals(customer.getKycStatus()), bankAccountIds, now);
+            synchronized (customers) {
+                customers.put(customerId, meta);
+            }
+        }
+        return meta;
+    }
+
+    private static String trackingNumber(long id) {
+        return String.format("%s%010d", TRACKING_PREFIX, id);
+    }
+
+    private static java.util.Optional<Long> parseTrackingNumber(String trackingNumber) {
+        if (trackingNumber == null || !trackingNumber.startsWith(TRACKING_PREFIX)) {
+            return java.util.Optional.empty();
+        }
+        try {
+            return java.util.Optional.of(Long.parseLong(trackingNumber.substring(TRACKING_PREFIX.length())));
+        } catch (NumberFormatException e) {
+            return java.util.Optional.empty();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (drain() < batchSize) {
+                    Thread.sleep(pollMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("IPO application intake worker failed", e);
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Process one batch of queued rows
+     *
+     * @return rows claimed
+     */
+    private int drain() {
+        List<Long> claimed = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<IntakeRow> rows = intakeRepository.claim(batchSize);
+                rows.forEach(row -> claimed.add(row.id()));
+                process(rows);
+            });
+            return claimed.size();
+        } catch (RuntimeException e) {
+            if (claimed.isEmpty()) {
+                throw e;
+            }
+            if (claimed.size() == 1) {
+                recordFailure(claimed.get(0), e);
+                return 1;
+            }
+            log.warn("IPO intake batch of {} failed, retrying one by one: {}", claimed.size(), e.getMessage());
+        }
+        for (Long id : claimed) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> intakeRepository.claimById(id)
+                        .ifPresent(row -> process(List.of(row))));
+            } catch (RuntimeException e) {
+                recordFailure(id, e);
+            }
+        }
+        return claimed.size();
+    }
+
+    private void recordFailure(Long id, RuntimeException e) {
+        if (IPOApplicationService.isDuplicateApplication(e)) {
+            // Applied through another path since the batch checked; retrying cannot succeed
+            transactionTemplate.executeWithoutResult(status -> intakeRepository.markRejected(
+                    List.<Object[]>of(new Object[] { IPOApplicationBatchWriter.ALREADY_APPLIED, id })));
+            return;
+        }
+        log.warn("IPO intake request {} failed: {}", id, e.getMessage());
+        transactionTemplate.executeWithoutResult(status -> intakeRepository.markFailed(id, e.toString(), maxAttempts));
+    }
+
+    private void process(List<IntakeRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Map<Long, List<IntakeRow>> byIpo = new LinkedHashMap<>();
+        rows.forEach(row -> byIpo.computeIfAbsent(row.ipoId(), id -> new ArrayList<>()).add(row));
+        Map<Long, IPO> ipoById = new HashMap<>();
+        ipoRepository.findAllById(byIpo.keySet()).forEach(ipo -> ipoById.put(ipo.getId(), ipo));
+
+        // Re-validated by the batch writer against current data; the checks at submit used the cache
+        List<Object[]> accepted = new ArrayList<>();
+        List<Object[]> rejected = new ArrayList<>();
+        byIpo.forEach((ipoId, ipoRows) -> {
+            IPO ipo = ipoById.get(ipoId);
+            if (ipo == null) {
+                ipoRows.forEach(row -> rejected.add(new Object[] { "IPO not found with ID: " + ipoId, row.id() }));
+                return;
+            }
+            List<ApplicationRequest> requests = new ArrayList<>(ipoRows.size());
+            for (IntakeRow row : ipoRows) {
+                requests.add(new ApplicationRequest(row.customerId(), row.bankAccountId(), row.quantity(),
+                        row.makerId(), trackingNumber(row.id()), row.createdAt()));
+            }
+            List<ApplicationResult> results = batchWriter.apply(ipo, requests);
+            for (int i = 0; i < ipoRows.size(); i++) {
+                ApplicationResult result = results.get(i);
+                if (result.applied()) {
+                    accepted.add(new Object[] { result.applicationId(), ipoRows.get(i).id() });
+                } else {
+                    rejected.add(new Object[] { result.error(), ipoRows.get(i).id() });
+                }
+            }
+        });
+        if (!accepted.isEmpty()) {
+            intakeRepository.markAccepted(accepted);
+        }
+        if (!rejected.isEmpty()) {
+            intakeRepository.markRejected(rejected);
+        }
+        log.debug("IPO intake batch: {} accepted, {} rejected", accepted.size(), rejected.size());
+    }
+}
@@ -25,6 +25,9 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class IPOApplicationService {
 
+    static final String CUSTOMER_IPO_INDEX = "uq_ipo_applications_customer_ipo";
+    static final String ALLOTMENT_STARTED = "Allotment of this IPO has started; applications can no longer be approved";
+
     private final IPOApplicationRepository applicationRepository;
     private final CustomerRepository customerRepository;
     private final IPORepository ipoRepository;
@@ -53,11 +56,6 @@ public class IPOApplicationService {
             throw new RuntimeException("IPO is not currently open for applications");
         }
 
-        // Check for duplicate application
-        if (applicationRepository.existsByCustomerIdAndIpoId(dto.getCustomerId(), dto.getIpoId())) {
-            throw new RuntimeException("Customer has already applied for this IPO");
-        }
-
         // Validate quantity
         if (dto.getQuantity() < ipo.getMinQuantity()) {
             throw new RuntimeException("Quantity must be at least " + ipo.getMinQuantity());
@@ -79,26 +77,47 @@ public class IPOApplicationService {
         // Calculate amount
         BigDecimal amount = ipo.getPricePerShare().multiply(BigDecimal.valueOf(dto.getQuantity()));
 
-        // Check and Hold funds
-        BigDecimal availableBalance = bankAccount.getBalance().subtract(bankAccount.getHeldBalance());
-        if (availableBalance.compareTo(amount) < 0) {
-            throw new RuntimeException("Insufficient available balance (Total - Held) in bank account");
+        // Create application first: a second application of the customer for this IPO hits
+        // the unique (customer_id, ipo_id) index here, before any funds are held
+        ApplicationStatus initialStatus = dto.getMakerId() != null ? ApplicationStatus.PENDING_VERIFICATION
+                : ApplicationStatus.PENDING;
+
+        IPOApplication application = IPOApplication.builder()
+                .customer(customer)
+                .ipo(ipo)
+                .bankAccount(bankAccount)
+                .quantity(dto.getQuantity())
+                .amount(amount)
+                .applicationStatus(initialStatus)
+                .paymentStatus(PaymentStatus.PAID) // Fund held successfully
+                .allotmentQuantity(0)
+                .allotmentStatus("PENDING")
+                .appliedAt(LocalDateTime.now())
+                .makerId(dto.getMakerId())
+                .build();
+
+        IPOApplication saved;
+        try {
+            saved = applicationRepository.save(java.util.Objects.requireNonNull(application));
+        } catch (org.springframework.dao.DataIntegrityViolationException e) {
+            if (isDuplicateApplication(e)) {
+                throw new RuntimeException("Customer has already applied for this IPO");
+            }
+            throw e;
         }
 
-        // 1. Update Bank Account: Increase Held Balance
-        bankAccount.setHeldBalance(bankAccount.getHeldBalance().add(amount));
-        bankAccountRepository.save(bankAccount);
+        // 1. Check and Hold funds in one guarded UPDATE (available = Total - Held)
+        if (bankAccountRepository.holdFunds(bankAccount.getId(), amount) == 0) {
+            throw new RuntimeException("Insufficient available balance (Total - Held) in bank account");
+        }
 
-        // 2. Perform Ledger Entry: Customer Ledger -> IPO Fund Hold
+        // 2. Perform Ledger Entry: Customer Ledger -> this IPO's Fund Hold
         com.fintech.finpro.entity.LedgerAccount customerLedger = ledgerService.getOrCreateAccount(
                 customer.getFullName() + " - Ledger",
                 com.fintech.finpro.enums.LedgerAccountType.CUSTOMER_LEDGER,
                 customer.getId());
 
-        com.fintech.finpro.entity.LedgerAccount ipoHoldAcc = ledgerService.getOrCreateAccount(
-                "IPO Fund Hold",
-                com.fintech.finpro.enums.LedgerAccountType.IPO_FUND_HOLD,
-                null);
+        com.fintech.finpro.entity.LedgerAccount ipoHoldAcc = ledgerService.getIpoHoldAccount(ipo);
 
         ledgerService.recordTransaction(
                 customerLedger,
@@ -110,28 +129,22 @@ public class IPOApplicationService {
                 null, // Maker ID (could be customer but usually maker)
                 bankAccount);
 
-        // Create application
-        ApplicationStatus initialStatus = dto.getMakerId() != null ? ApplicationStatus.PENDING_VERIFICATION
-                : ApplicationStatus.PENDING;
-
-        IPOApplication application = IPOApplication.builder()
-                .customer(customer)
-                .ipo(ipo)
-                .bankAccount(bankAccount)
-                .quantity(dto.getQuantity())
-                .amount(amount)
-                .applicationStatus(initialStatus)
-                .paymentStatus(PaymentStatus.PAID) // Fund held successfully
-                .allotmentQuantity(0)
-                .allotmentStatus("PENDING")
-                .appliedAt(LocalDateTime.now())
-                .makerId(dto.getMakerId())
-                .build();
-
-        IPOApplication saved = applicationRepository.save(java.util.Objects.requireNonNull(application));
         return mapToDTO(saved);
     }
 
+    /**
+     * Whether the exception is a violation of the one application per customer and IPO
+     * index (V54)
+     */
+    public static boolean isDuplicateApplication(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().contains(CUSTOMER_IPO_INDEX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Transactional
     public IPOApplicationDTO verifyApplication(Long id, Long checkerId) {
         IPOApplication application = applicationRepository.findById(java.util.Objects.requireNonNull(id))
@@ -221,28 +234,26 @@ public class IPOApplicationService {
         BigDecimal oldAmount = application.getAmount();
         BigDecimal newAmount = ipo.getPricePerShare().multiply(BigDecimal.valueOf(dto.getQuantity()));
 
-        if (newAmount.compareTo(oldAmount) != 0) {
-            CustomerBankAccount bankAccount = application.getBankAccount();
-
-            // Release old hold
-            bankAccount.setHeldBalance(bankAccount.getHeldBalance().subtract(oldAmount));
-
-            // Check if new hold is possible
-            BigDecimal available = bankAccount.getBalance().subtract(bankAccount.getHeldBalance());
-            if (available.compareTo(newAmount) < 0) {
-                // Rollback hold change if insufficient
-                bankAccount.setHeldBalance(bankAccount.getHeldBalance().add(oldAmount));
-                bankAccountRepository.save(bankAccount);
+        CustomerBankAccount bankAccount = application.getBankAccount();
+        if (ApplicationStatus.REJECTED.equals(application.getApplicationStatus())) {
+            // Rejection released the hold and reversed its posting; hold the new amount afresh
+            if (bankAccountRepository.holdFunds(bankAccount.getId(), newAmount) == 0) {
+                throw new RuntimeException("Insufficient available balance for updated quantity");
+            }
+            postHoldChange(application, newAmount,
+                    "IPO Application resubmitted for " + ipo.getCompanyName() + " (" + dto.getQuantity() + " shares)");
+            application.setAmount(newAmount);
+            application.setQuantity(dto.getQuantity());
+        } else if (newAmount.compareTo(oldAmount) != 0) {
+            // Swap the old hold for the new one if the balance without the old hold covers it
+            if (bankAccountRepository.replaceHold(bankAccount.getId(), oldAmount, newAmount) == 0) {
                 throw new RuntimeException("Insufficient available balance for updated quantity");
             }
 
-            // Apply new hold
-            bankAccount.setHeldBalance(bankAccount.getHeldBalance().add(newAmount));
-            bankAccountRepository.save(bankAccount);
-
-            // Ledger Adjustment (Simplified: Record a reversing and then a new one or just
-            // a net adjustment)
-            // For now, let's update application fields
+            // Net adjustment of the IPO's hold account by the difference
+            postHoldChange(application, newAmount.subtract(oldAmount),
+                    "IPO Application updated for " + ipo.getCompanyName() + " (" + application.getQuantity()
+                            + " -> " + dto.getQuantity() + " shares)");
             application.setAmount(newAmount);
             application.setQuantity(dto.getQuantity());
         }
@@ -273,6 +284,9 @@ public class IPOApplicationService {
         if (!ApplicationStatus.PENDING.equals(application.getApplicationStatus())) {
             throw new RuntimeException("Only PENDING applications can be approved");
         }
+        if (ipoRepository.isAllotmentStarted(application.getIpo().getId())) {
+            throw new RuntimeException(ALLOTMENT_STARTED);
+        }
 
         // CASBA Logic: Deduct Charge if applicable
         CustomerBankAccount bankAccount = application.getBankAccount();
@@ -291,14 +305,9 @@ public class IPOApplicationService {
             }
 
             if (casbaCharge.compareTo(BigDecimal.ZERO) > 0) {
-                // Check available balance (excluding held amount)
-                BigDecimal available = bankAccount.getBalance().subtract(bankAccount.getHeldBalance());
-
-                // Deduct if sufficient balance (or force debit logic if desired)
-                if (available.compareTo(casbaCharge) >= 0) {
-                    // Deduct from Actual Balance
-                    bankAccount.setBalance(bankAccount.getBalance().subtract(casbaCharge));
-                    bankAccountRepository.save(bankAccount);
+                // Charge only if the available balance (excluding held amount) covers it; the
+                // account stays locked and the FEE posting below debits its balance
+                if (bankAccountRepository.findCoveredForUpdate(bankAccount.getId(), casbaCharge).isPresent()) {
 
                     // Deduct from Ledger: Customer -> Fee Income (CASBA Charges)
                     com.fintech.finpro.entity.LedgerAccount customerLedger = ledgerService.getOrCreateAccount(
@@ -351,17 +360,44 @@ public class IPOApplicationService {
         // Release holds if rejected
         CustomerBankAccount bankAccount = application.getBankAccount();
         if (bankAccount != null) {
-            bankAccount.setHeldBalance(bankAccount.getHeldBalance().subtract(application.getAmount()));
-            bankAccountRepository.save(bankAccount);
+            if (bankAccountRepository.releaseHold(bankAccount.getId(), application.getAmount()) == 0) {
+                throw new RuntimeException("Held balance of the bank account is below the application amount");
+            }
 
-            // Ledger Reversal (Withdrawal Reversal -> Deposit)
-            // ...
+            // Ledger Reversal: IPO Fund Hold -> Customer Ledger
+            postHoldChange(application, application.getAmount().negate(),
+                    "IPO Application rejected for " + application.getIpo().getCompanyName());
         }
 
         IPOApplication rejected = applicationRepository.save(application);
         return mapToDTO(rejected);
     }
 
+    /**
+     * Post a change of an application's hold on its IPO's hold account: an increase moves
+     * funds Customer Ledger -> IPO Fund Hold (WITHDRAWAL, as on apply), a decrease moves
+     * them back (REVERSAL). Keeps the hold account balance equal to the amount held.
+     */
+    private void postHoldChange(IPOApplication application, BigDecimal change, String particulars) {
+        if (change.signum() == 0) {
+            return;
+        }
+        com.fintech.finpro.entity.LedgerAccount customerLedger = ledgerService.getOrCreateAccount(
+                application.getCustomer().getFullName() + " - Ledger",
+                com.fintech.finpro.enums.LedgerAccountType.CUSTOMER_LEDGER,
+                application.getCustomer().getId());
+        com.fintech.finpro.entity.LedgerAccount ipoHoldAcc = ledgerService.getIpoHoldAccount(application.getIpo());
+        if (change.signum() > 0) {
+            ledgerService.recordTransaction(customerLedger, ipoHoldAcc, change, particulars,
+                    com.fintech.finpro.enums.LedgerTransactionType.WITHDRAWAL, null, null,
+                    application.getBankAccount());
+        } else {
+            ledgerService.recordTransaction(ipoHoldAcc, customerLedger, change.negate(), particulars,
+                    com.fintech.finpro.enums.LedgerTransactionType.REVERSAL, null, null,
+                    application.getBankAccount());
+        }
+    }
+
     @Transactional
     public IPOApplicationDTO updatePaymentStatus(Long id, PaymentStatus paymentStatus) {
         IPOApplication application = applicationRepository.findById(java.util.Objects.requireNonNull(id))
@@ -399,24 +435,18 @@ public class IPOApplicationService {
 
         if (bankAccount != null) {
             // 1. Release Held Amount (Release ALL held amount first)
-            bankAccount.setHeldBalance(bankAccount.getHeldBalance().subtract(totalAppliedAmount));
-
-            // 2. Deduct Allotted Amount from Actual Balance (if allotted > 0)
-            if (allottedAmount.compareTo(BigDecimal.ZERO) > 0) {
-                bankAccount.setBalance(bankAccount.getBalance().subtract(allottedAmount));
+            if (bankAccountRepository.releaseHold(bankAccount.getId(), totalAppliedAmount) == 0) {
+                throw new RuntimeException("Held balance of the bank account is below the application amount");
             }
-            // Refund is automatic because we only subtract `allottedAmount` from balance.
+
+            // 2. The ALLOTMENT leg below deducts the allotted amount from the balance.
+            // Refund is automatic because only `allottedAmount` is deducted.
             // The `totalAppliedAmount` was only HELD, not deducted.
             // So if we release HELD and deduct ALLOTTED, the REFUND remains in Balance.
-
-            bankAccountRepository.save(bankAccount);
         }
 
         // Ledger Settlement
-        com.fintech.finpro.entity.LedgerAccount ipoHoldAcc = ledgerService.getOrCreateAccount(
-                "IPO Fund Hold",
-                com.fintech.finpro.enums.LedgerAccountType.IPO_FUND_HOLD,
-                null);
+        com.fintech.finpro.entity.LedgerAccount ipoHoldAcc = ledgerService.getIpoHoldAccount(application.getIpo());
 
         com.fintech.finpro.entity.LedgerAccount customerLedger = ledgerService.getOrCreateAccount(
                 application.getCustomer().getFullName() + " - Ledger",
@@ -428,17 +458,19 @@ public class IPOApplicationService {
                 com.fintech.finpro.enums.LedgerAccountType.CORE_CAPITAL,
                 null);
 
+        // Allotment and refund legs are written as one journal
+        List<LedgerPosting> legs = new java.util.ArrayList<>(2);
         if (allottedQuantity > 0) {
             // Transfer Allotted Amount: IPO Hold -> Core Capital (Realizing Revenue/Equity)
-            ledgerService.recordTransaction(
-                    ipoHoldAcc,
-                    coreCapitalAcc,
-                    allottedAmount,
-                    "IPO Allotment: " + application.getIpo().getCompanyName() + " (" + allottedQuantity + " shares)",
-                    com.fintech.finpro.enums.LedgerTransactionType.ALLOTMENT,
-                    null,
-                    null,
-                    bankAccount); // Linking bank account for reference
+            legs.add(LedgerPosting.builder()
+                    .debitAccount(ipoHoldAcc)
+                    .creditAccount(coreCapitalAcc)
+                    .amount(allottedAmount)
+                    .particulars("IPO Allotment: " + application.getIpo().getCompanyName() + " (" + allottedQuantity
+                            + " shares)")
+                    .type(com.fintech.finpro.enums.LedgerTransactionType.ALLOTMENT)
+                    .bankAccount(bankAccount) // Linking bank account for reference
+                    .build());
 
             // --- PORTFOLIO UPDATE START ---
             // Check if portfolio already exists for this Scrip
@@ -481,15 +513,19 @@ public class IPOApplicationService {
 
         if (refundAmount.compareTo(BigDecimal.ZERO) > 0) {
             // Transfer Refund Amount: IPO Hold -> Customer Ledger (Unblock logic)
-            ledgerService.recordTransaction(
-                    ipoHoldAcc,
-                    customerLedger,
-                    refundAmount,
-                    "IPO Refund: " + application.getIpo().getCompanyName(),
-                    com.fintech.finpro.enums.LedgerTransactionType.REFUND,
-                    null,
-                    null,
-                    bankAccount);
+            legs.add(LedgerPosting.builder()
+                    .debitAccount(ipoHoldAcc)
+                    .creditAccount(customerLedger)
+                    .amount(refundAmount)
+                    .particulars("IPO Refund: " + application.getIpo().getCompanyName())
+                    .type(com.fintech.finpro.enums.LedgerTransactionType.REFUND)
+                    .bankAccount(bankAccount)
+                    .build());
+        }
+
+        if (!legs.isEmpty()) {
+            ledgerService.recordJournal("IPO_ALLOTMENT", "IPO-APP-" + application.getId(),
+                    "IPO Allotment: " + application.getIpo().getCompanyName(), null, legs);
         }
 
         IPOApplication allotted = applicationRepository.save(application);
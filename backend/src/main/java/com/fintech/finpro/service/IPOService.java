@@ -4,6 +4,7 @@ import com.fintech.finpro.dto.IPOCreateDTO;
 import com.fintech.finpro.dto.IPODTO;
 import com.fintech.finpro.entity.IPO;
 import com.fintech.finpro.enums.IPOStatus;
+import com.fintech.finpro.repository.IPOApplicantRepository;
 import com.fintech.finpro.repository.IPORepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -19,15 +20,15 @@ public class IPOService {
 
     private final IPORepository ipoRepository;
     private final com.fintech.finpro.repository.CustomerPortfolioRepository customerPortfolioRepository;
+    private final LedgerService ledgerService;
+    private final IPOAllotmentEngine allotmentEngine;
+    private final IPOAllotmentPlanner allotmentPlanner;
+    private final IPOApplicantRepository applicantRepository;
 
     @org.springframework.context.annotation.Lazy
     @org.springframework.beans.factory.annotation.Autowired
     private com.fintech.finpro.repository.IPOApplicationRepository applicationRepository;
 
-    @org.springframework.context.annotation.Lazy
-    @org.springframework.beans.factory.annotation.Autowired
-    private com.fintech.finpro.service.IPOApplicationService applicationService;
-
     @Transactional
     public IPODTO createIPO(IPOCreateDTO dto) {
         // Validate dates
@@ -84,6 +85,16 @@ public class IPOService {
         return mapToDTO(ipo);
     }
 
+    /**
+     * Funds on hold for an IPO's open applications, read from its hold account balance
+     */
+    @Transactional(readOnly = true)
+    public java.util.Map<String, Object> getHeldAmount(Long id) {
+        IPO ipo = ipoRepository.findById(java.util.Objects.requireNonNull(id))
+                .orElseThrow(() -> new RuntimeException("IPO not found with ID: " + id));
+        return java.util.Map.of("ipoId", ipo.getId(), "heldAmount", ledgerService.getIpoHeldAmount(ipo.getId()));
+    }
+
     @Transactional(readOnly = true)
     public List<IPODTO> getAllIPOs() {
         return ipoRepository.findAll().stream()
@@ -225,8 +236,13 @@ public class IPOService {
         return ipo;
     }
 
-    @Transactional
-    public IPODTO processAllotment(Long ipoId) {
+    /**
+     * Draw the allotment (see AllotmentLottery) and settle every APPROVED application in
+     * chunks (see IPOAllotmentEngine). The IPO moves to ALLOTTED once no APPROVED
+     * application is left; otherwise it stays CLOSED and the run can be repeated for the
+     * failed applications.
+     */
+    public java.util.Map<String, Object> processAllotment(Long ipoId) {
         IPO ipo = ipoRepository.findById(java.util.Objects.requireNonNull(ipoId))
                 .orElseThrow(() -> new RuntimeException("IPO not found with ID: " + ipoId));
 
@@ -234,24 +250,83 @@ public class IPOService {
             throw new RuntimeException("IPO must be CLOSED to process allotment");
         }
 
-        // Fetch all APPROVED applications using injected repository
-        List<com.fintech.finpro.entity.IPOApplication> approvedApps = applicationRepository
-                .findByIpoIdAndApplicationStatus(ipoId, com.fintech.finpro.enums.ApplicationStatus.APPROVED);
-
-        // Process each application
-        // For MVP: Full Allotment (Allot requested quantity)
-        // In real world: Logic for oversubscription
-        for (com.fintech.finpro.entity.IPOApplication app : approvedApps) {
-            try {
-                applicationService.allotShares(app.getId(), app.getQuantity());
-            } catch (Exception e) {
-                System.err.println("Failed to allot for application " + app.getId() + ": " + e.getMessage());
-                // Continue with others
-            }
+        // The first run closes approvals, then draws once (minimum-lot lottery, then pro-rata,
+        // reusing a simulated plan) and stores the draw; every run settles from the stored plan.
+        // The draw and the report use the seed stored on the IPO, whichever run fixed it.
+        IPOApplicantRepository.AllotmentStart start = applicantRepository.startAllotment(ipoId,
+                new java.security.SecureRandom().nextLong());
+        ipo.setAllotmentSeed(start.seed());
+        ipo.setAllotmentStartedAt(start.startedAt());
+        IPOApplicantRepository.StoredPlan plan = applicantRepository.findPlan(ipoId);
+        if (plan.size() == 0) {
+            IPOAllotmentPlanner.AllotmentPlan drawn = allotmentPlanner.plan(ipo);
+            // Stored only if no concurrent first run stored its plan first; settle from whichever is stored
+            applicantRepository.savePlan(ipoId, drawn.applicationIds(), drawn.allotted());
+            plan = applicantRepository.findPlan(ipoId);
+        }
+        IPOApplicantRepository.StoredPlan settled = plan;
+        // Applications missing from the plan get -1 and stay APPROVED as failures
+        java.util.Map<String, Object> report = allotmentEngine.allot(ipo,
+                application -> settled.allottedFor(application.getId()));
+
+        long remaining = applicationRepository.countByIpoIdAndApplicationStatus(ipoId,
+                com.fintech.finpro.enums.ApplicationStatus.APPROVED);
+        if (remaining == 0) {
+            ipo.setStatus(IPOStatus.ALLOTTED);
+            ipo = ipoRepository.save(ipo);
+        }
+        report.put("applicants", plan.size());
+        report.put("seed", ipo.getAllotmentSeed());
+        report.put("allotmentStartedAt", ipo.getAllotmentStartedAt());
+        report.put("remaining", remaining);
+        report.put("ipo", mapToDTO(ipo));
+        return report;
+    }
+
+    /**
+     * Outcome of allotting the IPO now, without writing anything but the seed: applicants
+     * allotted, shares and refund totals, and refunds per bank for CASBA reconciliation.
+     * The plan is cached, so processAllotment reuses it while the applicant set is unchanged.
+     * After a run has stored its plan, the stored plan is reported instead of a new draw.
+     */
+    public java.util.Map<String, Object> simulateAllotment(Long ipoId) {
+        IPO ipo = ipoRepository.findById(java.util.Objects.requireNonNull(ipoId))
+                .orElseThrow(() -> new RuntimeException("IPO not found with ID: " + ipoId));
+
+        if (ipo.getStatus() != IPOStatus.CLOSED) {
+            throw new RuntimeException("IPO must be CLOSED to simulate allotment");
         }
 
-        ipo.setStatus(IPOStatus.ALLOTTED);
-        return mapToDTO(ipoRepository.save(ipo));
+        // Once the allotment has started, runs settle only from the stored plan, so that is
+        // what the simulation shows; before that, or until the first run stores it, it draws
+        IPOAllotmentPlanner.AllotmentPlan plan = null;
+        if (ipo.getAllotmentStartedAt() != null && ipo.getAllotmentSeed() != null) {
+            plan = allotmentPlanner.storedPlan(ipo);
+        }
+        boolean stored = plan != null && plan.applicationIds().length > 0;
+        if (!stored) {
+            plan = allotmentPlanner.plan(withAllotmentSeed(ipo));
+        }
+        java.util.Map<String, Object> result = new java.util.LinkedHashMap<>();
+        result.put("ipoId", ipo.getId());
+        result.put("storedPlan", stored);
+        result.put("seed", plan.seed());
+        result.put("applicantSetVersion", plan.version());
+        result.put("drawnAt", plan.drawnAt());
+        result.putAll(plan.statistics());
+        return result;
+    }
+
+    /**
+     * The seed is fixed by the first simulation or run, so later draws pick the same winners.
+     * Set with a single guarded UPDATE, never a save of the unlocked entity.
+     */
+    private IPO withAllotmentSeed(IPO ipo) {
+        if (ipo.getAllotmentSeed() == null) {
+            ipo.setAllotmentSeed(applicantRepository.fixAllotmentSeed(ipo.getId(),
+                    new java.security.SecureRandom().nextLong()));
+        }
+        return ipo;
     }
 
     @Transactional
@@ -0,0 +1,109 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.entity.LedgerAccount;
+import com.fintech.finpro.enums.LedgerAccountType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps ledger account keys to account ids so getOrCreateAccount can go straight to a
+ * primary key lookup.
+ *
+ * System accounts (no owner) are keyed by (type, name): there are several FEE_INCOME
+ * and TAX_PAYABLE accounts without an owner. They are few and never evicted.
+ * Owned accounts (customer, investor and capital ledgers) are keyed by (type, ownerId)
+ * in a bounded LRU.
+ *
+ * Only ids are cached, never entities, so balances are always read from the database.
+ * A cached id whose account has been deleted is detected by the caller and evicted.
+ */
+@Component
+public class LedgerAccountCache {
+
+    private record SystemKey(LedgerAccountType type, String name) {
+    }
+
+    private record OwnerKey(LedgerAccountType type, Long ownerId) {
+    }
+
+    private final Map<SystemKey, Long> systemAccounts = new ConcurrentHashMap<>();
+    private final Map<OwnerKey, Long> ownedAccounts;
+
+    public LedgerAccountCache(@Value("${ledger.account-cache.max-owned-entries:10000}") int maxOwnedEntries) {
+        this.ownedAccounts = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<OwnerKey, Long> eldest) {
+                return size() > maxOwnedEntries;
+            }
+        };
+    }
+
+    public Long get(LedgerAccountType type, Long ownerId, String name) {
+        if (ownerId == null) {
+            return systemAccounts.get(new SystemKey(type, name));
+        }
+        synchronized (ownedAccounts) {
+            return ownedAccounts.get(new OwnerKey(type, ownerId));
+        }
+    }
+
+    public void put(LedgerAccountType type, Long ownerId, String name, Long accountId) {
+        if (accountId == null) {
+            return;
+        }
+        if (ownerId == null) {
+            systemAccounts.put(new SystemKey(type, name), accountId);
+            return;
+        }
+        synchronized (ownedAccounts) {
+            ownedAccounts.put(new OwnerKey(type, ownerId), accountId);
+        }
+    }
+
+    public void remove(LedgerAccountType type, Long ownerId, String name) {
+        if (ownerId == null) {
+            systemAccounts.remove(new SystemKey(type, name));
+            return;
+        }
+        synchronized (ownedAccounts) {
+            ownedAccounts.remove(new OwnerKey(type, ownerId));
+        }
+    }
+
+    /**
+     * Drop every entry pointing at the given account. Call when a ledger account is deleted.
+     */
+    public void evict(LedgerAccount account) {
+        Long id = account.getId();
+        systemAccounts.values().removeIf(id::equals);
+        synchronized (ownedAccounts) {
+            ownedAccounts.values().removeIf(id::equals);
+        }
+    }
+
+    /**
+     * Drop all owned accounts of the given owner, whatever their type.
+     */
+    public void evictOwner(Long ownerId) {
+        synchronized (ownedAccounts) {
+            ownedAccounts.keySet().removeIf(key -> key.ownerId().equals(ownerId));
+        }
+    }
+
+    public void clear() {
+        systemAccounts.clear();
+        synchronized (ownedAccounts) {
+            ownedAccounts.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (ownedAccounts) {
+            return systemAccounts.size() + ownedAccounts.size();
+        }
+    }
+}
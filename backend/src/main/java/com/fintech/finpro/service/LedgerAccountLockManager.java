@@ -0,0 +1,210 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.entity.LedgerAccount;
+import com.fintech.finpro.repository.LedgerPostingRepository;
+import com.fintech.finpro.util.StripedLock;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes balance updates on ledger accounts.
+ *
+ * Modes (ledger.posting.lock-mode):
+ * DATABASE - SELECT ... FOR UPDATE on each account row, safe across backend instances
+ * STRIPED - in-JVM striped locks keyed by account id, for single-instance deployments
+ * NONE - legacy behaviour, no locking
+ *
+ * The accounts of one call are locked in ascending id order and the locks are held until
+ * the surrounding transaction completes, so postings on disjoint accounts run in parallel
+ * and postings on the same account queue instead of overwriting each other's balance.
+ *
+ * A later posting in the same transaction can need accounts below ones already locked.
+ * DATABASE mode leaves that to the database's deadlock detection. STRIPED mode takes such a
+ * stripe only if it is free and otherwise fails the posting at once, since waiting for it
+ * could deadlock with a transaction locking in the opposite order; it suits transactions
+ * with a single posting (or a single lockBalances batch) best.
+ */
+@Component
+@Slf4j
+public class LedgerAccountLockManager {
+
+    public enum Mode {
+        DATABASE,
+        STRIPED,
+        NONE
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final LedgerPostingRepository postingRepository;
+    private final Mode mode;
+    private final StripedLock stripedLock;
+    private final long timeoutMillis;
+
+    public LedgerAccountLockManager(
+            LedgerPostingRepository postingRepository,
+            @Value("${ledger.posting.lock-mode:DATABASE}") Mode mode,
+            @Value("${ledger.posting.lock-stripes:1024}") int stripes,
+            @Value("${ledger.posting.lock-timeout-ms:10000}") long timeoutMillis) {
+        this.postingRepository = postingRepository;
+        this.mode = mode;
+        this.stripedLock = new StripedLock(stripes);
+        this.timeoutMillis = timeoutMillis;
+        log.info("Ledger posting lock mode: {}", mode);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Lock the given accounts for a balance update and reload their balances.
+     * Must be called inside a transaction.
+     *
+     * @return the managed, up-to-date instance for each account id
+     */
+    public Map<Long, LedgerAccount> lockForPosting(LedgerAccount... accounts) {
+        // Ascending id order is the global acquisition order
+        TreeMap<Long, LedgerAccount> ordered = new TreeMap<>();
+        for (LedgerAccount account : accounts) {
+            if (account.getId() == null) {
+                throw new RuntimeException("Ledger account must be saved before posting");
+            }
+            ordered.putIfAbsent(account.getId(), account);
+        }
+
+        if (mode == Mode.NONE) {
+            return ordered;
+        }
+
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new RuntimeException("Ledger postings must run inside a transaction");
+        }
+
+        // Push pending balance changes of earlier postings in this transaction to the
+        // database before the rows are reloaded below
+        entityManager.flush();
+
+        if (mode == Mode.STRIPED) {
+            acquireStripes(ordered.keySet().stream().mapToLong(Long::longValue).toArray());
+        }
+
+        LockModeType lockMode = mode == Mode.DATABASE ? LockModeType.PESSIMISTIC_WRITE : LockModeType.NONE;
+        Map<Long, LedgerAccount> locked = new LinkedHashMap<>();
+        for (Map.Entry<Long, LedgerAccount> entry : ordered.entrySet()) {
+            LedgerAccount account = entry.getValue();
+            if (entityManager.contains(account)) {
+                entityManager.refresh(account, lockMode);
+            } else {
+                account = entityManager.find(LedgerAccount.class, entry.getKey(), lockMode);
+                if (account == null) {
+                    throw new RuntimeException("Ledger account not found: " + entry.getKey());
+                }
+            }
+            locked.put(entry.getKey(), account);
+        }
+        return locked;
+    }
+
+    /**
+     * Lock many accounts at once for a batch posting and read their balances with a
+     * single query instead of one lookup per account. Must be called inside a transaction.
+     *
+     * @return current balance per account id, in ascending id order
+     */
+    public Map<Long, BigDecimal> lockBalances(Collection<Long> accountIds) {
+        long[] ids = accountIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray();
+
+        if (mode != Mode.NONE && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new RuntimeException("Ledger postings must run inside a transaction");
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.flush();
+        }
+        if (mode == Mode.STRIPED) {
+            acquireStripes(ids);
+        }
+
+        Map<Long, BigDecimal> balances = postingRepository.findBalances(ids, mode == Mode.DATABASE);
+        if (balances.size() != ids.length) {
+            for (long id : ids) {
+                if (!balances.containsKey(id)) {
+                    throw new RuntimeException("Ledger account not found: " + id);
+                }
+            }
+        }
+        return balances;
+    }
+
+    /**
+     * After balances were written with SQL, bring the given account instances that are
+     * managed by the current persistence context up to date without scheduling another
+     * UPDATE: Hibernate takes the current state as the clean snapshot when an entity is
+     * switched back from read-only.
+     */
+    public void syncManagedBalances(Collection<LedgerAccount> accounts, Map<Long, BigDecimal> balances) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        for (LedgerAccount account : accounts) {
+            BigDecimal balance = balances.get(account.getId());
+            // Uninitialized proxies (e.g. shard rows picked by the router) hold no balance yet
+            if (balance == null || !org.hibernate.Hibernate.isInitialized(account) || !session.contains(account)) {
+                continue;
+            }
+            session.setReadOnly(account, true);
+            account.setBalance(balance);
+            session.setReadOnly(account, false);
+        }
+    }
+
+    private void acquireStripes(long[] accountIds) {
+        HeldStripes held = (HeldStripes) TransactionSynchronizationManager.getResource(this);
+        if (held == null) {
+            HeldStripes created = new HeldStripes();
+            // Hold the stripes until commit/rollback so no other posting reads a balance
+            // that has been changed but not yet committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LedgerAccountLockManager.this);
+                    stripedLock.unlockAll(created.locks);
+                }
+            });
+            TransactionSynchronizationManager.bindResource(this, created);
+            held = created;
+        }
+
+        held.locks.addAll(stripedLock.lockAll(accountIds, held.highest, timeoutMillis, TimeUnit.MILLISECONDS));
+        for (long id : accountIds) {
+            held.highest = Math.max(held.highest, stripedLock.indexFor(id));
+        }
+    }
+
+    /**
+     * Stripes held by the current transaction and the highest stripe index among them
+     */
+    private static final class HeldStripes {
+        private final List<ReentrantLock> locks = new ArrayList<>();
+        private int highest = -1;
+    }
+}
@@ -0,0 +1,169 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.entity.LedgerAccount;
+import com.fintech.finpro.entity.LedgerTransaction;
+import com.fintech.finpro.enums.LedgerTransactionType;
+import com.fintech.finpro.repository.LedgerPostingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+/**
+ * Writes a list of postings set-based: one locking read of all balances, one UPDATE
+ * per account with the netted delta, batched inserts of the transaction rows and one
+ * outbox event.
+ * Used by LedgerService.recordTransactions; must run inside a transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class LedgerBatchWriter {
+
+    private final LedgerAccountLockManager lockManager;
+    private final LedgerPostingRepository postingRepository;
+    private final LedgerShardRouter shardRouter;
+    private final TransactionIdAllocator transactionIdAllocator;
+    private final LedgerOutbox outbox;
+
+    /**
+     * Check a posting before it is written
+     *
+     * @param position 1-based position used in the error message
+     */
+    public static void validate(LedgerPosting posting, int position) {
+        if (posting.getAmount() == null || posting.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new RuntimeException("Posting " + position + ": transaction amount must be positive");
+        }
+        if (posting.getType() == null) {
+            throw new RuntimeException("Posting " + position + ": transaction type is required");
+        }
+        if (posting.getDebitAccount() == null || posting.getDebitAccount().getId() == null
+                || posting.getCreditAccount() == null || posting.getCreditAccount().getId() == null) {
+            throw new RuntimeException("Posting " + position + ": ledger accounts must be saved before posting");
+        }
+    }
+
+    /**
+     * Post all entries; every posting is validated before anything is written
+     *
+     * @return the inserted rows (with id and reference), in posting order
+     */
+    public List<LedgerTransaction> write(List<LedgerPosting> postings) {
+        return write(postings, null);
+    }
+
+    /**
+     * Post all entries as the legs of the given journal (null for none)
+     */
+    public List<LedgerTransaction> write(List<LedgerPosting> postings, Long journalId) {
+        List<LedgerTransaction> rows = writeRows(postings, i -> journalId);
+        outbox.append(journalId, rows);
+        return rows;
+    }
+
+    /**
+     * Post the legs of several journals at once; journalIds[i] is the journal of posting i.
+     * One outbox event is recorded per journal.
+     */
+    public List<LedgerTransaction> writeJournals(List<LedgerPosting> postings, long[] journalIds) {
+        if (journalIds.length != postings.size()) {
+            throw new RuntimeException("Every posting needs a journal id");
+        }
+        List<LedgerTransaction> rows = writeRows(postings, i -> journalIds[i]);
+        Map<Long, List<LedgerTransaction>> byJournal = new LinkedHashMap<>();
+        for (LedgerTransaction row : rows) {
+            byJournal.computeIfAbsent(row.getJournalId(), id -> new ArrayList<>()).add(row);
+        }
+        outbox.appendJournals(byJournal);
+        return rows;
+    }
+
+    private List<LedgerTransaction> writeRows(List<LedgerPosting> postings, IntFunction<Long> journalOf) {
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        Map<Long, LedgerAccount> accounts = new HashMap<>();
+        LedgerAccount[] debits = new LedgerAccount[postings.size()];
+        LedgerAccount[] credits = new LedgerAccount[postings.size()];
+        for (int i = 0; i < postings.size(); i++) {
+            LedgerPosting posting = postings.get(i);
+            validate(posting, i + 1);
+            debits[i] = shardRouter.route(posting.getDebitAccount());
+            credits[i] = shardRouter.route(posting.getCreditAccount());
+            deltas.merge(debits[i].getId(), posting.getAmount().negate(), BigDecimal::add);
+            deltas.merge(credits[i].getId(), posting.getAmount(), BigDecimal::add);
+            accounts.putIfAbsent(debits[i].getId(), debits[i]);
+            accounts.putIfAbsent(credits[i].getId(), credits[i]);
+        }
+
+        // One locking read for every account, then one UPDATE per account
+        Map<Long, BigDecimal> balances = lockManager.lockBalances(deltas.keySet());
+        Map<Long, BigDecimal> updated = new LinkedHashMap<>();
+        deltas.forEach((id, delta) -> {
+            if (delta.signum() != 0) {
+                updated.put(id, balances.get(id).add(delta));
+            }
+        });
+        LocalDateTime now = LocalDateTime.now();
+        postingRepository.updateBalances(updated, now);
+        lockManager.syncManagedBalances(accounts.values(), updated);
+
+        long[] ids = postingRepository.allocateTransactionIds(postings.size());
+        List<LedgerTransaction> rows = new ArrayList<>(postings.size());
+        Map<Long, BigDecimal> bankDeltas = new HashMap<>();
+        for (int i = 0; i < postings.size(); i++) {
+            LedgerPosting posting = postings.get(i);
+            if (posting.getBankAccount() != null) {
+                BigDecimal delta = bankDelta(posting.getType(), posting.getAmount());
+                if (delta.signum() != 0) {
+                    bankDeltas.merge(posting.getBankAccount().getId(), delta, BigDecimal::add);
+                }
+            }
+
+            LedgerTransaction row = LedgerTransaction.builder()
+                    .debitAccount(debits[i])
+                    .creditAccount(credits[i])
+                    .amount(posting.getAmount())
+                    .particulars(posting.getParticulars())
+                    .transactionType(posting.getType())
+                    .referenceId(transactionIdAllocator.nextTransactionId())
+                    .makerId(posting.getMakerId())
+                    .status("COMPLETED")
+                    .customerBankAccount(posting.getBankAccount())
+                    .journalId(journalOf.apply(i))
+                    .build();
+            row.setId(ids[i]);
+            row.setCreatedAt(now);
+            row.setUpdatedAt(now);
+            rows.add(row);
+        }
+        postingRepository.addToBankBalances(bankDeltas, now);
+        postingRepository.insertTransactions(rows);
+        return rows;
+    }
+
+    /**
+     * Customer bank account side of a posting, by transaction type: the signed change of
+     * the bank balance. Applied with a relative UPDATE (not on the entity), so concurrent
+     * postings and guarded hold updates on the same account do not overwrite each other.
+     */
+    static BigDecimal bankDelta(LedgerTransactionType type, BigDecimal amount) {
+        // For DEPOSIT type, add to balance
+        // For WITHDRAWAL/FEE/TRANSFER type, subtract from balance
+        if (type == LedgerTransactionType.DEPOSIT || type == LedgerTransactionType.REVERSAL
+                || type == LedgerTransactionType.SETTLEMENT) {
+            return amount;
+        } else if (type == LedgerTransactionType.WITHDRAWAL || type == LedgerTransactionType.FEE
+                || type == LedgerTransactionType.TRANSFER
+                || type == LedgerTransactionType.ALLOTMENT) {
+            return amount.negate();
+        }
+        return BigDecimal.ZERO;
+    }
+}
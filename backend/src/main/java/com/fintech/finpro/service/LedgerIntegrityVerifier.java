@@ -0,0 +1,164 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.repository.LedgerIntegrityRepository;
+import com.fintech.finpro.repository.LedgerIntegrityRepository.AccountTotals;
+import com.fintech.finpro.repository.LedgerIntegrityRepository.BalanceDrift;
+import com.fintech.finpro.repository.LedgerPostingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Trial balance and ledger integrity check: recomputes every ledger account balance
+ * from ledger_transactions and reports accounts whose stored balance has drifted.
+ *
+ * The account id space is split into chunks of ledger.verify.chunk-size ids, each
+ * checked by one query on its own virtual thread; a semaphore keeps at most
+ * ledger.verify.parallelism queries (connections) in flight. In repair mode each drifted
+ * account is locked, re-checked and set to the balance its transactions imply.
+ */
+@Service
+@Slf4j
+public class LedgerIntegrityVerifier {
+
+    private static final int MAX_REPORTED_DRIFTS = 1000;
+
+    private final LedgerIntegrityRepository integrityRepository;
+    private final LedgerPostingRepository postingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int parallelism;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public LedgerIntegrityVerifier(LedgerIntegrityRepository integrityRepository,
+            LedgerPostingRepository postingRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${ledger.verify.chunk-size:5000}") int chunkSize,
+            @Value("${ledger.verify.parallelism:4}") int parallelism) {
+        this.integrityRepository = integrityRepository;
+        this.postingRepository = postingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Check every ledger account
+     *
+     * @param repair rewrite drifted balances from the transactions
+     * @return report with totals and the drifted accounts (first 1000)
+     */
+    public Map<String, Object> verify(boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Ledger verification is already running");
+        }
+        try {
+            long started = System.currentTimeMillis();
+            AccountTotals totals = integrityRepository.findAccountTotals();
+            List<BalanceDrift> drifts = findAllDrift(totals);
+            int repaired = repair && !drifts.isEmpty() ? repair(drifts) : 0;
+
+            BigDecimal totalDifference = drifts.stream().map(BalanceDrift::difference)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            List<Map<String, Object>> reported = new ArrayList<>();
+            for (BalanceDrift drift : drifts.subList(0, Math.min(drifts.size(), MAX_REPORTED_DRIFTS))) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("accountId", drift.accountId());
+                row.put("accountName", drift.accountName());
+                row.put("storedBalance", drift.storedBalance());
+                row.put("journalBalance", drift.journalBalance());
+                row.put("difference", drift.difference());
+                reported.add(row);
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("accountsChecked", totals.accounts());
+            // Every posting debits and credits the same amount, so stored balances should sum to zero
+            result.put("trialBalance", totals.balanceTotal());
+            result.put("driftedAccounts", drifts.size());
+            result.put("totalDifference", totalDifference);
+            result.put("repaired", repaired);
+            result.put("elapsedMs", System.currentTimeMillis() - started);
+            result.put("drifts", reported);
+            log.info("Ledger verification: {} accounts, {} drifted, {} repaired in {} ms", totals.accounts(),
+                    drifts.size(), repaired, result.get("elapsedMs"));
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private List<BalanceDrift> findAllDrift(AccountTotals totals) {
+        List<BalanceDrift> drifts = new ArrayList<>();
+        if (totals.accounts() == 0) {
+            return drifts;
+        }
+        Semaphore permits = new Semaphore(parallelism);
+        List<Future<List<BalanceDrift>>> chunks = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long from = totals.minId(); from <= totals.maxId(); from += chunkSize) {
+                long fromId = from;
+                long toId = Math.min(totals.maxId() + 1, from + chunkSize);
+                chunks.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return integrityRepository.findDrift(fromId, toId);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (Future<List<BalanceDrift>> chunk : chunks) {
+                drifts.addAll(chunk.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Ledger verification interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Ledger verification failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        drifts.sort(Comparator.comparingLong(BalanceDrift::accountId));
+        return drifts;
+    }
+
+    /**
+     * Lock the drifted accounts, re-check them (a posting may have committed since the
+     * scan) and set the balances their transactions imply
+     */
+    private int repair(List<BalanceDrift> drifts) {
+        int repaired = 0;
+        for (int from = 0; from < drifts.size(); from += chunkSize) {
+            List<BalanceDrift> chunk = drifts.subList(from, Math.min(drifts.size(), from + chunkSize));
+            long[] ids = chunk.stream().mapToLong(BalanceDrift::accountId).toArray();
+            Integer fixed = transactionTemplate.execute(status -> {
+                postingRepository.findBalances(ids, true);
+                Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+                for (BalanceDrift drift : integrityRepository.findDrift(ids)) {
+                    log.warn("Repairing ledger account {} ({}): stored {} -> {}", drift.accountId(),
+                            drift.accountName(), drift.storedBalance(), drift.journalBalance());
+                    balances.put(drift.accountId(), drift.journalBalance());
+                }
+                postingRepository.updateBalances(balances, LocalDateTime.now());
+                return balances.size();
+            });
+            repaired += fixed != null ? fixed : 0;
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,19 @@
+package com.fintech.finpro.service;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One journal for LedgerService.recordJournals, with the same arguments as a single
+ * recordJournal call
+ */
+@Getter
+@Builder
+public class LedgerJournalRequest {
+
+    private final String reference;
+    private final String description;
+    private final List<LedgerPosting> legs;
+}
@@ -0,0 +1,94 @@
+package com.fintech.finpro.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.finpro.entity.LedgerTransaction;
+import com.fintech.finpro.repository.LedgerOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the outbox row for a posting call, in the caller's transaction, and reads it back
+ * as a LedgerPostedEvent for the relay. Nothing is written unless ledger.outbox.enabled is
+ * on, so postings do not pay for the insert while no subscriber needs the events.
+ */
+@Component
+public class LedgerOutbox {
+
+    private static final TypeReference<List<LedgerPostedEvent.Entry>> ENTRIES = new TypeReference<>() {
+    };
+
+    private final LedgerOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public LedgerOutbox(LedgerOutboxRepository outboxRepository,
+            ObjectMapper objectMapper,
+            @Value("${ledger.outbox.enabled:false}") boolean enabled) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Record one event for the given rows (which must have their ids)
+     *
+     * @param journalId journal the rows belong to, or null
+     */
+    public void append(Long journalId, List<LedgerTransaction> rows) {
+        if (!enabled) {
+            return;
+        }
+        Object[] event = toRow(journalId, rows);
+        outboxRepository.append((String) event[0], journalId, rows.size(), (BigDecimal) event[3], (String) event[4]);
+    }
+
+    /**
+     * Record one JOURNAL_POSTED event per journal, with one batched insert
+     */
+    public void appendJournals(Map<Long, List<LedgerTransaction>> rowsByJournal) {
+        if (!enabled || rowsByJournal.isEmpty()) {
+            return;
+        }
+        List<Object[]> events = new ArrayList<>(rowsByJournal.size());
+        rowsByJournal.forEach((journalId, rows) -> events.add(toRow(journalId, rows)));
+        outboxRepository.appendAll(events);
+    }
+
+    private Object[] toRow(Long journalId, List<LedgerTransaction> rows) {
+        List<LedgerPostedEvent.Entry> entries = new ArrayList<>(rows.size());
+        BigDecimal total = BigDecimal.ZERO;
+        for (LedgerTransaction row : rows) {
+            entries.add(new LedgerPostedEvent.Entry(
+                    row.getId(),
+                    row.getReferenceId(),
+                    row.getTransactionType(),
+                    row.getDebitAccount() != null ? row.getDebitAccount().getId() : null,
+                    row.getCreditAccount() != null ? row.getCreditAccount().getId() : null,
+                    row.getAmount(),
+                    row.getCustomerBankAccount() != null ? row.getCustomerBankAccount().getId() : null));
+            total = total.add(row.getAmount());
+        }
+        String eventType = journalId != null ? LedgerPostedEvent.JOURNAL_POSTED : LedgerPostedEvent.LEDGER_POSTED;
+        try {
+            return new Object[] { eventType, journalId, rows.size(), total, objectMapper.writeValueAsString(entries) };
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize ledger event", e);
+        }
+    }
+
+    LedgerPostedEvent toEvent(LedgerOutboxRepository.OutboxRow row) {
+        try {
+            return new LedgerPostedEvent(row.id(), row.eventType(), row.journalId(),
+                    objectMapper.readValue(row.payload(), ENTRIES), row.createdAt());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Malformed ledger event " + row.id(), e);
+        }
+    }
+}
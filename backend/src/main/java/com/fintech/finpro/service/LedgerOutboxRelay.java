@@ -0,0 +1,114 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.repository.LedgerOutboxRepository;
+import com.fintech.finpro.repository.LedgerOutboxRepository.OutboxRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes committed ledger_outbox rows as LedgerPostedEvent to in-process subscribers,
+ * off the posting request path. Rows are claimed with FOR UPDATE SKIP LOCKED, so each event
+ * is relayed by one instance. Each event is published in a transaction of its own
+ * (REQUIRES_NEW), so a subscriber that fails or marks its transaction rollback-only only
+ * affects that event: the row is left unpublished with its attempt counted, and is retried
+ * up to ledger.outbox.max-attempts.
+ *
+ * With ledger.outbox.notify on, every relayed event is also sent with pg_notify on the
+ * ledger_events channel, for other nodes that LISTEN.
+ */
+@Component
+@Slf4j
+public class LedgerOutboxRelay {
+
+    static final String NOTIFY_CHANNEL = "ledger_events";
+
+    private final LedgerOutboxRepository outboxRepository;
+    private final LedgerOutbox outbox;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate publishTemplate;
+    private final boolean enabled;
+    private final boolean notify;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final int retentionDays;
+
+    public LedgerOutboxRelay(LedgerOutboxRepository outboxRepository,
+            LedgerOutbox outbox,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${ledger.outbox.relay-enabled:true}") boolean enabled,
+            @Value("${ledger.outbox.notify:false}") boolean notify,
+            @Value("${ledger.outbox.batch-size:200}") int batchSize,
+            @Value("${ledger.outbox.max-attempts:5}") int maxAttempts,
+            @Value("${ledger.outbox.retention-days:7}") int retentionDays) {
+        this.outboxRepository = outboxRepository;
+        this.outbox = outbox;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publishTemplate = new TransactionTemplate(transactionManager);
+        this.publishTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.notify = notify;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retentionDays = retentionDays;
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.outbox.poll-ms:500}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        List<OutboxRow> rows = outboxRepository.claim(batchSize, maxAttempts);
+        List<Long> published = new ArrayList<>(rows.size());
+        for (OutboxRow row : rows) {
+            try {
+                LedgerPostedEvent event = outbox.toEvent(row);
+                // The claimed rows stay locked by this batch's transaction; subscribers and
+                // the notify run (and fail) in their own
+                publishTemplate.executeWithoutResult(status -> {
+                    eventPublisher.publishEvent(event);
+                    if (notify) {
+                        outboxRepository.notify(NOTIFY_CHANNEL, "{\"id\":" + row.id() + ",\"type\":\""
+                                + row.eventType() + "\",\"journalId\":" + row.journalId() + "}");
+                    }
+                });
+                published.add(row.id());
+            } catch (RuntimeException e) {
+                log.warn("Ledger event {} failed (attempt {}): {}", row.id(), row.attempts() + 1, e.getMessage());
+                outboxRepository.markFailed(row.id(), e.toString());
+            }
+        }
+        outboxRepository.markPublished(published);
+        return rows.size();
+    }
+
+    /**
+     * Drop published events after the retention period
+     */
+    @Scheduled(cron = "${ledger.outbox.cleanup-cron:0 45 0 * * *}")
+    public void cleanup() {
+        int deleted = outboxRepository.deletePublishedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Deleted {} published ledger events", deleted);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.fintech.finpro.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Keeps monthly ledger_transactions partitions (V47) created ahead of time, so new
+ * postings never fall into the default partition. Runs at startup and nightly; rows that
+ * already sit in the default partition are moved into the new month's partition (V57).
+ */
+@Component
+@Slf4j
+public class LedgerPartitionMaintenance {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+
+    public LedgerPartitionMaintenance(JdbcTemplate jdbcTemplate,
+            @Value("${ledger.partitions.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = Math.max(1, monthsAhead);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensurePartitions();
+    }
+
+    @Scheduled(cron = "${ledger.partitions.cron:0 30 0 * * *}")
+    public void ensurePartitions() {
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        try {
+            Integer created = jdbcTemplate.queryForObject("SELECT create_ledger_transaction_partitions(?, ?)",
+                    Integer.class, Date.valueOf(thisMonth), Date.valueOf(thisMonth.plusMonths(monthsAhead)));
+            if (created != null && created > 0) {
+                log.info("Created {} ledger_transactions partitions", created);
+            }
+            // The function (V57) skips a month it cannot create and goes on with the rest
+            for (LocalDate month = thisMonth; !month.isAfter(thisMonth.plusMonths(monthsAhead));
+                    month = month.plusMonths(1)) {
+                String partition = "ledger_transactions_p" + month.format(PARTITION_SUFFIX);
+                Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                        partition);
+                if (!Boolean.TRUE.equals(exists)) {
+                    log.warn("ledger_transactions partition {} is missing; postings for that month go to "
+                            + "ledger_transactions_default", partition);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to create ledger_transactions partitions", e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.repository.AccountBalanceSnapshotRepository;
+import com.fintech.finpro.repository.LedgerArchiveRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Period close: carries every account balance forward to the day before the cutoff and
+ * moves the closed months of ledger_transactions to the archive, keeping the hot table
+ * and its indexes down to the open periods.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerPeriodCloseService {
+
+    private final LedgerArchiveRepository archiveRepository;
+    private final AccountBalanceSnapshotRepository snapshotRepository;
+
+    /**
+     * Close all periods before the given date
+     *
+     * @param closedBefore first day of the first month that stays open
+     */
+    @Transactional
+    public Map<String, Object> closePeriod(LocalDate closedBefore, Long makerId) {
+        if (closedBefore == null || closedBefore.getDayOfMonth() != 1) {
+            throw new RuntimeException("Period cutoff must be the first day of a month");
+        }
+        if (closedBefore.isAfter(LocalDate.now().withDayOfMonth(1))) {
+            throw new RuntimeException("The current month cannot be closed");
+        }
+        LocalDate previous = archiveRepository.findArchiveCutoff();
+        if (previous != null && !closedBefore.isAfter(previous)) {
+            throw new RuntimeException("Periods before " + previous + " are already closed");
+        }
+
+        // Carried-forward balances first: they are computed from the rows about to move
+        LocalDate lastClosedDay = closedBefore.minusDays(1);
+        int ledgerSnapshots = snapshotRepository.carryForwardLedgerAccounts(lastClosedDay);
+        int bankSnapshots = snapshotRepository.carryForwardBankAccounts(lastClosedDay);
+
+        int partitionsBefore = archiveRepository.countArchivePartitions();
+        long rows = archiveRepository.archiveBefore(closedBefore);
+        int partitions = archiveRepository.countArchivePartitions() - partitionsBefore;
+        archiveRepository.recordClose(closedBefore, partitions, rows, makerId);
+        log.info("Closed ledger periods before {}: {} rows in {} partitions archived", closedBefore, rows,
+                partitions);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("closedBefore", closedBefore);
+        result.put("ledgerSnapshots", ledgerSnapshots);
+        result.put("bankSnapshots", bankSnapshots);
+        result.put("partitionsArchived", partitions);
+        result.put("rowsArchived", rows);
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getClosedPeriods() {
+        return archiveRepository.findCloses();
+    }
+}
@@ -0,0 +1,29 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.enums.LedgerTransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Committed ledger postings, published by LedgerOutboxRelay to @EventListener subscribers
+ * after the posting transaction committed. Delivery is at least once: a subscriber may see
+ * the same event id again after a relay failure.
+ *
+ * @param eventId ledger_outbox id
+ * @param journalId set for JOURNAL_POSTED events
+ */
+public record LedgerPostedEvent(long eventId, String eventType, Long journalId, List<Entry> entries,
+        LocalDateTime createdAt) {
+
+    public static final String LEDGER_POSTED = "LEDGER_POSTED";
+    public static final String JOURNAL_POSTED = "JOURNAL_POSTED";
+
+    /**
+     * One posted ledger transaction
+     */
+    public record Entry(Long transactionId, String referenceId, LedgerTransactionType type, Long debitAccountId,
+            Long creditAccountId, BigDecimal amount, Long bankAccountId) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.entity.CustomerBankAccount;
+import com.fintech.finpro.entity.LedgerAccount;
+import com.fintech.finpro.enums.LedgerTransactionType;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * One dual-entry posting for LedgerService.recordTransactions, with the same
+ * arguments as a single recordTransaction call
+ */
+@Getter
+@Builder
+public class LedgerPosting {
+
+    private final LedgerAccount debitAccount;
+    private final LedgerAccount creditAccount;
+    private final BigDecimal amount;
+    private final String particulars;
+    private final LedgerTransactionType type;
+    private final Long makerId;
+    private final CustomerBankAccount bankAccount;
+}
@@ -18,21 +18,106 @@ public class LedgerService {
 
         private final LedgerAccountRepository accountRepository;
         private final LedgerTransactionRepository transactionRepository;
+        private final LedgerAccountLockManager lockManager;
+        private final TransactionIdAllocator transactionIdAllocator;
+        private final LedgerAccountCache accountCache;
+        private final BalanceSnapshotService balanceSnapshotService;
+        private final com.fintech.finpro.repository.StatementQueryRepository statementQueryRepository;
+        private final LedgerBatchWriter batchWriter;
+        private final LedgerOutbox outbox;
+        private final com.fintech.finpro.repository.LedgerJournalRepository journalRepository;
+        private final com.fintech.finpro.repository.LedgerPostingRepository postingRepository;
+        private final LedgerShardRouter shardRouter;
+        private final StatementCursorCodec cursorCodec;
 
         /**
-         * Create or get a ledger account
+         * Create or get a ledger account.
+         * Owned accounts resolve by (type, ownerId), system accounts by (type, name).
          */
         @Transactional
         public LedgerAccount getOrCreateAccount(String name, LedgerAccountType type, Long ownerId) {
-                return accountRepository.findByAccountTypeAndOwnerId(type, ownerId)
-                                .orElseGet(() -> accountRepository
-                                                .save(java.util.Objects.requireNonNull(LedgerAccount.builder()
-                                                                .accountName(name)
-                                                                .accountType(type)
-                                                                .ownerId(ownerId)
-                                                                .balance(BigDecimal.ZERO)
-                                                                .status("ACTIVE")
-                                                                .build())));
+                Long cachedId = accountCache.get(type, ownerId, name);
+                if (cachedId != null) {
+                        java.util.Optional<LedgerAccount> cached = accountRepository.findById(cachedId);
+                        if (cached.isPresent()) {
+                                return cached.get();
+                        }
+                        // Account was deleted since it was cached
+                        accountCache.remove(type, ownerId, name);
+                }
+
+                LedgerAccount account = findAccount(name, type, ownerId).orElseGet(() -> {
+                        // The unique indexes make this safe against a concurrent create
+                        accountRepository.insertIfAbsent(name, type.name(), ownerId);
+                        return findAccount(name, type, ownerId)
+                                        .orElseThrow(() -> new RuntimeException(
+                                                        "Failed to create ledger account: " + name));
+                });
+                accountCache.put(type, ownerId, name, account.getId());
+                return account;
+        }
+
+        /**
+         * Batch variant of getOrCreateAccount for owned accounts: one query for the
+         * accounts that exist, getOrCreateAccount only for the missing ones.
+         *
+         * @param namesByOwner account name to use if the owner's account must be created
+         * @return account per owner id
+         */
+        @Transactional
+        public java.util.Map<Long, LedgerAccount> getOrCreateAccounts(LedgerAccountType type,
+                        java.util.Map<Long, String> namesByOwner) {
+                java.util.Map<Long, LedgerAccount> byOwner = new java.util.HashMap<>();
+                if (namesByOwner.isEmpty()) {
+                        return byOwner;
+                }
+                for (LedgerAccount account : accountRepository.findByAccountTypeAndOwnerIdIn(type,
+                                namesByOwner.keySet())) {
+                        if (byOwner.putIfAbsent(account.getOwnerId(), account) == null) {
+                                accountCache.put(type, account.getOwnerId(), account.getAccountName(), account.getId());
+                        }
+                }
+                namesByOwner.forEach((ownerId, name) -> {
+                        if (!byOwner.containsKey(ownerId)) {
+                                byOwner.put(ownerId, getOrCreateAccount(name, type, ownerId));
+                        }
+                });
+                return byOwner;
+        }
+
+        /**
+         * Fund hold account of one IPO (owner id = IPO id), so open IPOs do not contend on
+         * a single hold row
+         */
+        @Transactional
+        public LedgerAccount getIpoHoldAccount(com.fintech.finpro.entity.IPO ipo) {
+                return getOrCreateAccount(ipo.getCompanyName() + " - Fund Hold", LedgerAccountType.IPO_FUND_HOLD,
+                                ipo.getId());
+        }
+
+        /**
+         * Amount currently held for an IPO's applications: the balance of its hold account
+         */
+        @Transactional(readOnly = true)
+        public BigDecimal getIpoHeldAmount(Long ipoId) {
+                return accountRepository.findFirstByAccountTypeAndOwnerId(LedgerAccountType.IPO_FUND_HOLD, ipoId)
+                                .map(LedgerAccount::getBalance)
+                                .orElse(BigDecimal.ZERO);
+        }
+
+        private java.util.Optional<LedgerAccount> findAccount(String name, LedgerAccountType type, Long ownerId) {
+                if (ownerId != null) {
+                        return accountRepository.findFirstByAccountTypeAndOwnerId(type, ownerId);
+                }
+                java.util.Optional<LedgerAccount> byName = accountRepository
+                                .findFirstByAccountTypeAndAccountNameAndOwnerIdIsNull(type, name);
+                if (byName.isPresent()) {
+                        return byName;
+                }
+                // Legacy installs may hold the only system account of a type under another name
+                java.util.List<LedgerAccount> ofType = accountRepository
+                                .findByAccountTypeAndOwnerIdIsNullAndParentAccountIdIsNull(type);
+                return ofType.size() == 1 ? java.util.Optional.of(ofType.get(0)) : java.util.Optional.empty();
         }
 
         /**
@@ -53,6 +138,27 @@ public class LedgerService {
                         throw new RuntimeException("Transaction amount must be positive");
                 }
 
+                // Sharded hot accounts take the posting on one of their shard rows
+                return post(shardRouter.route(debitAcc), shardRouter.route(creditAcc), amount, particulars, type,
+                                referenceId, makerId, bankAccount);
+        }
+
+        private LedgerTransaction post(
+                        LedgerAccount debitAcc,
+                        LedgerAccount creditAcc,
+                        BigDecimal amount,
+                        String particulars,
+                        LedgerTransactionType type,
+                        String referenceId,
+                        Long makerId,
+                        com.fintech.finpro.entity.CustomerBankAccount bankAccount) {
+
+                // Lock both accounts (ascending id order) and reload their balances so
+                // concurrent postings on the same account cannot lose updates
+                java.util.Map<Long, LedgerAccount> locked = lockManager.lockForPosting(debitAcc, creditAcc);
+                debitAcc = locked.get(debitAcc.getId());
+                creditAcc = locked.get(creditAcc.getId());
+
                 // Update balances
                 debitAcc.setBalance(debitAcc.getBalance().subtract(amount));
                 creditAcc.setBalance(creditAcc.getBalance().add(amount));
@@ -62,15 +168,10 @@ public class LedgerService {
 
                 // Update customer bank account balance if provided
                 if (bankAccount != null) {
-                        // For DEPOSIT type, add to balance
-                        // For WITHDRAWAL/FEE/TRANSFER type, subtract from balance
-                        if (type == LedgerTransactionType.DEPOSIT || type == LedgerTransactionType.REVERSAL
-                                        || type == LedgerTransactionType.SETTLEMENT) {
-                                bankAccount.setBalance(bankAccount.getBalance().add(amount));
-                        } else if (type == LedgerTransactionType.WITHDRAWAL || type == LedgerTransactionType.FEE
-                                        || type == LedgerTransactionType.TRANSFER
-                                        || type == LedgerTransactionType.ALLOTMENT) {
-                                bankAccount.setBalance(bankAccount.getBalance().subtract(amount));
+                        BigDecimal delta = LedgerBatchWriter.bankDelta(type, amount);
+                        if (delta.signum() != 0) {
+                                postingRepository.addToBankBalances(java.util.Map.of(bankAccount.getId(), delta),
+                                                java.time.LocalDateTime.now());
                         }
                 }
 
@@ -88,16 +189,119 @@ public class LedgerService {
                                 .build();
 
                 // Assign Transaction ID
-                transaction.setReferenceId(generateTransactionId());
+                transaction.setReferenceId(transactionIdAllocator.nextTransactionId());
+
+                LedgerTransaction saved = transactionRepository.save(java.util.Objects.requireNonNull(transaction));
+                outbox.append(null, java.util.List.of(saved));
+                return saved;
+        }
+
+        /**
+         * Record many dual-entry transactions at once. All postings are validated before
+         * anything is written; balance changes are netted so each account gets a single
+         * UPDATE, and the transaction rows are inserted with JDBC batches.
+         *
+         * @return the assigned transaction references, in posting order
+         */
+        @Transactional
+        public java.util.List<String> recordTransactions(java.util.List<LedgerPosting> postings) {
+                if (postings == null || postings.isEmpty()) {
+                        return java.util.List.of();
+                }
+
+                return batchWriter.write(postings).stream()
+                                .map(LedgerTransaction::getReferenceId)
+                                .collect(java.util.stream.Collectors.toList());
+        }
 
-                return transactionRepository.save(java.util.Objects.requireNonNull(transaction));
+        /**
+         * Record one business event as a journal: a header row plus its legs, written
+         * together with recordTransactions semantics (one locking read, netted balance
+         * updates, one batch insert). Each leg is a debit/credit pair, so the journal
+         * balances by construction.
+         *
+         * @param journalType e.g. IPO_ALLOTMENT
+         * @param reference business reference used to find the journal again
+         */
+        @Transactional
+        public com.fintech.finpro.entity.LedgerJournal recordJournal(String journalType, String reference,
+                        String description, Long makerId, java.util.List<LedgerPosting> legs) {
+                if (legs == null || legs.isEmpty()) {
+                        throw new RuntimeException("Journal must have at least one leg");
+                }
+                for (int i = 0; i < legs.size(); i++) {
+                        LedgerBatchWriter.validate(legs.get(i), i + 1);
+                }
+
+                BigDecimal total = legs.stream().map(LedgerPosting::getAmount).reduce(BigDecimal.ZERO,
+                                BigDecimal::add);
+                com.fintech.finpro.entity.LedgerJournal journal = journalRepository.save(
+                                com.fintech.finpro.entity.LedgerJournal.builder()
+                                                .journalType(journalType)
+                                                .reference(reference)
+                                                .description(description)
+                                                .makerId(makerId)
+                                                .legCount(legs.size())
+                                                .totalAmount(total)
+                                                .build());
+                batchWriter.write(legs, journal.getId());
+                return journal;
+        }
+
+        /**
+         * Batch variant of recordJournal: the headers are inserted with JDBC batches and
+         * the legs of all journals are written in one go (one locking read, netted balance
+         * updates, batched inserts). Used for bulk runs such as IPO allotment.
+         *
+         * @return the journal ids, in request order
+         */
+        @Transactional
+        public long[] recordJournals(String journalType, Long makerId, java.util.List<LedgerJournalRequest> journals) {
+                if (journals.isEmpty()) {
+                        return new long[0];
+                }
+                long[] ids = postingRepository.allocateJournalIds(journals.size());
+                java.time.LocalDateTime now = java.time.LocalDateTime.now();
+                java.util.List<com.fintech.finpro.entity.LedgerJournal> headers = new java.util.ArrayList<>(
+                                journals.size());
+                java.util.List<LedgerPosting> legs = new java.util.ArrayList<>();
+                java.util.List<Long> legJournals = new java.util.ArrayList<>();
+                for (int j = 0; j < journals.size(); j++) {
+                        LedgerJournalRequest request = journals.get(j);
+                        if (request.getLegs() == null || request.getLegs().isEmpty()) {
+                                throw new RuntimeException("Journal " + request.getReference()
+                                                + " must have at least one leg");
+                        }
+                        BigDecimal total = BigDecimal.ZERO;
+                        for (LedgerPosting leg : request.getLegs()) {
+                                LedgerBatchWriter.validate(leg, legs.size() + 1);
+                                total = total.add(leg.getAmount());
+                                legs.add(leg);
+                                legJournals.add(ids[j]);
+                        }
+                        com.fintech.finpro.entity.LedgerJournal header = com.fintech.finpro.entity.LedgerJournal
+                                        .builder()
+                                        .journalType(journalType)
+                                        .reference(request.getReference())
+                                        .description(request.getDescription())
+                                        .makerId(makerId)
+                                        .legCount(request.getLegs().size())
+                                        .totalAmount(total)
+                                        .build();
+                        header.setId(ids[j]);
+                        header.setCreatedAt(now);
+                        header.setUpdatedAt(now);
+                        headers.add(header);
+                }
+                postingRepository.insertJournals(headers);
+                batchWriter.writeJournals(legs, legJournals.stream().mapToLong(Long::longValue).toArray());
+                return ids;
         }
 
         /**
          * Backward compatibility or for transactions not linked to a specific bank
          * account
          */
-        @Transactional
         public LedgerTransaction recordTransaction(
                         LedgerAccount debitAcc,
                         LedgerAccount creditAcc,
@@ -109,12 +313,6 @@ public class LedgerService {
                 return recordTransaction(debitAcc, creditAcc, amount, particulars, type, referenceId, makerId, null);
         }
 
-        private synchronized String generateTransactionId() {
-                String year = String.valueOf(java.time.Year.now().getValue());
-                Long seq = transactionRepository.getNextTransactionSequence();
-                return "TXN-" + year + "-" + String.format("%08d", seq);
-        }
-
         /**
          * Initialize System Accounts
          */
@@ -146,12 +344,163 @@ public class LedgerService {
          */
         @Transactional(readOnly = true)
         public java.util.List<LedgerAccount> getAllSystemAccounts() {
+                java.util.Map<Long, BigDecimal> shardBalances = new java.util.HashMap<>();
+                for (Object[] row : accountRepository.sumShardBalances()) {
+                        shardBalances.put((Long) row[0], (BigDecimal) row[1]);
+                }
+                // Shard rows are folded into their parent's balance on a detached copy, so the
+                // managed entity keeps its own row balance
                 return accountRepository.findAll().stream()
                                 .filter(acc -> acc.getAccountType() != LedgerAccountType.CUSTOMER_LEDGER
-                                                && acc.getAccountType() != LedgerAccountType.INVESTOR_LEDGER)
+                                                && acc.getAccountType() != LedgerAccountType.INVESTOR_LEDGER
+                                                && acc.getParentAccountId() == null)
+                                .map(acc -> {
+                                        BigDecimal shards = shardBalances.get(acc.getId());
+                                        return shards != null ? withBalance(acc, acc.getBalance().add(shards)) : acc;
+                                })
                                 .collect(java.util.stream.Collectors.toList());
         }
 
+        private static LedgerAccount withBalance(LedgerAccount account, BigDecimal balance) {
+                LedgerAccount copy = LedgerAccount.builder()
+                                .accountName(account.getAccountName())
+                                .accountType(account.getAccountType())
+                                .ownerId(account.getOwnerId())
+                                .balance(balance)
+                                .currency(account.getCurrency())
+                                .status(account.getStatus())
+                                .shardCount(account.getShardCount())
+                                .parentAccountId(account.getParentAccountId())
+                                .shardIndex(account.getShardIndex())
+                                .build();
+                copy.setId(account.getId());
+                copy.setCreatedAt(account.getCreatedAt());
+                copy.setUpdatedAt(account.getUpdatedAt());
+                copy.setCreatedBy(account.getCreatedBy());
+                copy.setUpdatedBy(account.getUpdatedBy());
+                return copy;
+        }
+
+        /**
+         * Balance of a ledger account including its shard rows
+         */
+        @Transactional(readOnly = true)
+        public BigDecimal getTotalBalance(LedgerAccount account) {
+                if (account.getParentAccountId() != null) {
+                        return account.getBalance();
+                }
+                // Retired shards count too, so an account keeps its shard balances after un-sharding
+                BigDecimal total = account.getBalance();
+                for (LedgerAccount shard : accountRepository.findByParentAccountIdOrderByShardIndex(account.getId())) {
+                        total = total.add(shard.getBalance());
+                }
+                return total;
+        }
+
+        /**
+         * A sharded account and its shard rows
+         */
+        @Transactional(readOnly = true)
+        public java.util.Map<String, Object> getShards(Long accountId) {
+                LedgerAccount parent = accountRepository.findById(java.util.Objects.requireNonNull(accountId))
+                                .orElseThrow(() -> new RuntimeException("Ledger account not found"));
+                java.util.List<LedgerAccount> shards = accountRepository.findByParentAccountIdOrderByShardIndex(accountId);
+
+                java.util.List<java.util.Map<String, Object>> rows = new java.util.ArrayList<>();
+                BigDecimal total = parent.getBalance();
+                rows.add(shardRow(parent, 0, true));
+                for (LedgerAccount shard : shards) {
+                        rows.add(shardRow(shard, shard.getShardIndex(), shard.getShardIndex() < parent.getShardCount()));
+                        total = total.add(shard.getBalance());
+                }
+
+                java.util.Map<String, Object> result = new java.util.LinkedHashMap<>();
+                result.put("accountId", parent.getId());
+                result.put("accountName", parent.getAccountName());
+                result.put("shardCount", parent.getShardCount());
+                result.put("totalBalance", total);
+                result.put("shards", rows);
+                return result;
+        }
+
+        private java.util.Map<String, Object> shardRow(LedgerAccount account, int index, boolean active) {
+                java.util.Map<String, Object> row = new java.util.LinkedHashMap<>();
+                row.put("shardIndex", index);
+                row.put("accountId", account.getId());
+                row.put("balance", account.getBalance());
+                row.put("active", active);
+                return row;
+        }
+
+        /**
+         * Change the number of rows a system account spreads its postings over, online.
+         * Growing adds (or reactivates) shard rows with their own balance; shrinking moves
+         * the balance of every retired shard back into the parent with a TRANSFER posting,
+         * so each row's balance still matches its transactions. 1 turns sharding off.
+         */
+        @Transactional
+        public java.util.Map<String, Object> setShardCount(Long accountId, int shardCount, Long makerId) {
+                if (shardCount < 1 || shardCount > 64) {
+                        throw new RuntimeException("Shard count must be between 1 and 64");
+                }
+                LedgerAccount parent = accountRepository.findById(java.util.Objects.requireNonNull(accountId))
+                                .orElseThrow(() -> new RuntimeException("Ledger account not found"));
+                if (parent.getParentAccountId() != null) {
+                        throw new RuntimeException("Cannot shard a shard row; use its parent account");
+                }
+                if (parent.getOwnerId() != null || parent.getAccountType() == LedgerAccountType.CUSTOMER_LEDGER
+                                || parent.getAccountType() == LedgerAccountType.INVESTOR_LEDGER) {
+                        throw new RuntimeException("Only system accounts can be sharded");
+                }
+
+                // Serializes concurrent shard count changes on the same account
+                parent = lockManager.lockForPosting(parent).get(parent.getId());
+
+                java.util.Map<Integer, LedgerAccount> existing = new java.util.HashMap<>();
+                for (LedgerAccount shard : accountRepository.findByParentAccountIdOrderByShardIndex(accountId)) {
+                        existing.put(shard.getShardIndex(), shard);
+                }
+                for (int index = 1; index < shardCount; index++) {
+                        LedgerAccount shard = existing.get(index);
+                        if (shard == null) {
+                                accountRepository.save(LedgerAccount.builder()
+                                                .accountName(parent.getAccountName() + " #" + (index + 1))
+                                                .accountType(parent.getAccountType())
+                                                .parentAccountId(parent.getId())
+                                                .shardIndex(index)
+                                                .balance(BigDecimal.ZERO)
+                                                .status("ACTIVE")
+                                                .build());
+                        } else if (!"ACTIVE".equals(shard.getStatus())) {
+                                shard.setStatus("ACTIVE");
+                                accountRepository.save(shard);
+                        }
+                }
+
+                // Fold retired shards back into the parent (also picks up postings that
+                // reached a retired shard after an earlier shrink)
+                for (LedgerAccount shard : existing.values()) {
+                        if (shard.getShardIndex() < shardCount) {
+                                continue;
+                        }
+                        BigDecimal balance = lockManager.lockForPosting(shard).get(shard.getId()).getBalance();
+                        if (balance.signum() > 0) {
+                                post(shard, parent, balance, "Shard fold-in: " + shard.getAccountName(),
+                                                LedgerTransactionType.TRANSFER, null, makerId, null);
+                        } else if (balance.signum() < 0) {
+                                post(parent, shard, balance.negate(), "Shard fold-in: " + shard.getAccountName(),
+                                                LedgerTransactionType.TRANSFER, null, makerId, null);
+                        }
+                        shard.setStatus("RETIRED");
+                        accountRepository.save(shard);
+                }
+
+                parent.setShardCount(shardCount);
+                accountRepository.save(parent);
+                shardRouter.invalidate(parent.getId());
+                return getShards(parent.getId());
+        }
+
         /**
          * Create a new internal system account
          */
@@ -242,24 +591,14 @@ public class LedgerService {
                                 .orElseThrow(() -> new RuntimeException("Ledger account not found"));
 
                 java.time.LocalDateTime startDateTime = startDate.atStartOfDay();
-                java.time.LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-
-                java.util.List<LedgerTransaction> transactions = transactionRepository
-                                .findByLedgerAccountAndDateRange(accountId, startDateTime, endDateTime);
-
-                java.util.List<com.fintech.finpro.dto.BankTransactionDTO> transactionDTOs = new java.util.ArrayList<>();
-                for (LedgerTransaction t : transactions) {
-                        transactionDTOs.add(com.fintech.finpro.dto.BankTransactionDTO.builder()
-                                        .id(t.getId())
-                                        .date(t.getCreatedAt())
-                                        .type(t.getTransactionType() != null ? t.getTransactionType().name()
-                                                        : "UNKNOWN")
-                                        .amount(t.getAmount())
-                                        .description(t.getParticulars())
-                                        .referenceId(t.getReferenceId())
-                                        .status(t.getStatus())
-                                        .build());
-                }
+                java.time.LocalDateTime endExclusive = endDate.plusDays(1).atStartOfDay();
+
+                java.util.List<Long> accountIds = shardRouter.accountIds(accountId);
+                BigDecimal openingBalance = balanceSnapshotService.getLedgerOpeningBalance(accountIds, startDateTime);
+
+                // Rows newest first, running balance computed by the database
+                java.util.List<com.fintech.finpro.dto.BankTransactionDTO> transactionDTOs = statementQueryRepository
+                                .findLedgerStatement(accountIds, startDateTime, endExclusive, openingBalance);
 
                 return com.fintech.finpro.dto.AccountStatementDTO.builder()
                                 .accountId(accountId)
@@ -267,8 +606,58 @@ public class LedgerService {
                                                                            // account numbers
                                 .bankName("Ledger Account")
                                 .customerName(account.getAccountName())
-                                .currentBalance(account.getBalance())
+                                .currentBalance(getTotalBalance(account))
                                 .transactions(transactionDTOs)
                                 .build();
         }
+
+        /**
+         * One page of a ledger account statement, newest first, with running balances
+         */
+        @Transactional(readOnly = true)
+        public com.fintech.finpro.dto.StatementPageDTO getAccountStatementPage(
+                        Long accountId,
+                        java.time.LocalDate startDate,
+                        java.time.LocalDate endDate,
+                        String cursor,
+                        Integer pageSize) {
+
+                LedgerAccount account = accountRepository.findById(java.util.Objects.requireNonNull(accountId))
+                                .orElseThrow(() -> new RuntimeException("Ledger account not found"));
+
+                java.time.LocalDateTime from = startDate.atStartOfDay();
+                java.time.LocalDateTime toExclusive = endDate.plusDays(1).atStartOfDay();
+                int size = com.fintech.finpro.repository.StatementQueryRepository.pageSize(pageSize);
+                java.util.List<Long> accountIds = shardRouter.accountIds(accountId);
+
+                // First page starts from the balance at the end of the range
+                com.fintech.finpro.util.StatementCursor after = cursorCodec.decode(cursor,
+                                StatementCursorCodec.LEDGER, accountId, from, toExclusive);
+                BigDecimal balanceAtTop = after != null ? after.getBalance()
+                                : balanceSnapshotService.getLedgerOpeningBalance(accountIds, toExclusive);
+
+                java.util.List<com.fintech.finpro.repository.StatementQueryRepository.StatementRow> rows = statementQueryRepository
+                                .findLedgerPage(accountIds, from, toExclusive, after, balanceAtTop, size + 1);
+                boolean hasMore = rows.size() > size;
+                if (hasMore) {
+                        rows = rows.subList(0, size);
+                }
+
+                return com.fintech.finpro.dto.StatementPageDTO.builder()
+                                .accountId(accountId)
+                                .accountNumber(account.getId().toString())
+                                .bankName("Ledger Account")
+                                .customerName(account.getAccountName())
+                                .currentBalance(getTotalBalance(account))
+                                .transactions(rows.stream()
+                                                .map(com.fintech.finpro.repository.StatementQueryRepository.StatementRow::getTransaction)
+                                                .collect(java.util.stream.Collectors.toList()))
+                                .nextCursor(hasMore
+                                                ? cursorCodec.encode(com.fintech.finpro.repository.StatementQueryRepository
+                                                                .cursorAfter(rows.get(size - 1)),
+                                                                StatementCursorCodec.LEDGER, accountId, from, toExclusive)
+                                                : null)
+                                .hasMore(hasMore)
+                                .build();
+        }
 }
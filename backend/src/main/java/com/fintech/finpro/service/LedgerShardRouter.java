@@ -0,0 +1,88 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.entity.LedgerAccount;
+import com.fintech.finpro.repository.LedgerAccountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks the physical row a posting to a sharded ledger account goes to.
+ *
+ * A parent with shardCount = n posts to itself (shard 0) or one of its shard rows
+ * 1..n-1, chosen at random, so concurrent postings lock different rows. Unsharded
+ * accounts and shard rows themselves are returned unchanged.
+ *
+ * The active shard ids of each parent are cached and reloaded after
+ * ledger.shards.refresh-ms, so other instances pick up a shard count change within
+ * that time. A posting that still lands on a retired shard is not lost: reads include
+ * every shard row, and the next rebalance folds it back into the parent.
+ */
+@Component
+public class LedgerShardRouter {
+
+    private record Route(long[] shardIds, long loadedAt) {
+    }
+
+    private final LedgerAccountRepository accountRepository;
+    private final long refreshMillis;
+    private final Map<Long, Route> routes = new ConcurrentHashMap<>();
+
+    public LedgerShardRouter(LedgerAccountRepository accountRepository,
+            @Value("${ledger.shards.refresh-ms:60000}") long refreshMillis) {
+        this.accountRepository = accountRepository;
+        this.refreshMillis = refreshMillis;
+    }
+
+    /**
+     * The row to post to for the given account
+     */
+    public LedgerAccount route(LedgerAccount account) {
+        if (!isShardedParent(account)) {
+            return account;
+        }
+        long[] shardIds = activeShardIds(account);
+        int pick = ThreadLocalRandom.current().nextInt(shardIds.length + 1);
+        if (pick == 0) {
+            return account;
+        }
+        // Reference only: the posting locks and loads the row itself
+        return accountRepository.getReferenceById(shardIds[pick - 1]);
+    }
+
+    /**
+     * The account and all of its shard rows (retired ones included), for balance and statement reads
+     */
+    public List<Long> accountIds(Long ledgerAccountId) {
+        List<Long> ids = new ArrayList<>();
+        ids.add(ledgerAccountId);
+        ids.addAll(accountRepository.findShardIds(ledgerAccountId));
+        return ids;
+    }
+
+    public void invalidate(Long parentAccountId) {
+        routes.remove(parentAccountId);
+    }
+
+    static boolean isShardedParent(LedgerAccount account) {
+        return account.getParentAccountId() == null
+                && account.getShardCount() != null && account.getShardCount() > 1;
+    }
+
+    private long[] activeShardIds(LedgerAccount parent) {
+        long now = System.currentTimeMillis();
+        Route route = routes.get(parent.getId());
+        if (route == null || now - route.loadedAt() > refreshMillis) {
+            long[] ids = accountRepository.findActiveShardIds(parent.getId(), parent.getShardCount()).stream()
+                    .mapToLong(Long::longValue).toArray();
+            route = new Route(ids, now);
+            routes.put(parent.getId(), route);
+        }
+        return route.shardIds();
+    }
+}
@@ -9,6 +9,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -59,16 +61,19 @@ public class ProfitSettlementService {
         // BROKER_RECEIVABLE account
         LedgerAccount officeCash = ledgerService.getOrCreateAccount("Office Cash", LedgerAccountType.OFFICE, null);
 
+        // Principal recovery and profit split are written as one journal
+        List<LedgerPosting> legs = new ArrayList<>(3);
+
         // Principal Recovery entry: Debit Office -> Credit Source
-        ledgerService.recordTransaction(
-                officeCash,
-                sourceAcc,
-                purchaseCost,
-                String.format("Principal Recovery for %s - Scrip %s", customer.getFullName(),
-                        portfolio.getScripSymbol()),
-                LedgerTransactionType.SETTLEMENT,
-                "PRIN-" + portfolio.getId(),
-                makerId);
+        legs.add(LedgerPosting.builder()
+                .debitAccount(officeCash)
+                .creditAccount(sourceAcc)
+                .amount(purchaseCost)
+                .particulars(String.format("Principal Recovery for %s - Scrip %s", customer.getFullName(),
+                        portfolio.getScripSymbol()))
+                .type(LedgerTransactionType.SETTLEMENT)
+                .makerId(makerId)
+                .build());
 
         // 3. Profit Splitting (60/40)
         BigDecimal totalProfitToDivide = netAfterTax.subtract(purchaseCost);
@@ -79,15 +84,15 @@ public class ProfitSettlementService {
                     RoundingMode.HALF_UP);
 
             // Entry 1: Investor/Admin Share (Debit Office -> Credit Source)
-            ledgerService.recordTransaction(
-                    officeCash,
-                    sourceAcc,
-                    investorProfit,
-                    String.format("Profit Share (60%%) for %s - Scrip %s", customer.getFullName(),
-                            portfolio.getScripSymbol()),
-                    LedgerTransactionType.SETTLEMENT,
-                    "PROF60-" + portfolio.getId(),
-                    makerId);
+            legs.add(LedgerPosting.builder()
+                    .debitAccount(officeCash)
+                    .creditAccount(sourceAcc)
+                    .amount(investorProfit)
+                    .particulars(String.format("Profit Share (60%%) for %s - Scrip %s", customer.getFullName(),
+                            portfolio.getScripSymbol()))
+                    .type(LedgerTransactionType.SETTLEMENT)
+                    .makerId(makerId)
+                    .build());
 
             // Entry 2: Customer Share (Debit Office -> Credit Customer)
             LedgerAccount customerAcc = ledgerService.getOrCreateAccount(
@@ -95,16 +100,21 @@ public class ProfitSettlementService {
                     LedgerAccountType.CUSTOMER_LEDGER,
                     customer.getId());
 
-            ledgerService.recordTransaction(
-                    officeCash,
-                    customerAcc,
-                    customerProfit,
-                    String.format("Profit Share (40%%) for Scrip %s", portfolio.getScripSymbol()),
-                    LedgerTransactionType.SETTLEMENT,
-                    "PROF40-" + portfolio.getId(),
-                    makerId);
+            legs.add(LedgerPosting.builder()
+                    .debitAccount(officeCash)
+                    .creditAccount(customerAcc)
+                    .amount(customerProfit)
+                    .particulars(String.format("Profit Share (40%%) for Scrip %s", portfolio.getScripSymbol()))
+                    .type(LedgerTransactionType.SETTLEMENT)
+                    .makerId(makerId)
+                    .build());
         }
 
+        ledgerService.recordJournal("SHARE_SELL_SETTLEMENT", "SELL-" + portfolio.getId(),
+                String.format("Share sell settlement for %s - Scrip %s", customer.getFullName(),
+                        portfolio.getScripSymbol()),
+                makerId, legs);
+
         // 4. Record Taxes and Commission Payable (Internal accounting)
         // (Implementation omitted for brevity, but would involve debiting Office and
         // crediting CGT_PAYABLE, etc.)
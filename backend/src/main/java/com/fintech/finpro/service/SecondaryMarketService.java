@@ -51,8 +51,7 @@ public class SecondaryMarketService {
                                                 .orElseThrow(() -> new RuntimeException(
                                                                 "No bank account found for customer")));
 
-                bankAccount.setBalance(bankAccount.getBalance().add(totalValue));
-                bankAccountRepository.save(bankAccount);
+                // The DEPOSIT posting below credits the bank balance
 
                 // 3. Ledger Entry: Broker/Market -> Customer
                 LedgerAccount customerLedger = ledgerService.getOrCreateAccount(
@@ -88,13 +87,12 @@ public class SecondaryMarketService {
                                                 .orElseThrow(() -> new RuntimeException(
                                                                 "No bank account found for customer")));
 
-                if (bankAccount.getBalance().compareTo(totalCost) < 0) {
+                // Held funds (open IPO applications) are not spendable; the account stays locked
+                // and the WITHDRAWAL posting below debits its balance
+                if (bankAccountRepository.findCoveredForUpdate(bankAccount.getId(), totalCost).isEmpty()) {
                         throw new RuntimeException("Insufficient funds in bank account");
                 }
 
-                bankAccount.setBalance(bankAccount.getBalance().subtract(totalCost));
-                bankAccountRepository.save(bankAccount);
-
                 // 3. Update Portfolio (Credit)
                 java.util.List<CustomerPortfolio> portfolios = portfolioRepository.findByCustomerIdAndScripSymbol(
                                 customerId,
@@ -0,0 +1,43 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.util.StatementCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Signs and checks statement page cursors with the configured key, so a client can only
+ * continue a statement from a position and running balance the server handed out for
+ * that same account and date range.
+ */
+@Component
+public class StatementCursorCodec {
+
+    public static final String LEDGER = "LEDGER";
+    public static final String SYSTEM = "SYSTEM";
+    public static final String BANK = "BANK";
+
+    private final byte[] key;
+
+    public StatementCursorCodec(@Value("${statement.cursor.secret:${jwt.secret}}") String secret) {
+        this.key = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String encode(StatementCursor cursor, String kind, Long accountId, LocalDateTime from,
+            LocalDateTime toExclusive) {
+        return cursor.encode(StatementCursor.scope(kind, accountId, from, toExclusive), key);
+    }
+
+    /**
+     * @return the cursor, or null for the first page
+     */
+    public StatementCursor decode(String token, String kind, Long accountId, LocalDateTime from,
+            LocalDateTime toExclusive) {
+        if (token == null) {
+            return null;
+        }
+        return StatementCursor.decode(token, StatementCursor.scope(kind, accountId, from, toExclusive), key);
+    }
+}
@@ -0,0 +1,89 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.entity.LedgerAccount;
+import com.fintech.finpro.entity.SystemAccount;
+import com.fintech.finpro.repository.CustomerBankAccountRepository;
+import com.fintech.finpro.repository.LedgerAccountRepository;
+import com.fintech.finpro.repository.StatementQueryRepository;
+import com.fintech.finpro.util.CsvExportService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Streams statement CSV exports from a database cursor straight to the response.
+ *
+ * The account is checked up front, so a bad id still fails with a normal error response;
+ * the rows are then read and written on the response thread inside a read-only
+ * transaction, and memory use does not depend on the number of rows.
+ */
+@Service
+public class StatementExportService {
+
+    private final StatementQueryRepository statementQueryRepository;
+    private final LedgerAccountRepository ledgerAccountRepository;
+    private final CustomerBankAccountRepository bankAccountRepository;
+    private final SystemAccountService systemAccountService;
+    private final CsvExportService csvExportService;
+    private final LedgerShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public StatementExportService(StatementQueryRepository statementQueryRepository,
+            LedgerAccountRepository ledgerAccountRepository,
+            CustomerBankAccountRepository bankAccountRepository,
+            SystemAccountService systemAccountService,
+            CsvExportService csvExportService,
+            LedgerShardRouter shardRouter,
+            PlatformTransactionManager transactionManager) {
+        this.statementQueryRepository = statementQueryRepository;
+        this.ledgerAccountRepository = ledgerAccountRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.systemAccountService = systemAccountService;
+        this.csvExportService = csvExportService;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public StreamingResponseBody exportLedgerStatement(Long accountId, LocalDate startDate, LocalDate endDate,
+            boolean gzip) {
+        ledgerAccountRepository.findById(java.util.Objects.requireNonNull(accountId))
+                .orElseThrow(() -> new RuntimeException("Ledger account not found"));
+        return streamLedger(accountId, startDate, endDate, gzip);
+    }
+
+    public StreamingResponseBody exportSystemAccountStatement(Long systemAccountId, LocalDate startDate,
+            LocalDate endDate, boolean gzip) {
+        SystemAccount account = systemAccountService.getAccountById(systemAccountId);
+        LedgerAccount ledgerAccount = systemAccountService.resolveLedgerAccount(account);
+        return streamLedger(ledgerAccount.getId(), startDate, endDate, gzip);
+    }
+
+    public StreamingResponseBody exportBankStatement(Long accountId, LocalDate startDate, LocalDate endDate,
+            boolean gzip) {
+        bankAccountRepository.findById(java.util.Objects.requireNonNull(accountId))
+                .orElseThrow(() -> new RuntimeException("Bank account not found with ID: " + accountId));
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime toExclusive = endDate.plusDays(1).atStartOfDay();
+
+        return out -> csvExportService.writeStatementCsv(out, gzip,
+                rowWriter -> readOnlyTransaction.executeWithoutResult(status -> statementQueryRepository
+                        .streamBankStatement(accountId, from, toExclusive, rowWriter)));
+    }
+
+    private StreamingResponseBody streamLedger(Long ledgerAccountId, LocalDate startDate, LocalDate endDate,
+            boolean gzip) {
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime toExclusive = endDate.plusDays(1).atStartOfDay();
+        List<Long> ledgerAccountIds = shardRouter.accountIds(ledgerAccountId);
+
+        return out -> csvExportService.writeStatementCsv(out, gzip,
+                rowWriter -> readOnlyTransaction.executeWithoutResult(status -> statementQueryRepository
+                        .streamLedgerStatement(ledgerAccountIds, from, toExclusive, rowWriter)));
+    }
+}
@@ -17,8 +17,11 @@ import java.util.Optional;
 public class SystemAccountService {
 
     private final SystemAccountRepository systemAccountRepository;
-    private final com.fintech.finpro.repository.LedgerTransactionRepository ledgerTransactionRepository;
     private final com.fintech.finpro.repository.LedgerAccountRepository ledgerAccountRepository;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final com.fintech.finpro.repository.StatementQueryRepository statementQueryRepository;
+    private final LedgerShardRouter shardRouter;
+    private final StatementCursorCodec cursorCodec;
 
     /**
      * Initialize core system accounts if they don't exist
@@ -208,85 +211,108 @@ public class SystemAccountService {
 
         SystemAccount account = getAccountById(accountId);
         java.time.LocalDateTime startDateTime = startDate.atStartOfDay();
-        java.time.LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
+        java.time.LocalDateTime endExclusive = endDate.plusDays(1).atStartOfDay();
 
-        // Find corresponding Ledger Account (Safely)
-        com.fintech.finpro.entity.LedgerAccount ledgerAccount;
+        com.fintech.finpro.entity.LedgerAccount ledgerAccount = resolveLedgerAccount(account);
+
+        // 1. Get Opening Balance
+        List<Long> ledgerAccountIds = shardRouter.accountIds(ledgerAccount.getId());
+        BigDecimal openingBalance = balanceSnapshotService.getLedgerOpeningBalance(ledgerAccountIds,
+                startDateTime);
+
+        // 2. Rows newest first; credits to this account add, debits subtract
+        List<com.fintech.finpro.dto.BankTransactionDTO> transactionDTOs = statementQueryRepository
+                .findLedgerStatement(ledgerAccountIds, startDateTime, endExclusive, openingBalance);
+
+        return com.fintech.finpro.dto.AccountStatementDTO.builder()
+                .accountId(accountId)
+                .accountNumber(account.getAccountNumber())
+                .bankName("System Account")
+                .customerName(account.getAccountName())
+                .currentBalance(account.getBalance()) // System Account Balance (Should match runningBalance if up to
+                                                      // date)
+                .transactions(transactionDTOs)
+                .build();
+    }
+
+    /**
+     * One page of a system account statement, newest first, with running balances
+     */
+    @Transactional(readOnly = true)
+    public com.fintech.finpro.dto.StatementPageDTO getSystemAccountStatementPage(
+            Long accountId,
+            java.time.LocalDate startDate,
+            java.time.LocalDate endDate,
+            String cursor,
+            Integer pageSize) {
+
+        SystemAccount account = getAccountById(accountId);
+        com.fintech.finpro.entity.LedgerAccount ledgerAccount = resolveLedgerAccount(account);
+        List<Long> ledgerAccountIds = shardRouter.accountIds(ledgerAccount.getId());
+
+        java.time.LocalDateTime from = startDate.atStartOfDay();
+        java.time.LocalDateTime toExclusive = endDate.plusDays(1).atStartOfDay();
+        int size = com.fintech.finpro.repository.StatementQueryRepository.pageSize(pageSize);
+
+        // First page starts from the balance at the end of the range
+        com.fintech.finpro.util.StatementCursor after = cursorCodec.decode(cursor, StatementCursorCodec.SYSTEM,
+                accountId, from, toExclusive);
+        BigDecimal balanceAtTop = after != null ? after.getBalance()
+                : balanceSnapshotService.getLedgerOpeningBalance(ledgerAccountIds, toExclusive);
+
+        List<com.fintech.finpro.repository.StatementQueryRepository.StatementRow> rows = statementQueryRepository
+                .findLedgerPage(ledgerAccountIds, from, toExclusive, after, balanceAtTop, size + 1);
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+
+        return com.fintech.finpro.dto.StatementPageDTO.builder()
+                .accountId(accountId)
+                .accountNumber(account.getAccountNumber())
+                .bankName("System Account")
+                .customerName(account.getAccountName())
+                .currentBalance(account.getBalance())
+                .transactions(rows.stream()
+                        .map(com.fintech.finpro.repository.StatementQueryRepository.StatementRow::getTransaction)
+                        .collect(java.util.stream.Collectors.toList()))
+                .nextCursor(hasMore
+                        ? cursorCodec.encode(
+                                com.fintech.finpro.repository.StatementQueryRepository.cursorAfter(rows.get(size - 1)),
+                                StatementCursorCodec.SYSTEM, accountId, from, toExclusive)
+                        : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Find the ledger account backing a system account
+     */
+    public com.fintech.finpro.entity.LedgerAccount resolveLedgerAccount(SystemAccount account) {
         if (account.getOwnerId() != null) {
             // Investor Capital - try to find by specific logic or name
             // For now, rely on name matching which is consistent with creation logic
-            ledgerAccount = ledgerAccountRepository.findByAccountName(account.getAccountName())
+            return ledgerAccountRepository.findByAccountName(account.getAccountName())
                     .orElseThrow(() -> new RuntimeException(
                             "Ledger account not found for system account: " + account.getAccountName()));
         } else {
             // Core System Account
             // Check account code first for known system accounts
             if (account.getAccountCode().equals("CORE_CAPITAL")) {
-                ledgerAccount = ledgerAccountRepository.findByAccountName("Core Capital")
+                return ledgerAccountRepository.findByAccountName("Core Capital")
                         .orElseThrow(() -> new RuntimeException("Ledger account 'Core Capital' not found"));
             } else if (account.getAccountCode().equals("EXPENSES_POOL")) {
-                ledgerAccount = ledgerAccountRepository.findByAccountName("Office Expenses")
+                return ledgerAccountRepository.findByAccountName("Office Expenses")
                         .orElseThrow(() -> new RuntimeException("Ledger account 'Office Expenses' not found"));
             } else if (account.getAccountCode().equals("SUBSCRIPTION_POOL")) {
-                ledgerAccount = ledgerAccountRepository.findByAccountName("Subscription Fees")
+                return ledgerAccountRepository.findByAccountName("Subscription Fees")
                         .orElseThrow(() -> new RuntimeException("Ledger account 'Subscription Fees' not found"));
             } else {
                 // Try exact name match for other accounts
-                ledgerAccount = ledgerAccountRepository.findByAccountName(account.getAccountName())
+                return ledgerAccountRepository.findByAccountName(account.getAccountName())
                         .orElseThrow(() -> new RuntimeException(
                                 "Ledger account not found for system account: " + account.getAccountName()));
             }
         }
-
-        // 1. Get Opening Balance
-        BigDecimal openingBalance = ledgerTransactionRepository.getLedgerOpeningBalance(ledgerAccount.getId(),
-                startDateTime);
-
-        // 2. Fetch Transactions
-        List<com.fintech.finpro.entity.LedgerTransaction> transactions = ledgerTransactionRepository
-                .findByLedgerAccountAndDateRange(ledgerAccount.getId(), startDateTime, endDateTime);
-
-        // 3. Sort by Date ASC for calculation
-        transactions.sort(java.util.Comparator.comparing(com.fintech.finpro.entity.LedgerTransaction::getCreatedAt));
-
-        List<com.fintech.finpro.dto.BankTransactionDTO> transactionDTOs = new java.util.ArrayList<>();
-        BigDecimal runningBalance = openingBalance;
-
-        for (com.fintech.finpro.entity.LedgerTransaction t : transactions) {
-            BigDecimal amount = t.getAmount();
-
-            // Ledger Logic:
-            // If this account is Credit -> Add
-            // If this account is Debit -> Subtract
-            if (t.getCreditAccount().getId().equals(ledgerAccount.getId())) {
-                runningBalance = runningBalance.add(amount);
-            } else if (t.getDebitAccount().getId().equals(ledgerAccount.getId())) {
-                runningBalance = runningBalance.subtract(amount);
-            }
-
-            transactionDTOs.add(com.fintech.finpro.dto.BankTransactionDTO.builder()
-                    .id(t.getId())
-                    .date(t.getCreatedAt())
-                    .type(t.getTransactionType().name())
-                    .amount(t.getAmount())
-                    .balanceAfter(runningBalance)
-                    .description(t.getParticulars())
-                    .referenceId(t.getReferenceId())
-                    .status(t.getStatus())
-                    .build());
-        }
-
-        // 4. Reverse to DESC for display
-        java.util.Collections.reverse(transactionDTOs);
-
-        return com.fintech.finpro.dto.AccountStatementDTO.builder()
-                .accountId(accountId)
-                .accountNumber(account.getAccountNumber())
-                .bankName("System Account")
-                .customerName(account.getAccountName())
-                .currentBalance(account.getBalance()) // System Account Balance (Should match runningBalance if up to
-                                                      // date)
-                .transactions(transactionDTOs)
-                .build();
     }
 }
@@ -0,0 +1,156 @@
+package com.fintech.finpro.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out TXN-YYYY-######## transaction ids from blocks reserved on transaction_id_seq.
+ *
+ * The sequence is incremented by the block size (V41), so every nextval reserves the
+ * range (value - blockSize, value] for this instance alone; ids stay unique across
+ * backend instances without any cross-node coordination. Within a block ids are
+ * claimed with a lock-free AtomicLong, and the next block is fetched in the
+ * background once the current one is three-quarters used.
+ */
+@Component
+@Slf4j
+public class TransactionIdAllocator {
+
+    private static final String SEQUENCE_NAME = "transaction_id_seq";
+
+    private final LongSupplier sequence;
+    private final LongSupplier increment;
+    private final ExecutorService refiller;
+
+    private final AtomicReference<Block> current = new AtomicReference<>(Block.EMPTY);
+    private final AtomicReference<CompletableFuture<Block>> standby = new AtomicReference<>();
+    private final Object switchLock = new Object();
+    private volatile long blockSize;
+
+    @Autowired
+    public TransactionIdAllocator(JdbcTemplate jdbcTemplate) {
+        this(() -> jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE_NAME + "')", Long.class),
+                () -> {
+                    Long inc = jdbcTemplate.queryForObject(
+                            "SELECT increment_by FROM pg_sequences WHERE sequencename = ?", Long.class,
+                            SEQUENCE_NAME);
+                    return inc != null ? inc : 1L;
+                });
+    }
+
+    TransactionIdAllocator(LongSupplier sequence, LongSupplier increment) {
+        this.sequence = sequence;
+        this.increment = increment;
+        this.refiller = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "txn-id-refill");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Next transaction reference, e.g. TXN-2026-00001234
+     */
+    public String nextTransactionId() {
+        return format(java.time.Year.now().getValue(), nextValue());
+    }
+
+    public long nextValue() {
+        while (true) {
+            Block block = current.get();
+            long value = block.next.getAndIncrement();
+            if (value <= block.last) {
+                if (value == block.refillAt) {
+                    prefetch();
+                }
+                return value;
+            }
+            switchBlock(block);
+        }
+    }
+
+    private void switchBlock(Block exhausted) {
+        synchronized (switchLock) {
+            // Another thread may already have installed a fresh block
+            if (current.get() != exhausted) {
+                return;
+            }
+            CompletableFuture<Block> prefetched = standby.getAndSet(null);
+            Block next = null;
+            if (prefetched != null) {
+                try {
+                    next = prefetched.join();
+                } catch (CompletionException e) {
+                    log.warn("Background transaction id refill failed, fetching inline: {}", e.getMessage());
+                }
+            }
+            current.set(next != null ? next : fetchBlock());
+        }
+    }
+
+    private void prefetch() {
+        CompletableFuture<Block> future = new CompletableFuture<>();
+        if (standby.compareAndSet(null, future)) {
+            refiller.execute(() -> {
+                try {
+                    future.complete(fetchBlock());
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+    }
+
+    private Block fetchBlock() {
+        long size = blockSize;
+        if (size <= 0) {
+            size = Math.max(1L, increment.getAsLong());
+            blockSize = size;
+            log.info("Transaction ids are reserved in blocks of {}", size);
+        }
+        long hi = sequence.getAsLong();
+        // A fresh sequence returns its start value first, which is below one full block
+        return new Block(Math.max(1L, hi - size + 1), hi);
+    }
+
+    static String format(int year, long seq) {
+        String digits = Long.toString(seq);
+        StringBuilder sb = new StringBuilder(14 + Math.max(8, digits.length()));
+        sb.append("TXN-").append(year).append('-');
+        for (int i = digits.length(); i < 8; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refiller.shutdownNow();
+    }
+
+    private static final class Block {
+        static final Block EMPTY = new Block(1, 0);
+
+        final AtomicLong next;
+        final long last;
+        final long refillAt;
+
+        Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+            // Start fetching the next block when a quarter of this one is left
+            this.refillAt = last - (last - first + 1) / 4;
+        }
+    }
+}
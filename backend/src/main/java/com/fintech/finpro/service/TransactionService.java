@@ -69,6 +69,80 @@ public class TransactionService {
                                 bankAccount);
         }
 
+        /**
+         * One customer deposit for depositToCustomers
+         */
+        public record CustomerDeposit(Long customerId, BigDecimal amount,
+                        com.fintech.finpro.entity.CustomerBankAccount bankAccount) {
+        }
+
+        /**
+         * Deposit to many customers in one batch posting, with the same accounts and
+         * particulars as depositToCustomer
+         *
+         * @return the transaction references, in deposit order
+         */
+        @Transactional
+        public java.util.List<String> depositToCustomers(java.util.List<CustomerDeposit> deposits, String remarks,
+                        Long makerId) {
+                if (deposits.isEmpty()) {
+                        return java.util.List.of();
+                }
+                java.util.Map<Long, Customer> customers = new java.util.HashMap<>();
+                customerRepository.findAllById(deposits.stream().map(CustomerDeposit::customerId).distinct()
+                                .collect(java.util.stream.Collectors.toList()))
+                                .forEach(customer -> customers.put(customer.getId(), customer));
+
+                java.util.Map<Long, String> customerNames = new java.util.HashMap<>();
+                java.util.Map<Long, String> investorNames = new java.util.HashMap<>();
+                for (CustomerDeposit deposit : deposits) {
+                        Customer customer = customers.get(deposit.customerId());
+                        if (customer == null) {
+                                throw new RuntimeException("Customer not found: " + deposit.customerId());
+                        }
+                        customerNames.put(customer.getId(), customer.getFullName() + " - Ledger");
+                        if (customer.getInvestor() != null) {
+                                investorNames.put(customer.getInvestor().getId(),
+                                                customer.getInvestor().getUser().getFullName() + " - Investment Ledger");
+                        }
+                }
+                java.util.Map<Long, LedgerAccount> customerAccounts = ledgerService
+                                .getOrCreateAccounts(LedgerAccountType.CUSTOMER_LEDGER, customerNames);
+                java.util.Map<Long, LedgerAccount> investorAccounts = ledgerService
+                                .getOrCreateAccounts(LedgerAccountType.INVESTOR_LEDGER, investorNames);
+                LedgerAccount coreCapital = customers.values().stream()
+                                .anyMatch(customer -> customer.getInvestor() == null)
+                                                ? ledgerService.getOrCreateAccount("Core Capital",
+                                                                LedgerAccountType.CORE_CAPITAL, null)
+                                                : null;
+
+                java.util.List<LedgerPosting> postings = new java.util.ArrayList<>(deposits.size());
+                for (CustomerDeposit deposit : deposits) {
+                        Customer customer = customers.get(deposit.customerId());
+                        LedgerAccount sourceAcc;
+                        String sourceParticulars;
+                        if (customer.getInvestor() != null) {
+                                sourceAcc = investorAccounts.get(customer.getInvestor().getId());
+                                sourceParticulars = String.format("Investment for %s (%s): %s",
+                                                customer.getFullName(), customer.getBank().getName(), remarks);
+                        } else {
+                                sourceAcc = coreCapital;
+                                sourceParticulars = String.format("Core Capital Deposit for %s (%s): %s",
+                                                customer.getFullName(), customer.getBank().getName(), remarks);
+                        }
+                        postings.add(LedgerPosting.builder()
+                                        .debitAccount(sourceAcc)
+                                        .creditAccount(customerAccounts.get(customer.getId()))
+                                        .amount(deposit.amount())
+                                        .particulars(sourceParticulars)
+                                        .type(LedgerTransactionType.DEPOSIT)
+                                        .makerId(makerId)
+                                        .bankAccount(deposit.bankAccount())
+                                        .build());
+                }
+                return ledgerService.recordTransactions(postings);
+        }
+
         /**
          * Backward compatibility
          */
@@ -66,35 +66,25 @@ public class TransactionVerificationService {
                     transaction.getAmount(),
                     transaction.getDescription(),
                     checkerId,
-                    transaction.getAccount()); // Pass bank account
-
-            // Update physical bank account balance
-            CustomerBankAccount account = transaction.getAccount();
-            if (account != null) {
-                account.setBalance(account.getBalance().add(transaction.getAmount()));
-                bankAccountRepository.save(account);
-            }
+                    transaction.getAccount()); // The linked DEPOSIT posting credits the bank account balance
         } else if ("WITHDRAWAL".equals(type)) {
             // Process customer withdrawal from ledger
             if (transaction.getCustomer() == null) {
                 throw new RuntimeException("Customer not found in transaction");
             }
+            // Lock the bank account and check its available (unheld) balance; the linked
+            // WITHDRAWAL posting below is the only write to that balance
+            CustomerBankAccount account = transaction.getAccount();
+            if (account != null && bankAccountRepository.findCoveredForUpdate(account.getId(),
+                    transaction.getAmount()).isEmpty()) {
+                throw new RuntimeException("Insufficient balance in physical bank account");
+            }
             transactionService.withdrawalFromCustomer(
                     transaction.getCustomer().getId(),
                     transaction.getAmount(),
                     transaction.getDescription(),
                     checkerId,
-                    transaction.getAccount()); // Pass bank account
-
-            // Update physical bank account balance
-            CustomerBankAccount account = transaction.getAccount();
-            if (account != null) {
-                if (account.getBalance().compareTo(transaction.getAmount()) < 0) {
-                    throw new RuntimeException("Insufficient balance in physical bank account");
-                }
-                account.setBalance(account.getBalance().subtract(transaction.getAmount()));
-                bankAccountRepository.save(account);
-            }
+                    account);
         }
 
         transaction.approve(checkerId);
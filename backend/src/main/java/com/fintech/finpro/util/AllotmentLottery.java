@@ -0,0 +1,111 @@
+package com.fintech.finpro.util;
+
+import java.util.SplittableRandom;
+
+/**
+ * Oversubscribed IPO allotment over primitive arrays: a minimum-unit lottery followed by
+ * pro-rata distribution of what is left. Applicants are given as parallel arrays in a
+ * fixed order (application id ascending), so the same input and seed always produce the
+ * same allotment. Apart from one int index array and the result, nothing is allocated
+ * per applicant.
+ *
+ * Shares are allotted in lots of lotSize (the IPO's minimum quantity):
+ * - total applied within the offer: every applicant gets the applied quantity
+ * - fewer lots than applicants: lots are drawn by lottery, one per winner
+ * - otherwise every applicant gets one lot, and the remaining lots are split in proportion
+ *   to the lots each applied for beyond the first; lots left over by rounding down go one
+ *   each to applicants in random order
+ */
+public final class AllotmentLottery {
+
+    private AllotmentLottery() {
+    }
+
+    /**
+     * @param appliedQuantities shares applied for, per applicant
+     * @param sharesOffered shares available for allotment
+     * @param lotSize minimum allotment unit in shares
+     * @param seed lottery seed; record it to reproduce the draw
+     * @return shares allotted per applicant, parallel to appliedQuantities
+     */
+    public static int[] allot(int[] appliedQuantities, long sharesOffered, int lotSize, long seed) {
+        if (lotSize <= 0) {
+            throw new IllegalArgumentException("Lot size must be positive");
+        }
+        if (sharesOffered < 0) {
+            throw new IllegalArgumentException("Shares offered must not be negative");
+        }
+        int n = appliedQuantities.length;
+        int[] allotted = new int[n];
+
+        long totalApplied = 0;
+        for (int quantity : appliedQuantities) {
+            if (quantity < 0) {
+                throw new IllegalArgumentException("Applied quantity must not be negative");
+            }
+            totalApplied += quantity;
+        }
+        if (totalApplied <= sharesOffered) {
+            System.arraycopy(appliedQuantities, 0, allotted, 0, n);
+            return allotted;
+        }
+
+        // Applicants that applied for at least one lot, in input order
+        int[] order = new int[n];
+        int eligible = 0;
+        long excessLots = 0;
+        for (int i = 0; i < n; i++) {
+            int lots = appliedQuantities[i] / lotSize;
+            if (lots > 0) {
+                order[eligible++] = i;
+                excessLots += lots - 1;
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        long lotsOffered = sharesOffered / lotSize;
+        if (lotsOffered < eligible) {
+            // Partial Fisher-Yates: the first lotsOffered positions are the winners
+            for (int k = 0; k < lotsOffered; k++) {
+                int j = k + random.nextInt(eligible - k);
+                int winner = order[j];
+                order[j] = order[k];
+                order[k] = winner;
+                allotted[winner] = lotSize;
+            }
+            return allotted;
+        }
+
+        long remaining = lotsOffered - eligible;
+        if (remaining >= excessLots) {
+            // Only reachable when applied quantities are not whole lots; every full lot fits
+            for (int k = 0; k < eligible; k++) {
+                int i = order[k];
+                allotted[i] = appliedQuantities[i] / lotSize * lotSize;
+            }
+            return allotted;
+        }
+
+        long distributed = 0;
+        for (int k = 0; k < eligible; k++) {
+            int i = order[k];
+            long extra = remaining * (appliedQuantities[i] / lotSize - 1) / excessLots;
+            allotted[i] = (int) (1 + extra) * lotSize;
+            distributed += extra;
+        }
+
+        // Lots lost to rounding: one each, in random order, to applicants still below their lots
+        long leftover = remaining - distributed;
+        for (int k = 0; k < eligible && leftover > 0; k++) {
+            int j = k + random.nextInt(eligible - k);
+            int i = order[j];
+            order[j] = order[k];
+            order[k] = i;
+            if (allotted[i] + lotSize <= appliedQuantities[i]) {
+                allotted[i] += lotSize;
+                leftover--;
+            }
+        }
+        return allotted;
+    }
+}
@@ -5,41 +5,33 @@ import com.fintech.finpro.dto.BankTransactionDTO;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
-import java.io.PrintWriter;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class CsvExportService {
 
     private static final String CSV_HEADER = "Date,Transaction ID,Description,Reference,Type,Amount,Status\n";
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     public byte[] generateStatementCsv(AccountStatementDTO statement) {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream();
-                PrintWriter writer = new PrintWriter(out)) {
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            CsvWriter writer = new CsvWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
 
             // Write Header
-            writer.write(CSV_HEADER);
+            writer.raw(CSV_HEADER);
 
             // Write Rows
             List<BankTransactionDTO> transactions = statement.getTransactions();
             if (transactions != null) {
                 for (BankTransactionDTO txn : transactions) {
-                    writer.write(escapeSpecialCharacters(txn.getDate().format(DATE_FORMATTER)));
-                    writer.write(",");
-                    writer.write(escapeSpecialCharacters(String.valueOf(txn.getId())));
-                    writer.write(",");
-                    writer.write(escapeSpecialCharacters(txn.getDescription()));
-                    writer.write(",");
-                    writer.write(escapeSpecialCharacters(txn.getReferenceId()));
-                    writer.write(",");
-                    writer.write(escapeSpecialCharacters(txn.getType()));
-                    writer.write(",");
-                    writer.write(escapeSpecialCharacters(String.valueOf(txn.getAmount())));
-                    writer.write(",");
-                    writer.write(escapeSpecialCharacters(txn.getStatus()));
-                    writer.write("\n");
+                    writeRow(writer, txn);
                 }
             }
 
@@ -50,15 +42,54 @@ public class CsvExportService {
         }
     }
 
-    private String escapeSpecialCharacters(String data) {
-        if (data == null) {
-            return "";
+    /**
+     * Write a statement CSV straight to the given stream as rows arrive.
+     * The source is called once with a consumer that writes each row; only the
+     * write buffer is held in memory.
+     */
+    public void writeStatementCsv(OutputStream out, boolean gzip, Consumer<Consumer<BankTransactionDTO>> source)
+            throws IOException {
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        CsvWriter writer = new CsvWriter(
+                new OutputStreamWriter(gzipOut != null ? gzipOut : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        writer.raw(CSV_HEADER);
+        try {
+            source.accept(txn -> {
+                try {
+                    writeRow(writer, txn);
+                } catch (IOException e) {
+                    // Client went away: abort the query
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+        out.flush();
+    }
+
+    private void writeRow(CsvWriter writer, BankTransactionDTO txn) throws IOException {
+        writer.field(txn.getDate());
+        if (txn.getId() != null) {
+            writer.field(txn.getId().longValue());
+        } else {
+            writer.field("null");
         }
-        String escapedData = data.replaceAll("\\R", " ");
-        if (data.contains(",") || data.contains("\"") || data.contains("'")) {
-            data = data.replace("\"", "\"\"");
-            escapedData = "\"" + data + "\"";
+        writer.field(txn.getDescription())
+                .field(txn.getReferenceId())
+                .field(txn.getType());
+        if (txn.getAmount() != null) {
+            writer.field(txn.getAmount());
+        } else {
+            writer.field("null");
         }
-        return escapedData;
+        writer.field(txn.getStatus())
+                .endRow();
     }
 }
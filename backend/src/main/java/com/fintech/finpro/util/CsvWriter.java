@@ -0,0 +1,264 @@
+package com.fintech.finpro.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Buffered CSV writer for exports. Fields are escaped and numbers and timestamps are
+ * formatted directly into a char buffer, without regexes or intermediate Strings.
+ *
+ * Escaping rules (same as the original statement export):
+ * - a field containing a comma, double quote or single quote is wrapped in double quotes,
+ *   with embedded double quotes doubled and line breaks kept as-is
+ * - otherwise every line break (as matched by the regex \R, so CRLF counts once) becomes a space
+ * - null is written as an empty field
+ *
+ * Not thread-safe; use one instance per export.
+ */
+public final class CsvWriter implements Closeable, Flushable {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int MAX_FAST_SCALE = 18;
+
+    private final Writer out;
+    private final char[] buf;
+    private final char[] digits = new char[20];
+    private int pos;
+    private boolean rowStarted;
+
+    public CsvWriter(Writer out) {
+        this(out, 8192);
+    }
+
+    public CsvWriter(Writer out, int bufferSize) {
+        this.out = out;
+        this.buf = new char[Math.max(64, bufferSize)];
+    }
+
+    /**
+     * Write a line as-is (e.g. a header), including its line terminator
+     */
+    public CsvWriter raw(String line) throws IOException {
+        for (int i = 0, n = line.length(); i < n; i++) {
+            put(line.charAt(i));
+        }
+        rowStarted = false;
+        return this;
+    }
+
+    public CsvWriter field(CharSequence value) throws IOException {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        int n = value.length();
+        boolean quote = false;
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\'') {
+                quote = true;
+                break;
+            }
+        }
+
+        if (quote) {
+            put('"');
+            for (int i = 0; i < n; i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    put('"');
+                }
+                put(c);
+            }
+            put('"');
+            return this;
+        }
+
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (isLineBreak(c)) {
+                if (c == '\r' && i + 1 < n && value.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                put(' ');
+            } else {
+                put(c);
+            }
+        }
+        return this;
+    }
+
+    public CsvWriter field(long value) throws IOException {
+        separator();
+        writeLong(value);
+        return this;
+    }
+
+    /**
+     * Same text as BigDecimal.toString(). Plain values with up to 18 digits are formatted
+     * from the unscaled value; anything else (exponent notation, huge values) falls back
+     * to toString().
+     */
+    public CsvWriter field(BigDecimal value) throws IOException {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        int scale = value.scale();
+        int precision = value.precision();
+        // toString() switches to exponent notation when scale < 0 or the adjusted exponent < -6
+        if (scale < 0 || scale > MAX_FAST_SCALE || precision > 18 || precision - scale - 1 < -6) {
+            putAll(value.toString());
+            return this;
+        }
+
+        long unscaled = value.unscaledValue().longValue();
+        if (unscaled < 0) {
+            put('-');
+            unscaled = -unscaled;
+        }
+        int len = toDigits(unscaled);
+        int start = digits.length - len;
+        if (scale == 0) {
+            putDigits(start, len);
+            return this;
+        }
+        if (len > scale) {
+            putDigits(start, len - scale);
+            put('.');
+            putDigits(start + len - scale, scale);
+        } else {
+            // 0.00ddd: pad with zeros after the point up to the scale
+            put('0');
+            put('.');
+            for (int i = len; i < scale; i++) {
+                put('0');
+            }
+            putDigits(start, len);
+        }
+        return this;
+    }
+
+    /**
+     * Formatted as yyyy-MM-dd HH:mm:ss
+     */
+    public CsvWriter field(LocalDateTime value) throws IOException {
+        separator();
+        if (value == null) {
+            return this;
+        }
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            putAll(value.format(DATE_TIME_FORMATTER));
+            return this;
+        }
+        put4(year);
+        put('-');
+        put2(value.getMonthValue());
+        put('-');
+        put2(value.getDayOfMonth());
+        put(' ');
+        put2(value.getHour());
+        put(':');
+        put2(value.getMinute());
+        put(':');
+        put2(value.getSecond());
+        return this;
+    }
+
+    public CsvWriter endRow() throws IOException {
+        put('\n');
+        rowStarted = false;
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+        out.close();
+    }
+
+    private void separator() throws IOException {
+        if (rowStarted) {
+            put(',');
+        }
+        rowStarted = true;
+    }
+
+    private static boolean isLineBreak(char c) {
+        return c == '\n' || c == '\r' || c == '\u000B' || c == '\u000C'
+                || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            putAll(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            put('-');
+            value = -value;
+        }
+        int len = toDigits(value);
+        putDigits(digits.length - len, len);
+    }
+
+    /** Digits of a non-negative value, right-aligned in the scratch array; returns the count */
+    private int toDigits(long value) {
+        int i = digits.length;
+        do {
+            digits[--i] = (char) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        return digits.length - i;
+    }
+
+    private void putDigits(int from, int count) throws IOException {
+        for (int i = from, end = from + count; i < end; i++) {
+            put(digits[i]);
+        }
+    }
+
+    private void put2(int v) throws IOException {
+        put((char) ('0' + v / 10));
+        put((char) ('0' + v % 10));
+    }
+
+    private void put4(int v) throws IOException {
+        put((char) ('0' + v / 1000));
+        put((char) ('0' + (v / 100) % 10));
+        put((char) ('0' + (v / 10) % 10));
+        put((char) ('0' + v % 10));
+    }
+
+    private void putAll(String s) throws IOException {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            put(s.charAt(i));
+        }
+    }
+
+    private void put(char c) throws IOException {
+        if (pos == buf.length) {
+            flushBuffer();
+        }
+        buf[pos++] = c;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.fintech.finpro.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque position in a statement read newest-first: the (created_at, id) of the last row
+ * returned and the running balance of the row that follows it.
+ *
+ * The balance is carried by the client, so the token is signed with an HMAC over the
+ * position, the balance and a scope naming the statement (account and date range).
+ * A token that was altered or issued for another statement is rejected.
+ */
+public final class StatementCursor {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final LocalDateTime createdAt;
+    private final long id;
+    private final BigDecimal balance;
+
+    public StatementCursor(LocalDateTime createdAt, long id, BigDecimal balance) {
+        this.createdAt = createdAt;
+        this.id = id;
+        this.balance = balance;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    /**
+     * Scope binding a cursor to one statement: the kind of account, its id and the range
+     */
+    public static String scope(String kind, Long accountId, LocalDateTime from, LocalDateTime toExclusive) {
+        return kind + ":" + accountId + ":" + from + ":" + toExclusive;
+    }
+
+    public String encode(String scope, byte[] key) {
+        String raw = createdAt + "|" + id + "|" + balance.toPlainString();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(raw.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(sign(raw, scope, key));
+    }
+
+    public static StatementCursor decode(String token, String scope, byte[] key) {
+        try {
+            int dot = token.indexOf('.');
+            if (dot < 0) {
+                throw new IllegalArgumentException("Unsigned cursor");
+            }
+            String raw = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(raw, scope, key))) {
+                throw new IllegalArgumentException("Cursor signature mismatch");
+            }
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Unexpected cursor format");
+            }
+            return new StatementCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]),
+                    new BigDecimal(parts[2]));
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            throw new RuntimeException("Invalid statement cursor");
+        }
+    }
+
+    private static byte[] sign(String raw, String scope, byte[] key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            mac.update(scope.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(raw.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign statement cursor", e);
+        }
+    }
+}
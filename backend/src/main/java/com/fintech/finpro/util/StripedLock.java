@@ -0,0 +1,98 @@
+package com.fintech.finpro.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of reentrant locks addressed by a numeric key (e.g. an account id).
+ * Keys that hash to different stripes never contend; keys that share a stripe
+ * queue behind each other.
+ *
+ * Multiple keys are always acquired in ascending stripe order, so two callers
+ * locking overlapping key sets cannot deadlock each other.
+ */
+public class StripedLock {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLock(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        int size = Integer.highestOneBit(stripeCount - 1) << 1;
+        if (size <= 0) {
+            size = 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public int size() {
+        return stripes.length;
+    }
+
+    public int indexFor(long key) {
+        // Spread the bits so sequential ids do not cluster on neighbouring stripes
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Acquire the stripes for all keys in ascending stripe order.
+     * Returns the acquired locks so the caller can release them with {@link #unlockAll(List)}.
+     */
+    public List<ReentrantLock> lockAll(long[] keys, long timeout, TimeUnit unit) {
+        return lockAll(keys, -1, timeout, unit);
+    }
+
+    /**
+     * Acquire the stripes for all keys when the caller already holds stripes up to index heldUpTo.
+     * Stripes at or below heldUpTo are only taken if they are free (or already held by this
+     * thread): waiting for them would break the ascending order and could deadlock. Stripes
+     * above heldUpTo are waited for in ascending order as usual.
+     */
+    public List<ReentrantLock> lockAll(long[] keys, int heldUpTo, long timeout, TimeUnit unit) {
+        boolean[] needed = new boolean[stripes.length];
+        for (long key : keys) {
+            needed[indexFor(key)] = true;
+        }
+
+        List<ReentrantLock> acquired = new ArrayList<>(keys.length);
+        try {
+            for (int i = 0; i < needed.length; i++) {
+                if (!needed[i]) {
+                    continue;
+                }
+                ReentrantLock lock = stripes[i];
+                if (i <= heldUpTo) {
+                    if (!lock.tryLock()) {
+                        throw new RuntimeException("Account lock needed out of order is busy");
+                    }
+                } else if (!lock.tryLock(timeout, unit)) {
+                    throw new RuntimeException("Timed out waiting for account lock");
+                }
+                acquired.add(lock);
+            }
+            return acquired;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unlockAll(acquired);
+            throw new RuntimeException("Interrupted while waiting for account lock", e);
+        } catch (RuntimeException e) {
+            unlockAll(acquired);
+            throw e;
+        }
+    }
+
+    public void unlockAll(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+}
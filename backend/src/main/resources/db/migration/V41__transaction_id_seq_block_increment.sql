@@ -0,0 +1,6 @@
+-- V41: Reserve transaction ids in blocks
+-- Each nextval now hands the calling backend instance the range (value - 1000, value],
+-- which TransactionIdAllocator then issues from memory. Existing ids stay below the
+-- next block because nextval continues from last_value.
+
+ALTER SEQUENCE transaction_id_seq INCREMENT BY 1000;
@@ -0,0 +1,40 @@
+-- V42: One ledger account per resolution key
+-- Owned accounts (customer/investor/capital ledgers) are resolved by (account_type, owner_id),
+-- system accounts by (account_type, account_name). Merge existing duplicates into the oldest
+-- row (carrying balances and transactions over) and enforce the keys with unique indexes so
+-- concurrent getOrCreateAccount calls can use INSERT ... ON CONFLICT DO NOTHING.
+
+DO $$
+DECLARE
+    r RECORD;
+BEGIN
+    FOR r IN
+        SELECT id, keeper_id
+        FROM (
+            SELECT id,
+                   FIRST_VALUE(id) OVER (
+                       PARTITION BY account_type,
+                                    COALESCE(owner_id::TEXT, '#' || account_name)
+                       ORDER BY id) AS keeper_id
+            FROM ledger_accounts
+        ) ranked
+        WHERE id <> keeper_id
+    LOOP
+        RAISE NOTICE 'Merging ledger account % into %', r.id, r.keeper_id;
+
+        UPDATE ledger_accounts
+        SET balance = COALESCE(balance, 0) + COALESCE((SELECT balance FROM ledger_accounts WHERE id = r.id), 0)
+        WHERE id = r.keeper_id;
+
+        UPDATE ledger_transactions SET debit_account_id = r.keeper_id WHERE debit_account_id = r.id;
+        UPDATE ledger_transactions SET credit_account_id = r.keeper_id WHERE credit_account_id = r.id;
+
+        DELETE FROM ledger_accounts WHERE id = r.id;
+    END LOOP;
+END $$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ledger_accounts_type_owner
+    ON ledger_accounts(account_type, owner_id) WHERE owner_id IS NOT NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ledger_accounts_system_type_name
+    ON ledger_accounts(account_type, account_name) WHERE owner_id IS NULL;
@@ -0,0 +1,26 @@
+-- V43: End-of-day closing balances
+-- One row per account per business day with activity. Opening balances are computed as
+-- the latest snapshot before the date plus the transactions since that snapshot.
+-- account_kind: LEDGER (ledger_accounts.id) or BANK (customer_bank_accounts.id)
+
+CREATE TABLE IF NOT EXISTS account_balance_snapshots (
+    id BIGSERIAL PRIMARY KEY,
+    account_kind VARCHAR(10) NOT NULL,
+    account_id BIGINT NOT NULL,
+    business_date DATE NOT NULL,
+    closing_balance DECIMAL(15, 2) NOT NULL,
+    txn_count BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    created_by VARCHAR(100),
+    updated_by VARCHAR(100),
+
+    CONSTRAINT chk_balance_snapshot_kind CHECK (account_kind IN ('LEDGER', 'BANK')),
+    CONSTRAINT uq_balance_snapshot UNIQUE (account_kind, account_id, business_date)
+);
+
+-- Per-account lookups for the opening-balance delta
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_credit_created ON ledger_transactions(credit_account_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_debit_created ON ledger_transactions(debit_account_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_bank_created ON ledger_transactions(customer_bank_account_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_created ON ledger_transactions(created_at);
@@ -0,0 +1,12 @@
+-- V44: Keyset pagination indexes for statements
+-- Statement pages are read newest first by (created_at, id) within one account; with the id
+-- in the index every page is a bounded backward range scan.
+
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_credit_keyset ON ledger_transactions(credit_account_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_debit_keyset ON ledger_transactions(debit_account_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_bank_keyset ON ledger_transactions(customer_bank_account_id, created_at, id);
+
+-- Superseded by the keyset indexes above (same leading columns)
+DROP INDEX IF EXISTS idx_ledger_txn_credit_created;
+DROP INDEX IF EXISTS idx_ledger_txn_debit_created;
+DROP INDEX IF EXISTS idx_ledger_txn_bank_created;
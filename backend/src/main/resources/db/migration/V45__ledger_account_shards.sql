@@ -0,0 +1,18 @@
+-- V45: Sharded sub-accounts for hot system ledger accounts
+-- A parent account with shard_count > 1 spreads its postings over itself (shard 0) and
+-- child rows (shard 1..n-1) so concurrent postings lock different rows. Child rows keep
+-- their own balances and transactions; reads add them up. Retired shards (index >= the
+-- parent's shard_count) stay in place for history.
+
+ALTER TABLE ledger_accounts ADD COLUMN IF NOT EXISTS shard_count INT NOT NULL DEFAULT 1;
+ALTER TABLE ledger_accounts ADD COLUMN IF NOT EXISTS parent_account_id BIGINT REFERENCES ledger_accounts(id);
+ALTER TABLE ledger_accounts ADD COLUMN IF NOT EXISTS shard_index INT;
+
+ALTER TABLE ledger_accounts DROP CONSTRAINT IF EXISTS chk_ledger_accounts_shard;
+ALTER TABLE ledger_accounts ADD CONSTRAINT chk_ledger_accounts_shard CHECK (
+    shard_count >= 1
+    AND (parent_account_id IS NULL) = (shard_index IS NULL)
+    AND (parent_account_id IS NULL OR (shard_index >= 1 AND owner_id IS NULL)));
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ledger_accounts_parent_shard
+    ON ledger_accounts(parent_account_id, shard_index) WHERE parent_account_id IS NOT NULL;
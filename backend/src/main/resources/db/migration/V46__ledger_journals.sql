@@ -0,0 +1,23 @@
+-- V46: Journal headers for multi-leg business events
+-- A business event (IPO allotment, share sell settlement, ...) writes one journal row and
+-- its balanced legs as ledger_transactions rows pointing back at it. Every leg is a
+-- debit/credit pair, so each journal balances by construction.
+
+CREATE TABLE IF NOT EXISTS ledger_journals (
+    id BIGSERIAL PRIMARY KEY,
+    journal_type VARCHAR(50) NOT NULL,
+    reference VARCHAR(100),
+    description TEXT,
+    maker_id BIGINT,
+    leg_count INT NOT NULL,
+    total_amount DECIMAL(15, 2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    created_by VARCHAR(100),
+    updated_by VARCHAR(100)
+);
+
+CREATE INDEX IF NOT EXISTS idx_ledger_journals_reference ON ledger_journals(reference);
+
+ALTER TABLE ledger_transactions ADD COLUMN IF NOT EXISTS journal_id BIGINT REFERENCES ledger_journals(id);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_journal ON ledger_transactions(journal_id) WHERE journal_id IS NOT NULL;
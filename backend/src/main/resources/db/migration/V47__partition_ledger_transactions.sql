@@ -0,0 +1,97 @@
+-- V47: Range-partition ledger_transactions by created_at month
+-- Statement, export and opening-balance queries all bound created_at, so the planner
+-- prunes to the months in range. Partitions are named ledger_transactions_pYYYYMM;
+-- create_ledger_transaction_partitions() adds missing months and is called ahead of time
+-- by LedgerPartitionMaintenance. Rows outside every month land in ledger_transactions_default.
+--
+-- The primary key becomes (id, created_at) because a partitioned table's unique keys must
+-- contain the partition key. id still comes from the same sequence and stays unique. The
+-- foreign key from transaction_fees.transaction_id cannot point at (id) any more and is dropped.
+
+CREATE OR REPLACE FUNCTION create_ledger_transaction_partitions(from_month DATE, to_month DATE)
+RETURNS INT
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    m DATE := date_trunc('month', from_month)::date;
+    last_month DATE := date_trunc('month', to_month)::date;
+    part TEXT;
+    created INT := 0;
+BEGIN
+    WHILE m <= last_month LOOP
+        part := 'ledger_transactions_p' || to_char(m, 'YYYYMM');
+        IF to_regclass(part) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF ledger_transactions FOR VALUES FROM (%L) TO (%L)',
+                    part, m, (m + INTERVAL '1 month')::date);
+            created := created + 1;
+        END IF;
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+-- 1. Move the current table aside; its indexes and key are recreated on the new table
+ALTER TABLE transaction_fees DROP CONSTRAINT IF EXISTS transaction_fees_transaction_id_fkey;
+ALTER TABLE ledger_transactions RENAME TO ledger_transactions_unpartitioned;
+ALTER TABLE ledger_transactions_unpartitioned RENAME CONSTRAINT ledger_transactions_pkey
+    TO ledger_transactions_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_ledger_txn_customer;
+DROP INDEX IF EXISTS idx_ledger_txn_investor;
+DROP INDEX IF EXISTS idx_ledger_txn_credit_created;
+DROP INDEX IF EXISTS idx_ledger_txn_debit_created;
+DROP INDEX IF EXISTS idx_ledger_txn_bank_created;
+DROP INDEX IF EXISTS idx_ledger_txn_created;
+DROP INDEX IF EXISTS idx_ledger_txn_credit_keyset;
+DROP INDEX IF EXISTS idx_ledger_txn_debit_keyset;
+DROP INDEX IF EXISTS idx_ledger_txn_bank_keyset;
+DROP INDEX IF EXISTS idx_ledger_txn_journal;
+
+UPDATE ledger_transactions_unpartitioned
+SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP)
+WHERE created_at IS NULL;
+
+-- 2. Partitioned table with the same columns, defaults and checks
+CREATE TABLE ledger_transactions (
+    LIKE ledger_transactions_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Keep the id sequence (pg_get_serial_sequence is used for batch id allocation)
+DO $$
+BEGIN
+    EXECUTE format('ALTER SEQUENCE %s OWNED BY ledger_transactions.id',
+            pg_get_serial_sequence('ledger_transactions_unpartitioned', 'id'));
+END;
+$$;
+
+SELECT create_ledger_transaction_partitions(
+        COALESCE((SELECT MIN(created_at)::date FROM ledger_transactions_unpartitioned), CURRENT_DATE),
+        (CURRENT_DATE + INTERVAL '3 months')::date);
+CREATE TABLE IF NOT EXISTS ledger_transactions_default PARTITION OF ledger_transactions DEFAULT;
+
+-- 3. Copy the rows, then drop the old table
+INSERT INTO ledger_transactions SELECT * FROM ledger_transactions_unpartitioned;
+DROP TABLE ledger_transactions_unpartitioned;
+
+ALTER TABLE ledger_transactions
+ADD CONSTRAINT fk_ledger_txn_debit_account FOREIGN KEY (debit_account_id) REFERENCES ledger_accounts(id),
+ADD CONSTRAINT fk_ledger_txn_credit_account FOREIGN KEY (credit_account_id) REFERENCES ledger_accounts(id),
+ADD CONSTRAINT fk_ledger_txn_customer FOREIGN KEY (customer_id) REFERENCES customers(id),
+ADD CONSTRAINT fk_ledger_txn_customer_bank FOREIGN KEY (customer_bank_account_id) REFERENCES customer_bank_accounts(id),
+ADD CONSTRAINT fk_ledger_txn_system_account FOREIGN KEY (ledger_account_id) REFERENCES system_accounts(id),
+ADD CONSTRAINT fk_ledger_txn_investor FOREIGN KEY (investor_id) REFERENCES investors(id),
+ADD CONSTRAINT fk_ledger_txn_journal FOREIGN KEY (journal_id) REFERENCES ledger_journals(id);
+
+-- 4. Indexes (created on every partition, current and future)
+-- (account, created_at, id) serves statement pages, running balances and opening-balance deltas
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_debit_keyset ON ledger_transactions(debit_account_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_credit_keyset ON ledger_transactions(credit_account_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_bank_keyset ON ledger_transactions(customer_bank_account_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_created ON ledger_transactions(created_at);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_reference ON ledger_transactions(reference_id);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_customer ON ledger_transactions(customer_id);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_investor ON ledger_transactions(investor_id);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_journal ON ledger_transactions(journal_id) WHERE journal_id IS NOT NULL;
+
+ANALYZE ledger_transactions;
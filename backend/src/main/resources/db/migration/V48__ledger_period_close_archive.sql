@@ -0,0 +1,81 @@
+-- V48: Closed-period archive for ledger_transactions
+-- Closing a period moves every monthly partition before the cutoff from ledger_transactions
+-- to ledger_transactions_archive (DETACH + ATTACH, no rows are copied), so the hot table
+-- and its indexes only hold open periods. A carried-forward balance snapshot is written
+-- for every account on the day before the cutoff, so opening balances in open periods never
+-- need the archive. Reads that reach back before the cutoff use ledger_transactions_all.
+--
+-- ledger_transactions_all lists the archive columns explicitly; a column added to
+-- ledger_transactions later must be added to the archive and this view as well.
+
+CREATE TABLE IF NOT EXISTS ledger_transactions_archive (
+    LIKE ledger_transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+ALTER TABLE ledger_transactions_archive ALTER COLUMN id DROP DEFAULT;
+CREATE TABLE IF NOT EXISTS ledger_transactions_archive_default PARTITION OF ledger_transactions_archive DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_archive_debit ON ledger_transactions_archive(debit_account_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_archive_credit ON ledger_transactions_archive(credit_account_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_archive_bank ON ledger_transactions_archive(customer_bank_account_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_ledger_txn_archive_reference ON ledger_transactions_archive(reference_id);
+
+CREATE OR REPLACE VIEW ledger_transactions_all AS
+    SELECT * FROM ledger_transactions
+    UNION ALL
+    SELECT * FROM ledger_transactions_archive;
+
+CREATE TABLE IF NOT EXISTS ledger_period_closes (
+    id BIGSERIAL PRIMARY KEY,
+    closed_before DATE NOT NULL,
+    partitions_archived INT NOT NULL DEFAULT 0,
+    rows_archived BIGINT NOT NULL DEFAULT 0,
+    closed_by BIGINT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    created_by VARCHAR(100),
+    updated_by VARCHAR(100),
+
+    CONSTRAINT uq_ledger_period_closes UNIQUE (closed_before)
+);
+
+-- Move every month before the cutoff (first day of a month) to the archive.
+-- Returns the number of rows archived.
+CREATE OR REPLACE FUNCTION close_ledger_period(cutoff DATE)
+RETURNS BIGINT
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    part RECORD;
+    m DATE;
+    moved BIGINT := 0;
+    n BIGINT;
+BEGIN
+    IF cutoff <> date_trunc('month', cutoff)::date THEN
+        RAISE EXCEPTION 'Period cutoff % is not the first day of a month', cutoff;
+    END IF;
+
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'ledger_transactions'::regclass
+          AND c.relname ~ '^ledger_transactions_p[0-9]{6}$'
+        ORDER BY c.relname
+    LOOP
+        m := to_date(substr(part.relname, length('ledger_transactions_p') + 1), 'YYYYMM');
+        IF m < cutoff THEN
+            EXECUTE format('SELECT COUNT(*) FROM %I', part.relname) INTO n;
+            EXECUTE format('ALTER TABLE ledger_transactions DETACH PARTITION %I', part.relname);
+            EXECUTE format('ALTER TABLE ledger_transactions_archive ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                    part.relname, m, (m + INTERVAL '1 month')::date);
+            moved := moved + n;
+        END IF;
+    END LOOP;
+
+    -- Stray rows from before the first monthly partition
+    INSERT INTO ledger_transactions_archive SELECT * FROM ledger_transactions_default WHERE created_at < cutoff;
+    GET DIAGNOSTICS n = ROW_COUNT;
+    DELETE FROM ledger_transactions_default WHERE created_at < cutoff;
+    RETURN moved + n;
+END;
+$$;
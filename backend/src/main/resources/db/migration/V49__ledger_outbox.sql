@@ -0,0 +1,21 @@
+-- V49: Transactional outbox for ledger postings
+-- Every posting call writes one row here in the same transaction as its ledger rows, so an
+-- event exists exactly when the postings committed. LedgerOutboxRelay publishes unpublished
+-- rows to in-process subscribers (claimed with FOR UPDATE SKIP LOCKED, so several instances
+-- can relay side by side) and stamps published_at.
+
+CREATE TABLE IF NOT EXISTS ledger_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    journal_id BIGINT,
+    transaction_count INT NOT NULL,
+    total_amount DECIMAL(15, 2) NOT NULL,
+    payload JSONB NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error TEXT,
+    published_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_ledger_outbox_unpublished ON ledger_outbox(id) WHERE published_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_ledger_outbox_published ON ledger_outbox(published_at) WHERE published_at IS NOT NULL;
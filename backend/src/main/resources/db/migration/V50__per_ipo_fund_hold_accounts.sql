@@ -0,0 +1,41 @@
+-- V50: One IPO_FUND_HOLD ledger account per IPO (owner_id = ipos.id)
+-- Applications used to hold funds on the single system account "IPO Fund Hold". Money still
+-- on hold for open applications (not ALLOTTED or REJECTED) is moved to the hold account of
+-- its IPO, so allotments debit the account that received the funds. The old system account
+-- keeps its history and whatever balance is left.
+
+DO $$
+DECLARE
+    global_id BIGINT;
+    r RECORD;
+    hold_id BIGINT;
+BEGIN
+    SELECT id INTO global_id FROM ledger_accounts
+    WHERE account_type = 'IPO_FUND_HOLD' AND owner_id IS NULL AND parent_account_id IS NULL
+    ORDER BY id LIMIT 1;
+    IF global_id IS NULL THEN
+        RETURN;
+    END IF;
+
+    FOR r IN
+        SELECT i.id AS ipo_id, i.company_name, SUM(a.amount) AS held
+        FROM ipo_applications a JOIN ipos i ON i.id = a.ipo_id
+        WHERE a.application_status NOT IN ('ALLOTTED', 'REJECTED')
+        GROUP BY i.id, i.company_name
+        HAVING SUM(a.amount) > 0
+    LOOP
+        INSERT INTO ledger_accounts (account_name, account_type, owner_id, balance, currency, status,
+                created_at, updated_at)
+        VALUES (r.company_name || ' - Fund Hold', 'IPO_FUND_HOLD', r.ipo_id, 0, 'NPR', 'ACTIVE', NOW(), NOW())
+        ON CONFLICT DO NOTHING;
+        SELECT id INTO hold_id FROM ledger_accounts WHERE account_type = 'IPO_FUND_HOLD' AND owner_id = r.ipo_id;
+
+        INSERT INTO ledger_transactions (debit_account_id, credit_account_id, amount, particulars,
+                transaction_type, reference_id, status, is_dual_entry, created_at, updated_at)
+        VALUES (global_id, hold_id, r.held, 'IPO fund hold moved to ' || r.company_name || ' hold account',
+                'TRANSFER', 'V50-IPO-HOLD-' || r.ipo_id, 'COMPLETED', false, NOW(), NOW());
+
+        UPDATE ledger_accounts SET balance = COALESCE(balance, 0) - r.held, updated_at = NOW() WHERE id = global_id;
+        UPDATE ledger_accounts SET balance = COALESCE(balance, 0) + r.held, updated_at = NOW() WHERE id = hold_id;
+    END LOOP;
+END $$;
@@ -0,0 +1,6 @@
+-- V51: Indexes for the chunked IPO allotment run
+-- The allotment engine walks an IPO's APPROVED applications in id order (keyset chunks)
+-- and looks up the portfolios of each chunk's customers by scrip symbol.
+
+CREATE INDEX IF NOT EXISTS idx_ipo_apps_ipo_status_id ON ipo_applications(ipo_id, application_status, id);
+CREATE INDEX IF NOT EXISTS idx_customer_portfolios_scrip_customer ON customer_portfolios(scrip_symbol, customer_id);
@@ -0,0 +1,5 @@
+-- V52: Seed of an IPO's allotment lottery
+-- Set on the first allotment run and reused by later runs, so a resumed allotment draws
+-- the same winners and the draw can be reproduced for audit.
+
+ALTER TABLE ipos ADD COLUMN IF NOT EXISTS allotment_seed BIGINT;
@@ -0,0 +1,27 @@
+-- V53: Intake queue for IPO applications
+-- In intake mode an application request is validated against cached IPO/customer data,
+-- stored here and acknowledged with a tracking number (IPQ + zero-padded id). Workers
+-- claim QUEUED rows with FOR UPDATE SKIP LOCKED and turn each batch into holds, postings
+-- and ipo_applications rows; the row then records ACCEPTED with the application id, or
+-- REJECTED with the reason.
+
+CREATE TABLE IF NOT EXISTS ipo_application_intake (
+    id BIGSERIAL PRIMARY KEY,
+    customer_id BIGINT NOT NULL,
+    ipo_id BIGINT NOT NULL,
+    bank_account_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    maker_id BIGINT,
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED',
+    application_id BIGINT,
+    error TEXT,
+    attempts INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_ipo_intake_queued ON ipo_application_intake(id) WHERE status = 'QUEUED';
+
+-- One live request per customer and IPO, so two workers never apply for the same pair
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ipo_intake_customer_ipo ON ipo_application_intake(customer_id, ipo_id)
+    WHERE status <> 'REJECTED';
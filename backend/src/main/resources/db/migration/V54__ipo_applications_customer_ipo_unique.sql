@@ -0,0 +1,21 @@
+-- V54: One application per customer and IPO, enforced by the database
+-- createApplication used to run an exists query before inserting, which cost a round trip
+-- and could still let two concurrent requests through. The insert now relies on this index
+-- and maps its violation to the "already applied" error.
+
+DO $$
+DECLARE
+    duplicates BIGINT;
+BEGIN
+    SELECT COUNT(*) INTO duplicates FROM (
+        SELECT 1 FROM ipo_applications GROUP BY customer_id, ipo_id HAVING COUNT(*) > 1
+    ) d;
+    IF duplicates > 0 THEN
+        RAISE EXCEPTION 'ipo_applications has % customer/IPO pairs with more than one application; resolve them before applying V54', duplicates;
+    END IF;
+END $$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ipo_applications_customer_ipo ON ipo_applications(customer_id, ipo_id);
+
+-- Covered by the leading column of the unique index
+DROP INDEX IF EXISTS idx_ipo_apps_customer;
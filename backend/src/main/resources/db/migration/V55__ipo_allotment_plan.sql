@@ -0,0 +1,19 @@
+-- V55: Persisted allotment plan
+-- The first allotment run stores the drawn quantity of every application and marks the
+-- IPO as started; later runs settle from the stored plan instead of drawing again, and
+-- applications of a started IPO can no longer be approved.
+
+ALTER TABLE ipos ADD COLUMN IF NOT EXISTS allotment_started_at TIMESTAMP;
+
+CREATE TABLE IF NOT EXISTS ipo_allotment_plan (
+    ipo_id BIGINT NOT NULL REFERENCES ipos(id) ON DELETE CASCADE,
+    application_id BIGINT NOT NULL REFERENCES ipo_applications(id) ON DELETE CASCADE,
+    allotted_quantity INTEGER NOT NULL,
+    PRIMARY KEY (ipo_id, application_id)
+);
+
+-- IPOs part-way through an allotment: their plan is drawn on the next run over the
+-- applications still APPROVED, with the shares not yet allotted
+UPDATE ipos SET allotment_started_at = NOW()
+WHERE allotment_started_at IS NULL
+  AND EXISTS (SELECT 1 FROM ipo_applications a WHERE a.ipo_id = ipos.id AND a.application_status = 'ALLOTTED');
@@ -0,0 +1,68 @@
+-- V56: Explicit column lists for the ledger archive
+-- ledger_transactions_all and close_ledger_period() (V48) used SELECT *, which depends on
+-- both tables having the same columns in the same order. They now name every column, so a
+-- column added to ledger_transactions later must be added to ledger_transactions_archive,
+-- this view and the INSERT in close_ledger_period() as well.
+
+DROP VIEW IF EXISTS ledger_transactions_all;
+CREATE VIEW ledger_transactions_all AS
+    SELECT id, debit_account_id, credit_account_id, amount, particulars, remarks, transaction_type,
+        reference_id, maker_id, checker_id, status, created_at, updated_at, tenant_id, created_by, updated_by,
+        customer_id, customer_bank_account_id, ledger_account_id, investor_id, reference_type, reference_id_long,
+        is_dual_entry, journal_id
+    FROM ledger_transactions
+    UNION ALL
+    SELECT id, debit_account_id, credit_account_id, amount, particulars, remarks, transaction_type,
+        reference_id, maker_id, checker_id, status, created_at, updated_at, tenant_id, created_by, updated_by,
+        customer_id, customer_bank_account_id, ledger_account_id, investor_id, reference_type, reference_id_long,
+        is_dual_entry, journal_id
+    FROM ledger_transactions_archive;
+
+-- Move every month before the cutoff (first day of a month) to the archive.
+-- Returns the number of rows archived.
+CREATE OR REPLACE FUNCTION close_ledger_period(cutoff DATE)
+RETURNS BIGINT
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    part RECORD;
+    m DATE;
+    moved BIGINT := 0;
+    n BIGINT;
+BEGIN
+    IF cutoff <> date_trunc('month', cutoff)::date THEN
+        RAISE EXCEPTION 'Period cutoff % is not the first day of a month', cutoff;
+    END IF;
+
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'ledger_transactions'::regclass
+          AND c.relname ~ '^ledger_transactions_p[0-9]{6}$'
+        ORDER BY c.relname
+    LOOP
+        m := to_date(substr(part.relname, length('ledger_transactions_p') + 1), 'YYYYMM');
+        IF m < cutoff THEN
+            EXECUTE format('SELECT COUNT(*) FROM %I', part.relname) INTO n;
+            EXECUTE format('ALTER TABLE ledger_transactions DETACH PARTITION %I', part.relname);
+            EXECUTE format('ALTER TABLE ledger_transactions_archive ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                    part.relname, m, (m + INTERVAL '1 month')::date);
+            moved := moved + n;
+        END IF;
+    END LOOP;
+
+    -- Stray rows from before the first monthly partition
+    INSERT INTO ledger_transactions_archive (id, debit_account_id, credit_account_id, amount, particulars, remarks,
+            transaction_type, reference_id, maker_id, checker_id, status, created_at, updated_at, tenant_id,
+            created_by, updated_by, customer_id, customer_bank_account_id, ledger_account_id, investor_id,
+            reference_type, reference_id_long, is_dual_entry, journal_id)
+    SELECT id, debit_account_id, credit_account_id, amount, particulars, remarks,
+            transaction_type, reference_id, maker_id, checker_id, status, created_at, updated_at, tenant_id,
+            created_by, updated_by, customer_id, customer_bank_account_id, ledger_account_id, investor_id,
+            reference_type, reference_id_long, is_dual_entry, journal_id
+    FROM ledger_transactions_default WHERE created_at < cutoff;
+    GET DIAGNOSTICS n = ROW_COUNT;
+    DELETE FROM ledger_transactions_default WHERE created_at < cutoff;
+    RETURN moved + n;
+END;
+$$;
@@ -0,0 +1,56 @@
+-- V57: create_ledger_transaction_partitions() no longer stops at a month with rows in the default partition
+-- CREATE TABLE ... PARTITION OF fails while ledger_transactions_default holds rows for that
+-- month, and the error aborted the whole call, so no later month was ever created either.
+-- Such a month is now built as a plain table, the default partition's rows for the month are
+-- moved into it and it is attached. A month that still fails is skipped with a warning and
+-- the remaining months are created.
+
+CREATE OR REPLACE FUNCTION create_ledger_transaction_partitions(from_month DATE, to_month DATE)
+RETURNS INT
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    m DATE := date_trunc('month', from_month)::date;
+    last_month DATE := date_trunc('month', to_month)::date;
+    next_month DATE;
+    part TEXT;
+    created INT := 0;
+BEGIN
+    WHILE m <= last_month LOOP
+        part := 'ledger_transactions_p' || to_char(m, 'YYYYMM');
+        next_month := (m + INTERVAL '1 month')::date;
+        IF to_regclass(part) IS NULL THEN
+            BEGIN
+                IF EXISTS (SELECT 1 FROM ledger_transactions_default
+                           WHERE created_at >= m AND created_at < next_month) THEN
+                    EXECUTE format('CREATE TABLE %I (LIKE ledger_transactions INCLUDING DEFAULTS '
+                            'INCLUDING CONSTRAINTS)', part);
+                    EXECUTE format('WITH moved AS (DELETE FROM ledger_transactions_default '
+                            'WHERE created_at >= %L AND created_at < %L RETURNING *) '
+                            'INSERT INTO %I (id, debit_account_id, credit_account_id, amount, particulars, '
+                            'remarks, transaction_type, reference_id, maker_id, checker_id, status, created_at, '
+                            'updated_at, tenant_id, created_by, updated_by, customer_id, customer_bank_account_id, '
+                            'ledger_account_id, investor_id, reference_type, reference_id_long, is_dual_entry, '
+                            'journal_id) '
+                            'SELECT id, debit_account_id, credit_account_id, amount, particulars, remarks, '
+                            'transaction_type, reference_id, maker_id, checker_id, status, created_at, '
+                            'updated_at, tenant_id, created_by, updated_by, customer_id, customer_bank_account_id, '
+                            'ledger_account_id, investor_id, reference_type, reference_id_long, is_dual_entry, '
+                            'journal_id FROM moved', m, next_month, part);
+                    EXECUTE format('ALTER TABLE ledger_transactions ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                            part, m, next_month);
+                ELSE
+                    EXECUTE format('CREATE TABLE %I PARTITION OF ledger_transactions FOR VALUES FROM (%L) TO (%L)',
+                            part, m, next_month);
+                END IF;
+                created := created + 1;
+            EXCEPTION WHEN OTHERS THEN
+                -- Rolled back to the start of this month's block; carry on with the next one
+                RAISE WARNING 'Skipped ledger_transactions partition %: %', part, SQLERRM;
+            END;
+        END IF;
+        m := next_month;
+    END LOOP;
+    RETURN created;
+END;
+$$;
@@ -0,0 +1,77 @@
+package com.fintech.finpro.benchmark;
+
+import com.fintech.finpro.util.AllotmentLottery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IPO allotment over 1M and 5M applicants, 10 shares per lot, 1-100 lots applied each:
+ * a lottery where only every 20th applicant can get a lot, and a pro-rata round where
+ * everyone gets a lot and 5% of the excess demand is distributed.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.fintech.finpro.benchmark.AllotmentLotteryBenchmark
+ * and compare time and gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class AllotmentLotteryBenchmark {
+
+    private static final int LOT = 10;
+
+    @Param({ "1000000", "5000000" })
+    public int applicants;
+
+    private int[] applied;
+    private long lotteryOffer;
+    private long proRataOffer;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(1L);
+        applied = new int[applicants];
+        long excessLots = 0;
+        for (int i = 0; i < applicants; i++) {
+            int lots = 1 + random.nextInt(100);
+            applied[i] = lots * LOT;
+            excessLots += lots - 1;
+        }
+        lotteryOffer = (long) applicants / 20 * LOT;
+        proRataOffer = (applicants + excessLots / 20) * LOT;
+    }
+
+    @Benchmark
+    public int[] lottery() {
+        return AllotmentLottery.allot(applied, lotteryOffer, LOT, 2026L);
+    }
+
+    @Benchmark
+    public int[] proRata() {
+        return AllotmentLottery.allot(applied, proRataOffer, LOT, 2026L);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(AllotmentLotteryBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
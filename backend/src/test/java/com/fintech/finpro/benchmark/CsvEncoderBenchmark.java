@@ -0,0 +1,145 @@
+package com.fintech.finpro.benchmark;
+
+import com.fintech.finpro.util.CsvWriter;
+import com.fintech.finpro.util.LegacyCsvEscape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statement CSV encoding: the old regex/String escaping against CsvWriter, writing
+ * statement-shaped rows to a discarding Writer so only the encoding is measured.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.fintech.finpro.benchmark.CsvEncoderBenchmark
+ * and compare time and gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CsvEncoderBenchmark {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int DISTINCT_ROWS = 4096;
+
+    @Param({ "1000000" })
+    public int rows;
+
+    private long[] ids;
+    private LocalDateTime[] dates;
+    private String[] descriptions;
+    private String[] references;
+    private BigDecimal[] amounts;
+
+    @Setup
+    public void setUp() {
+        ids = new long[DISTINCT_ROWS];
+        dates = new LocalDateTime[DISTINCT_ROWS];
+        descriptions = new String[DISTINCT_ROWS];
+        references = new String[DISTINCT_ROWS];
+        amounts = new BigDecimal[DISTINCT_ROWS];
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int i = 0; i < DISTINCT_ROWS; i++) {
+            ids[i] = 1_000_000L + i;
+            dates[i] = start.plusSeconds(i * 37L);
+            // Mostly plain text, some rows needing quotes or line-break replacement
+            descriptions[i] = switch (i % 8) {
+                case 0 -> "IPO application, \"NABIL\" lot " + i;
+                case 1 -> "Customer's deposit\nvia branch";
+                default -> "Deposit via mobile banking " + i;
+            };
+            references[i] = "TXN-2026-" + String.format("%08d", i);
+            amounts[i] = BigDecimal.valueOf(i * 1_234L + 50, 2);
+        }
+    }
+
+    @Benchmark
+    public long legacyEncoder() throws IOException {
+        CountingWriter sink = new CountingWriter();
+        Writer writer = new BufferedWriter(sink, 64 * 1024);
+        for (int n = 0; n < rows; n++) {
+            int i = n & (DISTINCT_ROWS - 1);
+            writer.write(LegacyCsvEscape.escape(dates[i].format(DATE_FORMATTER)));
+            writer.write(",");
+            writer.write(LegacyCsvEscape.escape(String.valueOf(ids[i])));
+            writer.write(",");
+            writer.write(LegacyCsvEscape.escape(descriptions[i]));
+            writer.write(",");
+            writer.write(LegacyCsvEscape.escape(references[i]));
+            writer.write(",");
+            writer.write(LegacyCsvEscape.escape("DEPOSIT"));
+            writer.write(",");
+            writer.write(LegacyCsvEscape.escape(String.valueOf(amounts[i])));
+            writer.write(",");
+            writer.write(LegacyCsvEscape.escape("COMPLETED"));
+            writer.write("\n");
+        }
+        writer.flush();
+        return sink.count;
+    }
+
+    @Benchmark
+    public long csvWriter() throws IOException {
+        CountingWriter sink = new CountingWriter();
+        CsvWriter writer = new CsvWriter(sink, 64 * 1024);
+        for (int n = 0; n < rows; n++) {
+            int i = n & (DISTINCT_ROWS - 1);
+            writer.field(dates[i])
+                    .field(ids[i])
+                    .field(descriptions[i])
+                    .field(references[i])
+                    .field("DEPOSIT")
+                    .field(amounts[i])
+                    .field("COMPLETED")
+                    .endRow();
+        }
+        writer.flush();
+        return sink.count;
+    }
+
+    /** Discards output, counting chars so the work cannot be optimised away */
+    private static final class CountingWriter extends Writer {
+        long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(CsvEncoderBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
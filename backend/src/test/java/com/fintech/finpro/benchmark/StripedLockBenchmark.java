@@ -0,0 +1,101 @@
+package com.fintech.finpro.benchmark;
+
+import com.fintech.finpro.util.StripedLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Two-account postings under StripedLock with a simulated 250us database round trip
+ * while the locks are held: every thread on its own pair of accounts, and every thread
+ * debiting one shared hot account. main() runs both at 1, 2, 4 and 8 threads.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.fintech.finpro.benchmark.StripedLockBenchmark
+ * and compare ops/s across thread counts: disjoint accounts should scale with threads,
+ * the hot account should stay flat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StripedLockBenchmark {
+
+    @Param({ "1024" })
+    public int stripes;
+
+    @Param({ "250" })
+    public long workMicros;
+
+    private StripedLock locks;
+    private long workNanos;
+
+    @Setup
+    public void setUp() {
+        locks = new StripedLock(stripes);
+        workNanos = TimeUnit.MICROSECONDS.toNanos(workMicros);
+    }
+
+    @State(Scope.Thread)
+    public static class Accounts {
+
+        private static final AtomicInteger NEXT_THREAD = new AtomicInteger();
+
+        long[] disjoint;
+        long[] hot;
+
+        @Setup
+        public void setUp() {
+            int t = NEXT_THREAD.getAndIncrement();
+            // Thread t only ever touches accounts 2t+1 and 2t+2; account 0 is the shared one
+            disjoint = new long[] { 2L * t + 1, 2L * t + 2 };
+            hot = new long[] { 0, 2L * t + 1 };
+        }
+    }
+
+    @Benchmark
+    public void disjointAccounts(Accounts accounts) {
+        post(accounts.disjoint);
+    }
+
+    @Benchmark
+    public void hotAccount(Accounts accounts) {
+        post(accounts.hot);
+    }
+
+    private void post(long[] keys) {
+        List<ReentrantLock> held = locks.lockAll(keys, 10, TimeUnit.SECONDS);
+        try {
+            LockSupport.parkNanos(workNanos);
+        } finally {
+            locks.unlockAll(held);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int threads : new int[] { 1, 2, 4, 8 }) {
+            new Runner(new OptionsBuilder()
+                    .include(StripedLockBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
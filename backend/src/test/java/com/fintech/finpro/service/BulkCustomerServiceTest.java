@@ -103,4 +103,41 @@ public class BulkCustomerServiceTest {
         assertEquals(100L, secondCall.getGuardianId());
         assertEquals("MOTHER", secondCall.getGuardianRelation());
     }
+
+    @Test
+    public void testFailingInitialDepositIsRetriedAlone() throws Exception {
+        String csvContent = "FirstName,LastName,Email,MobileNumber,DateOfBirth,Gender,Address,BankAccountNumber,CitizenshipNumber,InitialDeposit,IsMinor,GuardianId,GuardianCitizenshipNumber,GuardianRelation\n"
+                +
+                "Ram,Shah,ram@test.com,9800000002,1980-01-01,MALE,Kathmandu,9990000002,111/22,1000,FALSE,,,\n"
+                +
+                "Sita,Shah,sita@test.com,9800000003,1982-01-01,FEMALE,Kathmandu,9990000003,333/44,2000,FALSE,,,";
+
+        MockMultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", csvContent.getBytes());
+
+        CustomerDTO ram = new CustomerDTO();
+        ram.setId(200L);
+        ram.setBankAccountNumber("9990000002");
+        CustomerDTO sita = new CustomerDTO();
+        sita.setId(201L);
+        sita.setBankAccountNumber("9990000003");
+        when(customerService.createCustomer(any())).thenReturn(ram, sita);
+        when(customerBankAccountRepository.findByCustomerIdAndAccountNumber(anyLong(), anyString()))
+                .thenReturn(Optional.of(new com.fintech.finpro.entity.CustomerBankAccount()));
+
+        // The chunk fails because of Sita's deposit; Ram's deposit goes through on the retry
+        when(transactionService.depositToCustomers(anyList(), anyString(), anyLong())).thenAnswer(invocation -> {
+            List<TransactionService.CustomerDeposit> deposits = invocation.getArgument(0);
+            if (deposits.stream().anyMatch(d -> d.customerId() == 201L)) {
+                throw new RuntimeException("Ledger account locked");
+            }
+            return List.of("TXN-1");
+        });
+
+        List<String> report = bulkCustomerService.processBulkUpload(file, 1L, 1L);
+
+        verify(transactionService, times(3)).depositToCustomers(anyList(), anyString(), anyLong());
+        assertEquals("Summary: 2 successful, 0 failed.", report.get(0));
+        assertEquals(2, report.size());
+        assertEquals("Failed to post initial deposit of 2000 for customer 201: Ledger account locked", report.get(1));
+    }
 }
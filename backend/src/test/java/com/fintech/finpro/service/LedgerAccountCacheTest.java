@@ -0,0 +1,60 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.entity.LedgerAccount;
+import com.fintech.finpro.enums.LedgerAccountType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LedgerAccountCacheTest {
+
+    @Test
+    public void testSystemAccountsAreKeyedByName() {
+        LedgerAccountCache cache = new LedgerAccountCache(10);
+        cache.put(LedgerAccountType.FEE_INCOME, null, "CASBA Charges", 3L);
+        cache.put(LedgerAccountType.FEE_INCOME, null, "Demat Fees", 4L);
+
+        assertEquals(Long.valueOf(3L), cache.get(LedgerAccountType.FEE_INCOME, null, "CASBA Charges"));
+        assertEquals(Long.valueOf(4L), cache.get(LedgerAccountType.FEE_INCOME, null, "Demat Fees"));
+    }
+
+    @Test
+    public void testOwnedAccountsIgnoreDisplayName() {
+        LedgerAccountCache cache = new LedgerAccountCache(10);
+        cache.put(LedgerAccountType.CUSTOMER_LEDGER, 42L, "Old Name - Ledger", 7L);
+
+        assertEquals(Long.valueOf(7L), cache.get(LedgerAccountType.CUSTOMER_LEDGER, 42L, "New Name - Ledger"));
+        assertNull(cache.get(LedgerAccountType.INVESTOR_LEDGER, 42L, "Old Name - Ledger"));
+    }
+
+    @Test
+    public void testOwnedAccountsAreBoundedLru() {
+        LedgerAccountCache cache = new LedgerAccountCache(2);
+        cache.put(LedgerAccountType.CUSTOMER_LEDGER, 1L, "a", 11L);
+        cache.put(LedgerAccountType.CUSTOMER_LEDGER, 2L, "b", 12L);
+        // Touch 1 so 2 becomes the eldest
+        cache.get(LedgerAccountType.CUSTOMER_LEDGER, 1L, "a");
+        cache.put(LedgerAccountType.CUSTOMER_LEDGER, 3L, "c", 13L);
+
+        assertEquals(Long.valueOf(11L), cache.get(LedgerAccountType.CUSTOMER_LEDGER, 1L, "a"));
+        assertNull(cache.get(LedgerAccountType.CUSTOMER_LEDGER, 2L, "b"));
+        assertEquals(Long.valueOf(13L), cache.get(LedgerAccountType.CUSTOMER_LEDGER, 3L, "c"));
+    }
+
+    @Test
+    public void testEvictDropsDeletedAccount() {
+        LedgerAccountCache cache = new LedgerAccountCache(10);
+        cache.put(LedgerAccountType.CUSTOMER_LEDGER, 42L, "x", 7L);
+        cache.put(LedgerAccountType.INVESTOR_LEDGER, 42L, "y", 8L);
+
+        LedgerAccount deleted = new LedgerAccount();
+        deleted.setId(7L);
+        cache.evict(deleted);
+        assertNull(cache.get(LedgerAccountType.CUSTOMER_LEDGER, 42L, "x"));
+        assertEquals(Long.valueOf(8L), cache.get(LedgerAccountType.INVESTOR_LEDGER, 42L, "y"));
+
+        cache.evictOwner(42L);
+        assertEquals(0, cache.size());
+    }
+}
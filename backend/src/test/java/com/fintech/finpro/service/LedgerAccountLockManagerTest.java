@@ -0,0 +1,247 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.entity.LedgerAccount;
+import com.fintech.finpro.repository.LedgerPostingRepository;
+import com.fintech.finpro.util.StripedLock;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class LedgerAccountLockManagerTest {
+
+    @Mock
+    private LedgerPostingRepository postingRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(entityManager.find(eq(LedgerAccount.class), anyLong(), any(LockModeType.class)))
+                .thenAnswer(invocation -> account(invocation.getArgument(1)));
+        beginTransaction();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        endTransaction();
+    }
+
+    @Test
+    public void testDatabaseModeLocksRowsInAscendingIdOrder() {
+        LedgerAccountLockManager manager = manager(LedgerAccountLockManager.Mode.DATABASE, 10_000);
+
+        Map<Long, LedgerAccount> locked = manager.lockForPosting(account(9L), account(2L), account(5L), account(2L));
+
+        assertEquals(List.of(2L, 5L, 9L), List.copyOf(locked.keySet()));
+        InOrder order = inOrder(entityManager);
+        order.verify(entityManager).flush();
+        order.verify(entityManager).find(LedgerAccount.class, 2L, LockModeType.PESSIMISTIC_WRITE);
+        order.verify(entityManager).find(LedgerAccount.class, 5L, LockModeType.PESSIMISTIC_WRITE);
+        order.verify(entityManager).find(LedgerAccount.class, 9L, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    @Test
+    public void testDatabaseModeRefreshesManagedAccountsWithRowLock() {
+        LedgerAccountLockManager manager = manager(LedgerAccountLockManager.Mode.DATABASE, 10_000);
+        LedgerAccount managed = account(3L);
+        when(entityManager.contains(managed)).thenReturn(true);
+
+        Map<Long, LedgerAccount> locked = manager.lockForPosting(managed, account(1L));
+
+        assertEquals(List.of(1L, 3L), List.copyOf(locked.keySet()));
+        InOrder order = inOrder(entityManager);
+        order.verify(entityManager).find(LedgerAccount.class, 1L, LockModeType.PESSIMISTIC_WRITE);
+        order.verify(entityManager).refresh(managed, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    @Test
+    public void testDatabaseModeBatchLockReadsSortedDistinctIdsForUpdate() {
+        LedgerAccountLockManager manager = manager(LedgerAccountLockManager.Mode.DATABASE, 10_000);
+        when(postingRepository.findBalances(aryEq(new long[] { 3, 7, 9 }), eq(true)))
+                .thenReturn(Map.of(3L, BigDecimal.ONE, 7L, BigDecimal.TEN, 9L, BigDecimal.ZERO));
+
+        Map<Long, BigDecimal> balances = manager.lockBalances(List.of(9L, 3L, 9L, 7L));
+
+        assertEquals(3, balances.size());
+        verify(entityManager).flush();
+        verify(postingRepository).findBalances(aryEq(new long[] { 3, 7, 9 }), eq(true));
+    }
+
+    @Test
+    public void testBatchLockFailsOnMissingAccount() {
+        LedgerAccountLockManager manager = manager(LedgerAccountLockManager.Mode.DATABASE, 10_000);
+        when(postingRepository.findBalances(any(), eq(true))).thenReturn(Map.of(3L, BigDecimal.ONE));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> manager.lockBalances(List.of(3L, 4L)));
+        assertEquals("Ledger account not found: 4", e.getMessage());
+    }
+
+    @Test
+    public void testLockingOutsideTransactionIsRejected() {
+        endTransaction();
+        LedgerAccountLockManager manager = manager(LedgerAccountLockManager.Mode.DATABASE, 10_000);
+
+        assertThrows(RuntimeException.class, () -> manager.lockForPosting(account(1L)));
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    public void testNoneModeSkipsLocking() {
+        LedgerAccountLockManager manager = manager(LedgerAccountLockManager.Mode.NONE, 10_000);
+
+        Map<Long, LedgerAccount> locked = manager.lockForPosting(account(2L), account(1L));
+
+        assertEquals(List.of(1L, 2L), List.copyOf(locked.keySet()));
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    public void testStripedModeHoldsStripesUntilTransactionCompletes() throws Exception {
+        LedgerAccountLockManager manager = manager(LedgerAccountLockManager.Mode.STRIPED, 50);
+        manager.lockForPosting(account(1L), account(2L));
+        verify(entityManager).find(LedgerAccount.class, 1L, LockModeType.NONE);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> blocked = pool.submit(() -> lockInOwnTransaction(manager, 2L));
+            Exception e = assertThrows(Exception.class, () -> blocked.get(10, TimeUnit.SECONDS));
+            assertEquals("Timed out waiting for account lock", e.getCause().getMessage());
+
+            for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+                sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+
+            Future<?> entered = pool.submit(() -> lockInOwnTransaction(manager, 2L));
+            entered.get(10, TimeUnit.SECONDS);
+            assertTrue(entered.isDone());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStripedModeFailsFastOnBusyStripeBelowOneAlreadyHeld() throws Exception {
+        LedgerAccountLockManager manager = manager(LedgerAccountLockManager.Mode.STRIPED, 10_000);
+        StripedLock stripes = (StripedLock) ReflectionTestUtils.getField(manager, "stripedLock");
+        long high = 1;
+        long low = 2;
+        while (stripes.indexFor(low) >= stripes.indexFor(high)) {
+            low++;
+        }
+        long busy = low;
+        long free = low + 1;
+        while (stripes.indexFor(free) >= stripes.indexFor(high) || stripes.indexFor(free) == stripes.indexFor(busy)) {
+            free++;
+        }
+
+        manager.lockForPosting(account(high));
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            pool.submit(() -> {
+                List<ReentrantLock> held = stripes.lockAll(new long[] { busy }, 1, TimeUnit.SECONDS);
+                locked.countDown();
+                release.await();
+                stripes.unlockAll(held);
+                return null;
+            });
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+            // A free lower stripe is taken; a busy one fails at once instead of waiting 10 s
+            manager.lockForPosting(account(free));
+            long started = System.nanoTime();
+            RuntimeException e = assertThrows(RuntimeException.class, () -> manager.lockForPosting(account(busy)));
+            assertEquals("Account lock needed out of order is busy", e.getMessage());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 5_000);
+        } finally {
+            release.countDown();
+            pool.shutdown();
+            completeTransaction();
+        }
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Completion released every stripe the transaction took
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> entered = other.submit(() -> {
+                for (long id : new long[] { high, free }) {
+                    lockInOwnTransaction(manager, id);
+                }
+            });
+            entered.get(30, TimeUnit.SECONDS);
+        } finally {
+            other.shutdownNow();
+        }
+    }
+
+    private LedgerAccountLockManager manager(LedgerAccountLockManager.Mode mode, long timeoutMillis) {
+        LedgerAccountLockManager manager = new LedgerAccountLockManager(postingRepository, mode, 64, timeoutMillis);
+        ReflectionTestUtils.setField(manager, "entityManager", entityManager);
+        return manager;
+    }
+
+    private static void lockInOwnTransaction(LedgerAccountLockManager manager, long accountId) {
+        beginTransaction();
+        try {
+            manager.lockForPosting(account(accountId));
+        } finally {
+            completeTransaction();
+        }
+    }
+
+    private static void completeTransaction() {
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        endTransaction();
+    }
+
+    private static void beginTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private static void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private static LedgerAccount account(long id) {
+        LedgerAccount account = new LedgerAccount();
+        account.setId(id);
+        return account;
+    }
+}
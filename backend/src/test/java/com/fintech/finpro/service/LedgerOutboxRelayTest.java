@@ -0,0 +1,92 @@
+package com.fintech.finpro.service;
+
+import com.fintech.finpro.repository.LedgerOutboxRepository;
+import com.fintech.finpro.repository.LedgerOutboxRepository.OutboxRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class LedgerOutboxRelayTest {
+
+    @Mock
+    private LedgerOutboxRepository outboxRepository;
+
+    @Mock
+    private LedgerOutbox outbox;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleTransactionStatus batchStatus = new SimpleTransactionStatus();
+    private final SimpleTransactionStatus publishStatus = new SimpleTransactionStatus();
+
+    private LedgerOutboxRelay relay;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(argThat(def -> def == null
+                || def.getPropagationBehavior() != TransactionDefinition.PROPAGATION_REQUIRES_NEW)))
+                .thenReturn(batchStatus);
+        when(transactionManager.getTransaction(argThat(def -> def != null
+                && def.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW)))
+                .thenReturn(publishStatus);
+
+        OutboxRow first = new OutboxRow(1L, LedgerPostedEvent.LEDGER_POSTED, null, "[]", 0, LocalDateTime.now());
+        OutboxRow second = new OutboxRow(2L, LedgerPostedEvent.LEDGER_POSTED, null, "[]", 0, LocalDateTime.now());
+        when(outboxRepository.claim(anyInt(), anyInt())).thenReturn(List.of(first, second));
+        when(outbox.toEvent(any())).thenAnswer(invocation -> {
+            OutboxRow row = invocation.getArgument(0);
+            return new LedgerPostedEvent(row.id(), row.eventType(), null, List.of(), row.createdAt());
+        });
+
+        relay = new LedgerOutboxRelay(outboxRepository, outbox, eventPublisher, transactionManager, true, false, 10,
+                5, 7);
+    }
+
+    @Test
+    public void testFailingSubscriberOnlyFailsItsEvent() {
+        doThrow(new RuntimeException("subscriber failed")).doNothing().when(eventPublisher)
+                .publishEvent(any(Object.class));
+
+        relay.relay();
+
+        verify(transactionManager).rollback(publishStatus);
+        verify(outboxRepository).markFailed(eq(1L), anyString());
+        verify(outboxRepository).markPublished(List.of(2L));
+        verify(transactionManager).commit(batchStatus);
+        verify(transactionManager, never()).rollback(batchStatus);
+    }
+
+    @Test
+    public void testRollbackOnlySubscriberTransactionStillCountsTheAttempt() {
+        doThrow(new UnexpectedRollbackException("marked rollback-only")).doNothing().when(transactionManager)
+                .commit(publishStatus);
+
+        relay.relay();
+
+        verify(outboxRepository).markFailed(eq(1L), anyString());
+        verify(outboxRepository, never()).markFailed(eq(2L), anyString());
+        verify(outboxRepository).markPublished(List.of(2L));
+        verify(transactionManager).commit(batchStatus);
+    }
+}
@@ -0,0 +1,95 @@
+package com.fintech.finpro.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TransactionIdAllocatorTest {
+
+    private static final int BLOCK = 1000;
+
+    /** Simulates transaction_id_seq with INCREMENT BY 1000 */
+    private static class FakeSequence {
+        final AtomicLong lastValue = new AtomicLong(0);
+        final AtomicInteger calls = new AtomicInteger();
+
+        long nextval() {
+            calls.incrementAndGet();
+            return lastValue.addAndGet(BLOCK);
+        }
+    }
+
+    @Test
+    public void testFormatsLikeLegacyIds() {
+        assertEquals("TXN-2026-00000042", TransactionIdAllocator.format(2026, 42));
+        assertEquals("TXN-2026-123456789", TransactionIdAllocator.format(2026, 123456789));
+        assertEquals(String.format("TXN-2026-%08d", 1234L), TransactionIdAllocator.format(2026, 1234));
+    }
+
+    @Test
+    public void testOneSequenceCallPerBlock() {
+        FakeSequence seq = new FakeSequence();
+        TransactionIdAllocator allocator = new TransactionIdAllocator(seq::nextval, () -> BLOCK);
+
+        for (long expected = 1; expected <= 5 * BLOCK; expected++) {
+            assertEquals(expected, allocator.nextValue());
+        }
+        // 5 blocks consumed plus at most one prefetched standby
+        assertTrue(seq.calls.get() <= 6, "Sequence hit " + seq.calls.get() + " times");
+        allocator.shutdown();
+    }
+
+    @Test
+    public void testInstancesSharingSequenceNeverCollide() throws Exception {
+        FakeSequence seq = new FakeSequence();
+        TransactionIdAllocator nodeA = new TransactionIdAllocator(seq::nextval, () -> BLOCK);
+        TransactionIdAllocator nodeB = new TransactionIdAllocator(seq::nextval, () -> BLOCK);
+
+        Set<Long> issued = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 5000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicInteger duplicates = new AtomicInteger();
+
+        for (int t = 0; t < threads; t++) {
+            TransactionIdAllocator node = t % 2 == 0 ? nodeA : nodeB;
+            pool.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    if (!issued.add(node.nextValue())) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS), "Allocation did not finish");
+        pool.shutdown();
+        assertEquals(0, duplicates.get());
+        assertEquals(threads * perThread, issued.size());
+        nodeA.shutdown();
+        nodeB.shutdown();
+    }
+
+    @Test
+    public void testFreshSequenceDoesNotIssueNonPositiveIds() {
+        // A never-used sequence returns its START value (1) on the first nextval
+        AtomicLong next = new AtomicLong(1 - BLOCK);
+        TransactionIdAllocator allocator = new TransactionIdAllocator(() -> next.addAndGet(BLOCK), () -> BLOCK);
+
+        assertEquals(1, allocator.nextValue());
+        assertEquals(2, allocator.nextValue());
+        allocator.shutdown();
+    }
+}
@@ -0,0 +1,68 @@
+package com.fintech.finpro.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AllotmentLotteryTest {
+
+    private static final int LOT = 10;
+
+    @Test
+    public void testUndersubscribedIssueAllotsEverything() {
+        int[] applied = { 10, 50, 100 };
+        assertArrayEquals(applied, AllotmentLottery.allot(applied, 160, LOT, 1L));
+    }
+
+    @Test
+    public void testLotteryGivesOneLotToExactlyAsManyWinners() {
+        int[] applied = randomApplications(10_000, 7L);
+        int[] allotted = AllotmentLottery.allot(applied, 2_500 * LOT, LOT, 42L);
+
+        int winners = 0;
+        for (int shares : allotted) {
+            assertTrue(shares == 0 || shares == LOT);
+            winners += shares / LOT;
+        }
+        assertEquals(2_500, winners);
+    }
+
+    @Test
+    public void testProRataFillsTheOfferWithinAppliedQuantities() {
+        int[] applied = randomApplications(10_000, 11L);
+        long offered = Arrays.stream(applied).asLongStream().sum() / 20 / LOT * LOT + 30_000 * LOT;
+        int[] allotted = AllotmentLottery.allot(applied, offered, LOT, 42L);
+
+        long total = 0;
+        for (int i = 0; i < applied.length; i++) {
+            assertTrue(allotted[i] >= LOT && allotted[i] <= applied[i]);
+            assertEquals(0, allotted[i] % LOT);
+            total += allotted[i];
+        }
+        assertEquals(offered, total);
+    }
+
+    @Test
+    public void testSameSeedReproducesTheDraw() {
+        int[] applied = randomApplications(50_000, 3L);
+        int[] first = AllotmentLottery.allot(applied, 4_000 * LOT, LOT, 2026L);
+        assertArrayEquals(first, AllotmentLottery.allot(applied, 4_000 * LOT, LOT, 2026L));
+        assertFalse(Arrays.equals(first, AllotmentLottery.allot(applied, 4_000 * LOT, LOT, 2027L)));
+    }
+
+    /** Between 1 and 20 lots each */
+    private static int[] randomApplications(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] applied = new int[count];
+        for (int i = 0; i < count; i++) {
+            applied[i] = (1 + random.nextInt(20)) * LOT;
+        }
+        return applied;
+    }
+}
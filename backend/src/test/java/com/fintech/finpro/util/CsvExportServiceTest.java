@@ -0,0 +1,82 @@
+package com.fintech.finpro.util;
+
+import com.fintech.finpro.dto.AccountStatementDTO;
+import com.fintech.finpro.dto.BankTransactionDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CsvExportServiceTest {
+
+    private final CsvExportService csvExportService = new CsvExportService();
+
+    private static List<BankTransactionDTO> sampleRows() {
+        List<BankTransactionDTO> rows = new ArrayList<>();
+        rows.add(BankTransactionDTO.builder()
+                .id(1L)
+                .date(LocalDateTime.of(2026, 1, 2, 3, 4, 5))
+                .type("DEPOSIT")
+                .amount(new BigDecimal("1500.00"))
+                .description("Initial deposit")
+                .referenceId("TXN-2026-00000001")
+                .status("COMPLETED")
+                .build());
+        rows.add(BankTransactionDTO.builder()
+                .id(2L)
+                .date(LocalDateTime.of(2026, 1, 2, 3, 4, 6))
+                .type("FEE")
+                .amount(new BigDecimal("5"))
+                .description("CASBA charge, \"Bank A\"\nline two")
+                .referenceId(null)
+                .status("COMPLETED")
+                .build());
+        rows.add(BankTransactionDTO.builder()
+                .id(3L)
+                .date(LocalDateTime.of(2026, 1, 3, 0, 0))
+                .type("WITHDRAWAL")
+                .amount(null)
+                .description("Line\r\nbreak only")
+                .referenceId("customer's ref")
+                .status("COMPLETED")
+                .build());
+        return rows;
+    }
+
+    @Test
+    public void testStreamedCsvMatchesBufferedCsv() throws Exception {
+        List<BankTransactionDTO> rows = sampleRows();
+        byte[] buffered = csvExportService.generateStatementCsv(
+                AccountStatementDTO.builder().transactions(rows).build());
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        csvExportService.writeStatementCsv(streamed, false, rowWriter -> rows.forEach(rowWriter));
+
+        assertArrayEquals(buffered, streamed.toByteArray());
+    }
+
+    @Test
+    public void testGzipStreamDecompressesToSameCsv() throws Exception {
+        List<BankTransactionDTO> rows = sampleRows();
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        csvExportService.writeStatementCsv(plain, false, rowWriter -> rows.forEach(rowWriter));
+
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        csvExportService.writeStatementCsv(gzipped, true, rowWriter -> rows.forEach(rowWriter));
+
+        byte[] inflated;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.toByteArray()))) {
+            inflated = in.readAllBytes();
+        }
+        assertEquals(plain.toString(StandardCharsets.UTF_8), new String(inflated, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,97 @@
+package com.fintech.finpro.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CsvWriterTest {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static String write(Object value) throws Exception {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out, 64);
+        if (value instanceof BigDecimal) {
+            writer.field((BigDecimal) value);
+        } else if (value instanceof LocalDateTime) {
+            writer.field((LocalDateTime) value);
+        } else if (value instanceof Long) {
+            writer.field(((Long) value).longValue());
+        } else {
+            writer.field((String) value);
+        }
+        writer.flush();
+        return out.toString();
+    }
+
+    @Test
+    public void testEscapingMatchesLegacyEncoder() throws Exception {
+        String[] samples = { null, "", "plain", "a,b", "say \"hi\"", "customer's", "line\nbreak",
+                "crlf\r\nbreak", "cr\rlf\n\r", "quoted, with\nnewline", "\u0085\u2028\u2029\u000B\u000C" };
+        for (String sample : samples) {
+            assertEquals(LegacyCsvEscape.escape(sample), write(sample));
+        }
+
+        char[] alphabet = { 'a', 'Z', '0', ' ', ',', '"', '\'', '\n', '\r', '\u2028', '\u0085', '\t', '\u00e9' };
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            char[] chars = new char[random.nextInt(30)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String sample = new String(chars);
+            assertEquals(LegacyCsvEscape.escape(sample), write(sample));
+        }
+    }
+
+    @Test
+    public void testBigDecimalMatchesToString() throws Exception {
+        String[] samples = { "0", "0.00", "5", "-5", "1500.00", "0.05", "-0.05", "0.000001", "0.0000001",
+                "0E-8", "1E+3", "123456789012345678", "1234567890123456789.12", "-999999999999.99",
+                "0.123456789012345678", "9223372036854775807", "-9223372036854775808" };
+        for (String sample : samples) {
+            BigDecimal value = new BigDecimal(sample);
+            assertEquals(value.toString(), write(value));
+        }
+
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            BigDecimal value = BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(24) - 2);
+            assertEquals(value.toString(), write(value));
+        }
+    }
+
+    @Test
+    public void testLongAndDateFormatting() throws Exception {
+        for (long value : new long[] { 0, 7, -7, 1000, Long.MAX_VALUE, Long.MIN_VALUE }) {
+            assertEquals(Long.toString(value), write(Long.valueOf(value)));
+        }
+        for (LocalDateTime value : new LocalDateTime[] { LocalDateTime.of(2026, 1, 2, 3, 4, 5, 999),
+                LocalDateTime.of(999, 12, 31, 23, 59, 59), LocalDateTime.of(12026, 6, 1, 0, 0) }) {
+            assertEquals(value.format(DATE_FORMATTER), write(value));
+        }
+    }
+
+    @Test
+    public void testRowsAndSmallBuffer() throws Exception {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out, 64);
+        writer.raw("A,B,C\n");
+        for (int i = 0; i < 50; i++) {
+            writer.field(i).field("x, y").field(new BigDecimal("1.50")).endRow();
+        }
+        writer.flush();
+
+        StringBuilder expected = new StringBuilder("A,B,C\n");
+        for (int i = 0; i < 50; i++) {
+            expected.append(i).append(",\"x, y\",1.50\n");
+        }
+        assertEquals(expected.toString(), out.toString());
+    }
+}
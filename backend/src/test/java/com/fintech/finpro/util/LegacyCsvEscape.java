@@ -0,0 +1,23 @@
+package com.fintech.finpro.util;
+
+/**
+ * The regex-based escaping CsvWriter replaced, kept as the reference for CsvWriterTest
+ * and benchmark.CsvEncoderBenchmark
+ */
+public final class LegacyCsvEscape {
+
+    private LegacyCsvEscape() {
+    }
+
+    public static String escape(String data) {
+        if (data == null) {
+            return "";
+        }
+        String escapedData = data.replaceAll("\\R", " ");
+        if (data.contains(",") || data.contains("\"") || data.contains("'")) {
+            data = data.replace("\"", "\"\"");
+            escapedData = "\"" + data + "\"";
+        }
+        return escapedData;
+    }
+}
@@ -0,0 +1,63 @@
+package com.fintech.finpro.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StatementCursorTest {
+
+    private static final byte[] KEY = "test-cursor-key".getBytes(StandardCharsets.UTF_8);
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2026, 4, 1, 0, 0);
+    private static final String SCOPE = StatementCursor.scope("LEDGER", 42L, FROM, TO);
+
+    @Test
+    public void testRoundTripKeepsMicrosecondsAndScale() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_793_000);
+        StatementCursor cursor = new StatementCursor(createdAt, 123456789L, new BigDecimal("-1050.50"));
+
+        StatementCursor decoded = StatementCursor.decode(cursor.encode(SCOPE, KEY), SCOPE, KEY);
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals(123456789L, decoded.getId());
+        assertEquals(new BigDecimal("-1050.50"), decoded.getBalance());
+    }
+
+    @Test
+    public void testRejectsMalformedCursor() {
+        assertThrows(RuntimeException.class, () -> StatementCursor.decode("not-a-cursor", SCOPE, KEY));
+        assertThrows(RuntimeException.class, () -> StatementCursor.decode("%%%", SCOPE, KEY));
+    }
+
+    @Test
+    public void testRejectsEditedBalance() {
+        String token = new StatementCursor(LocalDateTime.of(2026, 3, 14, 9, 0), 7L, new BigDecimal("100.00"))
+                .encode(SCOPE, KEY);
+        String forgedRaw = "2026-03-14T09:00|7|1000000.00";
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(forgedRaw.getBytes(StandardCharsets.UTF_8)) + token.substring(token.indexOf('.'));
+
+        assertThrows(RuntimeException.class, () -> StatementCursor.decode(forged, SCOPE, KEY));
+    }
+
+    @Test
+    public void testRejectsCursorFromAnotherStatementOrKey() {
+        String token = new StatementCursor(LocalDateTime.of(2026, 3, 14, 9, 0), 7L, new BigDecimal("100.00"))
+                .encode(SCOPE, KEY);
+
+        assertThrows(RuntimeException.class, () -> StatementCursor.decode(token,
+                StatementCursor.scope("LEDGER", 43L, FROM, TO), KEY));
+        assertThrows(RuntimeException.class, () -> StatementCursor.decode(token,
+                StatementCursor.scope("LEDGER", 42L, FROM, TO.plusDays(1)), KEY));
+        assertThrows(RuntimeException.class, () -> StatementCursor.decode(token,
+                StatementCursor.scope("BANK", 42L, FROM, TO), KEY));
+        assertThrows(RuntimeException.class, () -> StatementCursor.decode(token, SCOPE,
+                "other-key".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,212 @@
+package com.fintech.finpro.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Correctness only; throughput is measured by benchmark.StripedLockBenchmark
+ */
+public class StripedLockTest {
+
+    private static final int POSTINGS_PER_THREAD = 200;
+
+    @Test
+    public void testLockAllAcquiresStripesInAscendingOrder() {
+        StripedLock locks = new StripedLock(64);
+        long[] keys = { 900, 17, 4242, 3, 77, 1_000_003 };
+
+        List<ReentrantLock> held = locks.lockAll(keys, 1, TimeUnit.SECONDS);
+        try {
+            int previous = -1;
+            for (ReentrantLock lock : held) {
+                int index = stripeOf(locks, lock, keys);
+                assertTrue(index > previous, "Stripes must be acquired in ascending index order");
+                previous = index;
+            }
+        } finally {
+            locks.unlockAll(held);
+        }
+        assertTrue(held.stream().noneMatch(ReentrantLock::isLocked));
+    }
+
+    @Test
+    public void testKeysOnTheSameStripeAreLockedOnce() {
+        StripedLock locks = new StripedLock(8);
+        long first = 1;
+        long second = 2;
+        while (locks.indexFor(second) != locks.indexFor(first)) {
+            second++;
+        }
+
+        List<ReentrantLock> held = locks.lockAll(new long[] { second, first, first }, 1, TimeUnit.SECONDS);
+        try {
+            assertEquals(1, held.size());
+            assertEquals(1, held.get(0).getHoldCount());
+        } finally {
+            locks.unlockAll(held);
+        }
+    }
+
+    @Test
+    public void testHeldStripeExcludesOtherThreads() throws Exception {
+        StripedLock locks = new StripedLock(64);
+        long key = 42;
+        long other = 43;
+        while (locks.indexFor(other) == locks.indexFor(key)) {
+            other++;
+        }
+        long free = other;
+
+        List<ReentrantLock> held = locks.lockAll(new long[] { key }, 1, TimeUnit.SECONDS);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            // Same stripe: the second thread times out instead of entering
+            Future<?> blocked = pool.submit(() -> locks.lockAll(new long[] { key }, 50, TimeUnit.MILLISECONDS));
+            Exception e = assertThrows(Exception.class, () -> blocked.get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof RuntimeException);
+            assertEquals("Timed out waiting for account lock", e.getCause().getMessage());
+
+            // Different stripe: no contention
+            Future<Boolean> entered = pool.submit(() -> {
+                List<ReentrantLock> mine = locks.lockAll(new long[] { free }, 50, TimeUnit.MILLISECONDS);
+                locks.unlockAll(mine);
+                return true;
+            });
+            assertTrue(entered.get(10, TimeUnit.SECONDS));
+        } finally {
+            locks.unlockAll(held);
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testTimedOutLockAllReleasesStripesItAlreadyHeld() throws Exception {
+        StripedLock locks = new StripedLock(64);
+        // low is acquired first, then lockAll waits for the stripe held by the main thread
+        long low = 1;
+        long high = 2;
+        while (locks.indexFor(high) <= locks.indexFor(low)) {
+            high++;
+        }
+        long contended = high;
+
+        List<ReentrantLock> held = locks.lockAll(new long[] { contended }, 1, TimeUnit.SECONDS);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> attempt = pool.submit(() -> locks.lockAll(new long[] { low, contended }, 50,
+                    TimeUnit.MILLISECONDS));
+            assertThrows(Exception.class, () -> attempt.get(10, TimeUnit.SECONDS));
+
+            List<ReentrantLock> lowStripe = locks.lockAll(new long[] { low }, 1, TimeUnit.SECONDS);
+            assertEquals(1, lowStripe.get(0).getHoldCount(), "The failed attempt must not keep the low stripe");
+            locks.unlockAll(lowStripe);
+        } finally {
+            locks.unlockAll(held);
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentPostingsOnHotAccountDoNotLoseUpdates() throws Exception {
+        StripedLock locks = new StripedLock(64);
+        long[] balances = new long[16];
+        int threads = 8;
+
+        // Every posting moves 1 from the shared "core capital" account 0 to a customer account
+        runPostings(locks, balances, threads, t -> new long[] { 0, 1 + (t % 15) });
+
+        long total = 0;
+        for (long b : balances) {
+            total += b;
+        }
+        assertEquals(0, total, "Postings must conserve the total balance");
+        assertEquals(-(long) threads * POSTINGS_PER_THREAD, balances[0]);
+    }
+
+    @Test
+    public void testCrossedKeyPairsDoNotDeadlock() throws Exception {
+        StripedLock locks = new StripedLock(8);
+        long[] balances = new long[64];
+        long a = 1;
+        long b = 2;
+        while (locks.indexFor(b) == locks.indexFor(a)) {
+            b++;
+        }
+        long[] forward = { a, b };
+        long[] backward = { b, a };
+
+        // Half the threads lock (a, b), the other half (b, a) on two distinct stripes: ordered
+        // acquisition prevents deadlock. The lock timeout is far above the run time, so a
+        // deadlock surfaces as a timeout failure.
+        runPostings(locks, balances, 8, t -> t % 2 == 0 ? forward : backward);
+
+        assertEquals(0, balances[(int) a]);
+        assertEquals(0, balances[(int) b]);
+    }
+
+    private static int stripeOf(StripedLock locks, ReentrantLock lock, long[] keys) {
+        for (long key : keys) {
+            List<ReentrantLock> single = locks.lockAll(new long[] { key }, 1, TimeUnit.SECONDS);
+            ReentrantLock stripe = single.get(0);
+            locks.unlockAll(single);
+            if (stripe == lock) {
+                return locks.indexFor(key);
+            }
+        }
+        throw new AssertionError("Lock does not belong to any of the keys");
+    }
+
+    private interface AccountPicker {
+        long[] accountsFor(int thread);
+    }
+
+    private void runPostings(StripedLock locks, long[] balances, int threads, AccountPicker picker)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            long[] accounts = picker.accountsFor(t);
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < POSTINGS_PER_THREAD; i++) {
+                    List<ReentrantLock> held = locks.lockAll(accounts, 30, TimeUnit.SECONDS);
+                    try {
+                        // Read-modify-write, exactly like LedgerService.recordTransaction
+                        long debit = balances[(int) accounts[0]];
+                        long credit = balances[(int) accounts[1]];
+                        Thread.yield();
+                        balances[(int) accounts[0]] = debit - 1;
+                        balances[(int) accounts[1]] = credit + 1;
+                    } finally {
+                        locks.unlockAll(held);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        try {
+            for (Future<?> worker : workers) {
+                // Rethrows a lock timeout from the worker
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
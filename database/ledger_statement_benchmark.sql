@@ -0,0 +1,167 @@
+-- ============================================
+-- Ledger statement benchmark: one unpartitioned ledger_transactions table vs. the V47 monthly
+-- partitions. Both layouts carry the same indexes and run the same queries, so the difference
+-- is partitioning alone, not indexing.
+--
+-- Seeds 10M rows over 24 months and 10,000 accounts into a scratch schema, then times the
+-- statement page, bank statement, month total and reference lookup queries
+-- (StatementQueryRepository's shapes) five times each per layout. Every run is kept in
+-- ledger_bench.results and the medians are printed at the end; record them alongside the
+-- PostgreSQL version and host when quoting numbers. Does not touch the application tables.
+--
+-- Usage:  psql -d fintech_db -f database/ledger_statement_benchmark.sql
+-- Cleanup: DROP SCHEMA ledger_bench CASCADE;
+-- Seeding takes several minutes and roughly 3 GB of disk.
+-- ============================================
+
+\timing on
+SET client_min_messages = warning;
+
+DROP SCHEMA IF EXISTS ledger_bench CASCADE;
+CREATE SCHEMA ledger_bench;
+SET search_path = ledger_bench;
+
+-- Before: a single unpartitioned table
+CREATE TABLE txn_before (
+    id BIGINT PRIMARY KEY,
+    debit_account_id BIGINT,
+    credit_account_id BIGINT,
+    customer_bank_account_id BIGINT,
+    customer_id BIGINT,
+    investor_id BIGINT,
+    amount DECIMAL(15, 2) NOT NULL,
+    particulars TEXT,
+    transaction_type VARCHAR(50) NOT NULL,
+    reference_id VARCHAR(100),
+    status VARCHAR(20),
+    created_at TIMESTAMP NOT NULL
+);
+
+-- After: V47 layout, monthly partitions plus a default partition
+CREATE TABLE txn_after (LIKE txn_before INCLUDING DEFAULTS, PRIMARY KEY (id, created_at))
+    PARTITION BY RANGE (created_at);
+
+DO $$
+DECLARE
+    m DATE := date_trunc('month', CURRENT_DATE - INTERVAL '23 months')::date;
+BEGIN
+    WHILE m <= date_trunc('month', CURRENT_DATE)::date LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF txn_after FOR VALUES FROM (%L) TO (%L)',
+                'txn_after_p' || to_char(m, 'YYYYMM'), m, (m + INTERVAL '1 month')::date);
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+END;
+$$;
+CREATE TABLE txn_after_default PARTITION OF txn_after DEFAULT;
+
+-- 10M rows, created_at spread evenly over the last 24 months
+INSERT INTO txn_before
+SELECT g,
+       (g * 7919) % 10000 + 1,
+       (g * 104729) % 10000 + 1,
+       (g * 7919) % 10000 + 1,
+       (g * 31) % 5000 + 1,
+       (g * 17) % 200 + 1,
+       ((g % 100000) + 1) / 100.0,
+       'Seed posting ' || g,
+       (ARRAY['DEPOSIT', 'WITHDRAWAL', 'FEE', 'TRANSFER', 'SETTLEMENT'])[g % 5 + 1],
+       'TXN-BENCH-' || lpad(g::text, 8, '0'),
+       'COMPLETED',
+       date_trunc('month', CURRENT_DATE - INTERVAL '23 months')
+           + (g::double precision / 10000000) * (CURRENT_DATE - date_trunc('month', CURRENT_DATE - INTERVAL '23 months'))
+FROM generate_series(1, 10000000) AS g;
+
+INSERT INTO txn_after SELECT * FROM txn_before;
+
+-- Identical indexes on both layouts (V47's set)
+DO $$
+DECLARE
+    t TEXT;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['txn_before', 'txn_after'] LOOP
+        EXECUTE format('CREATE INDEX ON %I(debit_account_id, created_at, id)', t);
+        EXECUTE format('CREATE INDEX ON %I(credit_account_id, created_at, id)', t);
+        EXECUTE format('CREATE INDEX ON %I(customer_bank_account_id, created_at, id)', t);
+        EXECUTE format('CREATE INDEX ON %I(created_at)', t);
+        EXECUTE format('CREATE INDEX ON %I(reference_id)', t);
+        EXECUTE format('CREATE INDEX ON %I(customer_id)', t);
+        EXECUTE format('CREATE INDEX ON %I(investor_id)', t);
+    END LOOP;
+END;
+$$;
+
+VACUUM ANALYZE txn_before;
+VACUUM ANALYZE txn_after;
+
+CREATE TABLE results (
+    query TEXT NOT NULL,
+    layout TEXT NOT NULL,
+    run INT NOT NULL,
+    execution_ms NUMERIC NOT NULL
+);
+
+-- One warm-up run, then the execution time EXPLAIN ANALYZE reports for each timed run
+CREATE FUNCTION time_query(query TEXT, layout TEXT, stmt TEXT, runs INT) RETURNS VOID
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    plan JSON;
+BEGIN
+    EXECUTE stmt;
+    FOR i IN 1..runs LOOP
+        EXECUTE 'EXPLAIN (ANALYZE, FORMAT JSON) ' || stmt INTO plan;
+        INSERT INTO results VALUES (query, layout, i, (plan -> 0 ->> 'Execution Time')::numeric);
+    END LOOP;
+END;
+$$;
+
+-- Account 4242, last full month
+CREATE FUNCTION run_queries(tbl TEXT, layout TEXT) RETURNS VOID
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    acct BIGINT := 4242;
+    month_start TIMESTAMP := date_trunc('month', CURRENT_DATE - INTERVAL '1 month');
+    month_end TIMESTAMP := date_trunc('month', CURRENT_DATE);
+BEGIN
+    -- 1. Ledger statement page (newest 50 rows of a month)
+    PERFORM time_query('statement page', layout, format(
+        'SELECT id, created_at, transaction_type, amount, particulars, reference_id, status FROM ('
+        || '(SELECT * FROM %1$I WHERE debit_account_id = %2$s AND created_at >= %3$L AND created_at < %4$L'
+        || ' ORDER BY created_at DESC, id DESC LIMIT 50)'
+        || ' UNION ALL '
+        || '(SELECT * FROM %1$I WHERE credit_account_id = %2$s AND created_at >= %3$L AND created_at < %4$L'
+        || ' ORDER BY created_at DESC, id DESC LIMIT 50)) p'
+        || ' ORDER BY created_at DESC, id DESC LIMIT 50', tbl, acct, month_start, month_end), 5);
+
+    -- 2. Bank account statement for the month
+    PERFORM time_query('bank statement', layout, format(
+        'SELECT id, created_at, amount FROM %I WHERE customer_bank_account_id = %s'
+        || ' AND created_at >= %L AND created_at < %L ORDER BY created_at, id',
+        tbl, acct, month_start, month_end), 5);
+
+    -- 3. Month total (period close / reporting): pruning vs. a created_at range scan
+    PERFORM time_query('month total', layout, format(
+        'SELECT COUNT(*), SUM(amount) FROM %I WHERE created_at >= %L AND created_at < %L',
+        tbl, month_start, month_end), 5);
+
+    -- 4. Lookup by reference, no created_at bound: every partition is probed
+    PERFORM time_query('reference lookup', layout, format(
+        'SELECT * FROM %I WHERE reference_id = %L', tbl, 'TXN-BENCH-04242424'), 5);
+END;
+$$;
+
+SELECT run_queries('txn_before', 'unpartitioned');
+SELECT run_queries('txn_after', 'partitioned');
+
+\echo '--- median execution time (ms) per query and layout'
+SELECT query,
+       layout,
+       round(percentile_cont(0.5) WITHIN GROUP (ORDER BY execution_ms)::numeric, 3) AS median_ms,
+       min(execution_ms) AS min_ms,
+       max(execution_ms) AS max_ms
+FROM results
+GROUP BY query, layout
+ORDER BY query, layout;
+
+RESET search_path;
@@ -5,8 +5,14 @@ import {
     BankAccount,
     CreateBankAccountRequest,
     IPO,
+    IPOAllotmentReport,
     CreateIPORequest,
     IPOApplication,
+    IPOApplicationIntakeStatus,
+    BulkIPOApplicationRequest,
+    BulkIPOApplicationReport,
+    BulkIPOReviewRequest,
+    BulkIPOReviewReport,
     CreateIPOApplicationRequest,
 } from '../types';
 
@@ -109,7 +115,8 @@ export const ipoApi = {
         apiClient.put<IPO>(`/ipos/${id}`, data),
 
     updateStatus: (id: number, status: string) => apiClient.put<IPO>(`/ipos/${id}/status`, null, { params: { status } }),
-    allot: (id: number) => apiClient.post<IPO>(`/ipos/${id}/allot`),
+    simulateAllotment: (id: number) => apiClient.get<Record<string, unknown>>(`/ipos/${id}/allotment-simulation`),
+    allot: (id: number) => apiClient.post<IPOAllotmentReport>(`/ipos/${id}/allot`),
     list: (id: number) => apiClient.post<IPO>(`/ipos/${id}/list`),
     delete: (id: number) =>
         apiClient.delete(`/ipos/${id}`),
@@ -135,12 +142,27 @@ export const ipoApplicationApi = {
     create: (data: CreateIPOApplicationRequest) =>
         apiClient.post<IPOApplication>('/ipo-applications', data),
 
+    submitToIntake: (data: CreateIPOApplicationRequest) =>
+        apiClient.post<IPOApplicationIntakeStatus>('/ipo-applications/intake', data),
+
+    getIntakeStatus: (trackingNumber: string) =>
+        apiClient.get<IPOApplicationIntakeStatus>(`/ipo-applications/intake/${trackingNumber}`),
+
+    bulkApply: (data: BulkIPOApplicationRequest) =>
+        apiClient.post<BulkIPOApplicationReport>('/ipo-applications/bulk', data),
+
     approve: (id: number, approvedBy: string) =>
         apiClient.put<IPOApplication>(`/ipo-applications/${id}/approve`, null, { params: { approvedBy } }),
 
     verify: (id: number) =>
         apiClient.put<IPOApplication>(`/ipo-applications/${id}/verify`),
 
+    bulkVerify: (data: BulkIPOReviewRequest) =>
+        apiClient.put<BulkIPOReviewReport>('/ipo-applications/bulk-verify', data),
+
+    bulkApprove: (data: BulkIPOReviewRequest) =>
+        apiClient.put<BulkIPOReviewReport>('/ipo-applications/bulk-approve', data),
+
     reject: (id: number, reason: string) =>
         apiClient.put<IPOApplication>(`/ipo-applications/${id}/reject`, null, { params: { reason } }),
 
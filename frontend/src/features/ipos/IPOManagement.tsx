@@ -50,8 +50,19 @@ export default function IPOManagement() {
         }
 
         try {
-            await ipoApi.allot(id);
-            toast.success('Allotment processed successfully');
+            const { data: report } = await ipoApi.allot(id);
+            const summary = `${report.allotted} allotted, ${report.notAllotted} not allotted`;
+            if (report.failed > 0 || report.remaining > 0) {
+                const reason = report.failures?.[0]?.reason;
+                toast.error(
+                    `Allotment incomplete: ${summary}, ${report.failed} failed, ${report.remaining} still approved.`
+                    + (reason ? ` First failure: ${reason}.` : '')
+                    + ' Run allotment again to finish.',
+                    { duration: 8000 }
+                );
+            } else {
+                toast.success(`Allotment processed: ${summary}`);
+            }
             loadIPOs();
         } catch (error) {
             console.error('Failed to process allotment:', error);
@@ -213,6 +213,84 @@ export interface IPO {
     updatedAt: string;
 }
 
+export interface IPOAllotmentReport {
+    ipoId: number;
+    chunks: number;
+    allotted: number;
+    notAllotted: number;
+    failed: number;
+    elapsedMs: number;
+    failures: { applicationId: number; applicationNumber?: string; reason: string }[];
+    applicants: number;
+    seed: number;
+    allotmentStartedAt: string;
+    remaining: number;
+    ipo: IPO;
+}
+
+export interface IPOApplicationIntakeStatus {
+    trackingNumber: string;
+    status: 'QUEUED' | 'ACCEPTED' | 'REJECTED';
+    applicationId?: number;
+    error?: string;
+    customerId?: number;
+    ipoId?: number;
+    quantity?: number;
+    submittedAt?: string;
+    processedAt?: string;
+}
+
+export interface BulkIPOApplicationRequest {
+    ipoId: number;
+    makerId?: number;
+    items?: { customerId: number; bankAccountId: number; quantity: number }[];
+    allEligible?: boolean;
+    quantity?: number;
+}
+
+export interface BulkIPOApplicationReport {
+    ipoId: number;
+    requested: number;
+    applied: number;
+    rejected: number;
+    totalAmount: number;
+    elapsedMs: number;
+    results: {
+        customerId: number;
+        bankAccountId: number;
+        quantity: number;
+        status: 'APPLIED' | 'REJECTED';
+        applicationId?: number;
+        applicationNumber?: string;
+        amount?: number;
+        error?: string;
+    }[];
+}
+
+export interface BulkIPOReviewRequest {
+    applicationIds?: number[];
+    ipoId?: number;
+    status?: ApplicationStatus;
+    approvedBy?: string;
+}
+
+export interface BulkIPOReviewReport {
+    action: 'VERIFIED' | 'APPROVED';
+    requested: number;
+    processed: number;
+    rejected: number;
+    casbaCharged: number;
+    casbaTotal: number;
+    elapsedMs: number;
+    results: {
+        applicationId: number;
+        applicationNumber?: string;
+        status: 'VERIFIED' | 'APPROVED' | 'REJECTED';
+        casbaCharge?: number;
+        error?: string;
+    }[];
+}
+
 export interface CreateIPORequest {
     companyName: string;
     symbol?: string;